@@ -0,0 +1,210 @@
+package com.example;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Aggregate statistics over the game archive (STATS command).
+ *
+ * A refresh scans only the games finished since the previous one: the game ID range of those games is split
+ * by a fork-join task into ranges of at most go.analytics.leaf-range IDs, each leaf pages through its range
+ * and replays the games on a {@link Position}, and the partial {@link ArchiveStats} are merged on the way up.
+ * A finish time is stamped before its transaction commits, so a result can become visible after a refresh
+ * has already moved past its time. Every refresh therefore re-scans the last go.analytics.overlap-ms before
+ * the previous one and skips the games it has already counted, whatever their commit latency within that window.
+ *
+ * Refreshes run on a background thread every go.analytics.refresh-seconds; STATS only reads the last
+ * {@link Snapshot} and never waits for a scan.
+ */
+@Service
+public class ArchiveAnalytics {
+    private static final int PAGE_SIZE = 100;
+    private static final LocalDateTime BEGINNING = LocalDateTime.of(2000, 1, 1, 0, 0);
+
+    @Autowired
+    private GameRepository gameRepository;
+
+    @Autowired
+    private GameBlobRepository gameBlobRepository;
+
+    @Autowired
+    private MoveStore moveStore;
+
+    @Value("${go.analytics.leaf-range:1000}")
+    private long leafRange;
+
+    @Value("${go.analytics.overlap-ms:120000}")
+    private long overlapMillis;
+
+    @Value("${go.analytics.parallelism:0}")
+    private int parallelism;
+
+    @Value("${go.analytics.refresh-seconds:30}")
+    private long refreshSeconds;
+
+    private ForkJoinPool pool;
+    private ScheduledExecutorService timer;
+    private volatile Snapshot latest;
+
+    // guarded by this
+    private ArchiveStats total = new ArchiveStats();
+    private LocalDateTime watermark = BEGINNING;
+    // games counted within the overlap window, with their finish times; filled by the scan tasks
+    private final Map<Long, LocalDateTime> counted = new ConcurrentHashMap<>();
+    private long lastScanned;
+    private long lastScanMillis;
+
+    /**
+     * Result of one refresh: the running totals and how much work the refresh itself did.
+     */
+    public static class Snapshot {
+        private final ArchiveStats stats;
+        private final long newGames;
+        private final long scanMillis;
+
+        public Snapshot(ArchiveStats stats, long newGames, long scanMillis) {
+            this.stats = stats;
+            this.newGames = newGames;
+            this.scanMillis = scanMillis;
+        }
+
+        public ArchiveStats getStats() { return stats; }
+        public long getNewGames() { return newGames; }
+        public long getScanMillis() { return scanMillis; }
+    }
+
+    /**
+     * Result of the last background refresh; null until the first one has finished.
+     */
+    public Snapshot getSnapshot() {
+        return latest;
+    }
+
+    /**
+     * Adds the games finished since the last refresh to the totals and returns a copy of them.
+     */
+    public synchronized Snapshot refresh() {
+        long started = System.currentTimeMillis();
+        LocalDateTime from = watermark.minusNanos(overlapMillis * 1_000_000);
+        LocalDateTime to = LocalDateTime.now();
+        ArchiveStats delta = new ArchiveStats();
+
+        Long minId = gameRepository.findMinFinishedId(from, to);
+        Long maxId = gameRepository.findMaxFinishedId(from, to);
+        if (minId != null && maxId != null) {
+            delta = pool.invoke(new RangeScan(minId - 1, maxId, from, to));
+        }
+        watermark = to;
+        LocalDateTime nextFrom = to.minusNanos(overlapMillis * 1_000_000);
+        counted.values().removeIf(finished -> finished.isBefore(nextFrom));
+
+        total.merge(delta);
+        lastScanned = delta.getGames();
+        lastScanMillis = System.currentTimeMillis() - started;
+        EventLog.info("Analityka: przetworzono {} nowych gier w {} ms", lastScanned, lastScanMillis);
+        latest = new Snapshot(new ArchiveStats().merge(total), lastScanned, lastScanMillis);
+        return latest;
+    }
+
+    @PostConstruct
+    public void start() {
+        pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "analytics-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        timer.scheduleWithFixedDelay(() -> {
+            try {
+                refresh();
+            } catch (RuntimeException e) {
+                EventLog.error("Błąd odświeżania statystyk archiwum", e);
+            }
+        }, 0, Math.max(1, refreshSeconds), TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        timer.shutdownNow();
+        pool.shutdownNow();
+    }
+
+    /**
+     * Fetches the move blobs of one page of games with a single query.
+     */
+    private Map<Long, byte[]> loadBlobs(List<GameEntity> page) {
+        List<Long> ids = new ArrayList<>(page.size());
+        for (GameEntity game : page) ids.add(game.getId());
+        Map<Long, byte[]> blobs = new HashMap<>();
+        for (GameBlobEntity blob : gameBlobRepository.findAllById(ids)) {
+            blobs.put(blob.getGameId(), blob.getMoveBlob());
+        }
+        return blobs;
+    }
+
+    /**
+     * Scans the games with afterId &lt; id &lt;= maxId that finished in [from, to) and were not counted yet.
+     */
+    private class RangeScan extends RecursiveTask<ArchiveStats> {
+        private static final long serialVersionUID = 1L;
+
+        private final long afterId;
+        private final long maxId;
+        private final LocalDateTime from;
+        private final LocalDateTime to;
+
+        RangeScan(long afterId, long maxId, LocalDateTime from, LocalDateTime to) {
+            this.afterId = afterId;
+            this.maxId = maxId;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected ArchiveStats compute() {
+            if (maxId - afterId > leafRange) {
+                long middle = afterId + (maxId - afterId) / 2;
+                RangeScan left = new RangeScan(afterId, middle, from, to);
+                left.fork();
+                ArchiveStats right = new RangeScan(middle, maxId, from, to).compute();
+                return right.merge(left.join());
+            }
+
+            ArchiveStats stats = new ArchiveStats();
+            long cursor = afterId;
+            while (true) {
+                List<GameEntity> page = gameRepository.findFinishedPage(cursor, maxId, from, to, PageRequest.of(0, PAGE_SIZE));
+                List<GameEntity> fresh = new ArrayList<>(page.size());
+                for (GameEntity game : page) {
+                    if (counted.putIfAbsent(game.getId(), game.getFinishTime()) == null) fresh.add(game);
+                }
+                Map<Long, byte[]> blobs = loadBlobs(fresh);
+                for (GameEntity game : fresh) {
+                    byte[] blob = blobs.get(game.getId());
+                    List<MoveRecord> moves = blob != null
+                            ? MoveCodec.decode(game.getId(), blob)
+                            : moveStore.loadMoves(game.getId());
+                    stats.addGame(game.getBoardSize(), game.getResult(), moves);
+                }
+                if (page.size() < PAGE_SIZE) return stats;
+                cursor = page.get(page.size() - 1).getId();
+            }
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.example;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Aggregate statistics over a set of finished games.
+ * Not thread-safe: every scan task fills its own instance and the results are combined with {@link #merge}.
+ */
+public class ArchiveStats {
+    public static final int LENGTH_BUCKET = 25;
+    public static final int LENGTH_BUCKETS = 17;   // the last bucket collects games of 400+ moves
+
+    private static final int BLACK_WON = 0;
+    private static final int WHITE_WON = 1;
+    private static final int DRAW = 2;
+    private static final int OTHER = 3;
+
+    private static final String HEAT = " .:-=+*#%@";
+
+    private long games;
+    private long moves;
+    private long passes;
+    private long surrenders;
+    private long capturedByBlack;
+    private long capturedByWhite;
+    private final long[] lengths = new long[LENGTH_BUCKETS];
+    private final Map<Integer, long[]> resultsBySize = new TreeMap<>();
+    private final Map<Integer, long[]> firstMovesBySize = new TreeMap<>();
+
+    /**
+     * Replays one game on a {@link Position} and adds it to the totals.
+     */
+    public void addGame(int size, String result, List<MoveRecord> gameMoves) {
+        games++;
+        moves += gameMoves.size();
+        lengths[Math.min(gameMoves.size() / LENGTH_BUCKET, LENGTH_BUCKETS - 1)]++;
+        resultsBySize.computeIfAbsent(size, s -> new long[4])[resultIndex(result)]++;
+
+        Position position = new Position(size);
+        boolean firstStone = true;
+        for (MoveRecord move : gameMoves) {
+            switch (move.getType()) {
+                case "PASS":
+                    passes++;
+                    break;
+                case "SURRENDER":
+                    surrenders++;
+                    break;
+                default:
+                    if (firstStone) {
+                        firstMovesBySize.computeIfAbsent(size, s -> new long[s * s])[move.getY() * size + move.getX()]++;
+                        firstStone = false;
+                    }
+                    int captured = position.apply(move);
+                    if (move.getColor() == StoneColor.BLACK) capturedByBlack += captured;
+                    else capturedByWhite += captured;
+            }
+        }
+    }
+
+    private static int resultIndex(String result) {
+        if ("BLACK_WON".equals(result)) return BLACK_WON;
+        if ("WHITE_WON".equals(result)) return WHITE_WON;
+        if ("DRAW".equals(result)) return DRAW;
+        return OTHER;
+    }
+
+    /**
+     * Adds the other statistics to this one and returns this.
+     */
+    public ArchiveStats merge(ArchiveStats other) {
+        games += other.games;
+        moves += other.moves;
+        passes += other.passes;
+        surrenders += other.surrenders;
+        capturedByBlack += other.capturedByBlack;
+        capturedByWhite += other.capturedByWhite;
+        for (int i = 0; i < LENGTH_BUCKETS; i++) lengths[i] += other.lengths[i];
+        other.resultsBySize.forEach((size, counts) -> add(resultsBySize.computeIfAbsent(size, s -> new long[4]), counts));
+        other.firstMovesBySize.forEach((size, counts) ->
+                add(firstMovesBySize.computeIfAbsent(size, s -> new long[s * s]), counts));
+        return this;
+    }
+
+    private static void add(long[] target, long[] source) {
+        for (int i = 0; i < target.length; i++) target[i] += source[i];
+    }
+
+    public long getGames() { return games; }
+    public long getMoves() { return moves; }
+    public long getPasses() { return passes; }
+    public long getSurrenders() { return surrenders; }
+    public long getCapturedByBlack() { return capturedByBlack; }
+    public long getCapturedByWhite() { return capturedByWhite; }
+    public long[] getLengthBuckets() { return lengths.clone(); }
+
+    /**
+     * Counts of [black wins, white wins, draws, other] for the board size, or null if no games were played on it.
+     */
+    public long[] getResults(int size) {
+        long[] counts = resultsBySize.get(size);
+        return counts == null ? null : counts.clone();
+    }
+
+    /**
+     * How often each point (y * size + x) was the first stone of a game, or null for an unseen size.
+     */
+    public long[] getFirstMoves(int size) {
+        long[] counts = firstMovesBySize.get(size);
+        return counts == null ? null : counts.clone();
+    }
+
+    /**
+     * Human-readable summary, one line per fact.
+     */
+    public List<String> summaryLines() {
+        List<String> lines = new ArrayList<>();
+        lines.add("Gier: " + games + ", ruchów: " + moves
+                + (games > 0 ? String.format(Locale.ROOT, " (średnio %.1f na grę)", (double) moves / games) : ""));
+        resultsBySize.forEach((size, counts) -> {
+            long total = counts[BLACK_WON] + counts[WHITE_WON] + counts[DRAW] + counts[OTHER];
+            lines.add(String.format(Locale.ROOT,
+                    "Plansza %dx%d: %d gier, czarne %.1f%%, białe %.1f%%, remisy %.1f%%, inne %.1f%%",
+                    size, size, total, percent(counts[BLACK_WON], total), percent(counts[WHITE_WON], total),
+                    percent(counts[DRAW], total), percent(counts[OTHER], total)));
+        });
+        StringBuilder histogram = new StringBuilder("Długość partii:");
+        for (int i = 0; i < LENGTH_BUCKETS; i++) {
+            if (lengths[i] == 0) continue;
+            histogram.append(' ').append(i * LENGTH_BUCKET)
+                    .append(i == LENGTH_BUCKETS - 1 ? "+" : "-" + ((i + 1) * LENGTH_BUCKET - 1))
+                    .append(':').append(lengths[i]);
+        }
+        lines.add(histogram.toString());
+        lines.add(String.format(Locale.ROOT, "Pasy: %.2f%% ruchów, poddania: %.1f%% gier",
+                percent(passes, moves), percent(surrenders, games)));
+        lines.add(String.format(Locale.ROOT, "Zbicia: czarne %d, białe %d (średnio %.1f na grę)",
+                capturedByBlack, capturedByWhite, games == 0 ? 0.0 : (double) (capturedByBlack + capturedByWhite) / games));
+        return lines;
+    }
+
+    /**
+     * First-move heatmap for one board size, one text row per board row (darker = more frequent).
+     */
+    public List<String> heatmapLines(int size) {
+        List<String> lines = new ArrayList<>();
+        long[] counts = firstMovesBySize.get(size);
+        if (counts == null) return lines;
+        long max = 1;
+        for (long count : counts) max = Math.max(max, count);
+        for (int y = 0; y < size; y++) {
+            StringBuilder row = new StringBuilder(size);
+            for (int x = 0; x < size; x++) {
+                long count = counts[y * size + x];
+                row.append(count == 0 ? '·' : HEAT.charAt((int) Math.max(1, count * (HEAT.length() - 1) / max)));
+            }
+            lines.add(row.toString());
+        }
+        return lines;
+    }
+
+    private static double percent(long part, long total) {
+        return total == 0 ? 0.0 : 100.0 * part / total;
+    }
+}
@@ -0,0 +1,197 @@
+package com.example;
+
+import javafx.scene.SnapshotParameters;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.paint.Color;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Go board drawn on a single {@link Canvas} instead of one scene-graph node per intersection.
+ * Only the cells whose stone changed (or that the mouse enters or leaves) are repainted, and the stone
+ * bitmaps are rendered once per cell size and shared by every board in the client.
+ * Clicks and hover are resolved by one hit test on the canvas.
+ */
+public class BoardCanvas extends Canvas {
+    private static final Color BOARD_COLOR = Color.web("#DCB35C");
+    private static final Color HOVER_COLOR = Color.GRAY;
+    private static final byte EMPTY = BoardFrame.EMPTY, BLACK = BoardFrame.BLACK, WHITE = BoardFrame.WHITE;
+
+    // cell size -> {black, white}; stone images are the same for every board of that scale
+    private static final Map<Integer, Image[]> STONE_IMAGES = new HashMap<>();
+
+    /**
+     * Receives the intersection the user clicked.
+     */
+    public interface CellListener {
+        void cellClicked(int x, int y);
+    }
+
+    private final int size;
+    private final int cellSize;
+    private final byte[] cells;
+    private final boolean[] hoshi;
+    private final Image[] stoneImages;
+    private int hoverCell = -1;
+
+    public BoardCanvas(int size, int cellSize, CellListener listener) {
+        super((size + 1) * cellSize, (size + 1) * cellSize);
+        this.size = size;
+        this.cellSize = cellSize;
+        this.cells = new byte[size * size];
+        this.hoshi = new boolean[size * size];
+        for (int i : hoshiLines(size)) {
+            for (int j : hoshiLines(size)) {
+                hoshi[j * size + i] = true;
+            }
+        }
+        this.stoneImages = stoneImages(cellSize);
+
+        setOnMouseClicked(e -> {
+            int cell = hitTest(e);
+            if (cell >= 0) listener.cellClicked(cell % size, cell / size);
+        });
+        setOnMouseMoved(e -> setHover(hitTest(e)));
+        setOnMouseExited(e -> setHover(-1));
+
+        drawAll();
+    }
+
+    public int getBoardSize() {
+        return size;
+    }
+
+    /**
+     * Places (or removes, with EMPTY) a stone; the cell is repainted only if it actually changed.
+     */
+    public void setStone(int x, int y, StoneColor color) {
+        int cell = y * size + x;
+        byte value = color == StoneColor.BLACK ? BLACK : color == StoneColor.WHITE ? WHITE : EMPTY;
+        if (cells[cell] == value) return;
+        cells[cell] = value;
+        drawCell(cell);
+    }
+
+    /**
+     * Applies the changed cells of a decoded frame; nothing else is repainted.
+     */
+    public void apply(BoardFrame.Diff diff) {
+        for (int i = 0; i < diff.getChangedCount(); i++) {
+            int cell = diff.getCell(i);
+            if (cells[cell] == diff.getValue(i)) continue;
+            cells[cell] = diff.getValue(i);
+            drawCell(cell);
+        }
+    }
+
+    /**
+     * Shows a whole position (e.g. a replay being scrubbed); only the cells that differ are repainted.
+     */
+    public void showPosition(Position position) {
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                setStone(x, y, position.getStone(x, y));
+            }
+        }
+    }
+
+    /**
+     * Clears every stone and repaints the whole board.
+     */
+    public void clear() {
+        Arrays.fill(cells, EMPTY);
+        hoverCell = -1;
+        drawAll();
+    }
+
+    private int hitTest(MouseEvent e) {
+        int x = (int) Math.round(e.getX() / cellSize) - 1;
+        int y = (int) Math.round(e.getY() / cellSize) - 1;
+        if (x < 0 || y < 0 || x >= size || y >= size) return -1;
+        return y * size + x;
+    }
+
+    private void setHover(int cell) {
+        if (cell == hoverCell) return;
+        int previous = hoverCell;
+        hoverCell = cell;
+        if (previous >= 0) drawCell(previous);
+        if (cell >= 0) drawCell(cell);
+    }
+
+    private void drawAll() {
+        GraphicsContext gc = getGraphicsContext2D();
+        gc.setFill(BOARD_COLOR);
+        gc.fillRect(0, 0, getWidth(), getHeight());
+        for (int cell = 0; cell < cells.length; cell++) {
+            drawCell(cell);
+        }
+    }
+
+    /**
+     * Repaints one intersection: background, the grid segments through it, hoshi, then stone or hover ring.
+     */
+    private void drawCell(int cell) {
+        GraphicsContext gc = getGraphicsContext2D();
+        int x = cell % size;
+        int y = cell / size;
+        double cx = cellSize + x * cellSize;
+        double cy = cellSize + y * cellSize;
+        double half = cellSize / 2.0;
+
+        gc.setFill(BOARD_COLOR);
+        gc.fillRect(cx - half, cy - half, cellSize, cellSize);
+
+        gc.setStroke(Color.BLACK);
+        gc.setLineWidth(1);
+        gc.strokeLine(x == 0 ? cx : cx - half, cy, x == size - 1 ? cx : cx + half, cy);
+        gc.strokeLine(cx, y == 0 ? cy : cy - half, cx, y == size - 1 ? cy : cy + half);
+        if (hoshi[cell]) {
+            gc.setFill(Color.BLACK);
+            gc.fillOval(cx - 3, cy - 3, 6, 6);
+        }
+
+        if (cells[cell] != EMPTY) {
+            Image image = stoneImages[cells[cell] - 1];
+            gc.drawImage(image, cx - image.getWidth() / 2, cy - image.getWidth() / 2);
+        } else if (cell == hoverCell) {
+            double r = cellSize / 2.2;
+            gc.setStroke(HOVER_COLOR);
+            gc.setLineWidth(2);
+            gc.strokeOval(cx - r, cy - r, 2 * r, 2 * r);
+        }
+    }
+
+    private static synchronized Image[] stoneImages(int cellSize) {
+        return STONE_IMAGES.computeIfAbsent(cellSize, s -> new Image[]{
+                renderStone(s, Color.BLACK), renderStone(s, Color.WHITE)
+        });
+    }
+
+    private static Image renderStone(int cellSize, Color fill) {
+        int diameter = (int) Math.ceil(2 * (cellSize / 2.2)) + 2;
+        Canvas scratch = new Canvas(diameter, diameter);
+        GraphicsContext gc = scratch.getGraphicsContext2D();
+        gc.setFill(fill);
+        gc.fillOval(1, 1, diameter - 2, diameter - 2);
+        gc.setStroke(Color.BLACK);
+        gc.setLineWidth(1);
+        gc.strokeOval(1, 1, diameter - 2, diameter - 2);
+
+        SnapshotParameters params = new SnapshotParameters();
+        params.setFill(Color.TRANSPARENT);
+        return scratch.snapshot(params, null);
+    }
+
+    private static int[] hoshiLines(int size) {
+        if (size == 19) return new int[]{3, 9, 15};
+        if (size == 13) return new int[]{3, 6, 9};
+        if (size == 9) return new int[]{2, 6};
+        return new int[0];
+    }
+}
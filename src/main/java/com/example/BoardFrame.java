@@ -0,0 +1,129 @@
+package com.example;
+
+import java.util.Arrays;
+
+/**
+ * Client-side decoder for "BOARD" frames. A frame is parsed in place (no split, no per-field strings)
+ * into a byte per intersection and compared with the previous frame, so only the changed cells
+ * have to be handed to the UI thread. Not thread-safe; the owner serializes access.
+ */
+public class BoardFrame {
+    public static final byte EMPTY = 0, BLACK = 1, WHITE = 2;
+
+    private byte[] current = new byte[0];
+    private byte[] next = new byte[0];
+    private int size = 0;
+    private boolean resized = false;   // since the last publish
+
+    /**
+     * The cells that changed between two frames; immutable, safe to pass to the UI thread.
+     */
+    public static class Diff {
+        private final int size;
+        private final boolean resized;
+        private final int[] cells;
+        private final byte[] values;
+
+        Diff(int size, boolean resized, int[] cells, byte[] values) {
+            this.size = size;
+            this.resized = resized;
+            this.cells = cells;
+            this.values = values;
+        }
+
+        public int getSize() { return size; }
+        /** True if the board size changed and the view has to be rebuilt before applying the cells. */
+        public boolean isResized() { return resized; }
+        public int getChangedCount() { return cells.length; }
+        public int getCell(int i) { return cells[i]; }
+        public byte getValue(int i) { return values[i]; }
+        public boolean isEmpty() { return !resized && cells.length == 0; }
+    }
+
+    /**
+     * Decodes the board part of a frame starting at {@code from} and returns what changed.
+     * @throws IllegalArgumentException if the frame is not a square board
+     */
+    public Diff update(String frame, int from) {
+        decode(frame, from);
+        return publish();
+    }
+
+    /**
+     * Decodes a frame into the pending cells without publishing it, so they can be edited first
+     * (e.g. by {@link MovePrediction}). Cell y * size + x holds intersection (x, y).
+     * @return the pending cells, valid until the next call on this frame
+     * @throws IllegalArgumentException if the frame is not a square board
+     */
+    public byte[] decode(String frame, int from) {
+        int fields = 1;
+        for (int i = from; i < frame.length(); i++) {
+            if (frame.charAt(i) == ';') fields++;
+        }
+        int newSize = (int) Math.sqrt(fields);
+        if (newSize * newSize != fields || from >= frame.length()) {
+            throw new IllegalArgumentException("Niepoprawna ramka planszy: " + fields + " pól");
+        }
+
+        if (newSize != size) {
+            size = newSize;
+            resized = true;
+            current = new byte[fields];
+            next = new byte[fields];
+        }
+
+        // the first letter tells BLACK, WHITE and EMPTY apart
+        Arrays.fill(next, EMPTY);
+        int cell = 0;
+        boolean fieldStart = true;
+        for (int i = from; i < frame.length(); i++) {
+            char c = frame.charAt(i);
+            if (c == ';') {
+                cell++;
+                fieldStart = true;
+            } else if (fieldStart) {
+                next[cell] = c == 'B' ? BLACK : c == 'W' ? WHITE : EMPTY;
+                fieldStart = false;
+            }
+        }
+        return next;
+    }
+
+    /**
+     * The pending cells pre-filled with the last published frame, for showing a locally changed board.
+     */
+    public byte[] edit() {
+        System.arraycopy(current, 0, next, 0, current.length);
+        return next;
+    }
+
+    /**
+     * Makes the pending cells the current frame and returns what changed.
+     */
+    public Diff publish() {
+        int fields = size * size;
+        int changed = 0;
+        for (int i = 0; i < fields; i++) {
+            if (next[i] != current[i]) changed++;
+        }
+        int[] cells = new int[changed];
+        byte[] values = new byte[changed];
+        for (int i = 0, k = 0; k < changed; i++) {
+            if (next[i] != current[i]) {
+                cells[k] = i;
+                values[k++] = next[i];
+            }
+        }
+
+        byte[] swap = current;
+        current = next;
+        next = swap;
+        Diff diff = new Diff(size, resized, cells, values);
+        resized = false;
+        return diff;
+    }
+
+    public int getSize() {
+        return size;
+    }
+}
@@ -6,7 +6,13 @@ import java.util.List;
 import java.util.Random;
 import java.util.Set;
 
+/**
+ * Computer opponent. Its messages are delivered on the game's actor thread,
+ * so it answers by submitting its moves back to the game's mailbox instead of blocking it.
+ */
 public class BotPlayer implements Player, Runnable {
+    private static final long THINK_DELAY_MS = 500;
+
     private Game game;
     private StoneColor myColor;
     private StoneColor opponentColor;
@@ -26,22 +32,21 @@ public class BotPlayer implements Player, Runnable {
     public void sendMessage(String msg) {
         if (msg.contains("Twój ruch") || msg.contains("Przeciwnik spasował")) {
             failedMovesInThisTurn.clear();
-            try { Thread.sleep(500); } catch (InterruptedException e) {}
-            makeBestMove();
+            game.submitDelayed(this::makeBestMove, THINK_DELAY_MS);
         }
         else if (msg.toLowerCase().contains("błąd") || msg.toLowerCase().contains("niedozwolony")) {
-            System.out.println("BOT: Serwer odrzucił ruch (" + lastX + "," + lastY + "). Próbuję inny...");
+            EventLog.debug("BOT: Serwer odrzucił ruch ({},{}). Próbuję inny...", lastX, lastY);
 
             if (lastX != -1 && lastY != -1) {
                 failedMovesInThisTurn.add(lastX + "," + lastY);
             }
-            makeBestMove();
+            game.submit(this::makeBestMove);
         }
     }
 
     @Override
     public void run() {
-        System.out.println("Bot Strategiczny (" + myColor + ") gotowy.");
+        EventLog.info("Bot Strategiczny ({}) gotowy.", myColor);
     }
 
     /**
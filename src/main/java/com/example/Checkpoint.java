@@ -0,0 +1,21 @@
+package com.example;
+
+/**
+ * Board of a recorded game after a given move, packed with {@link Position#pack()}.
+ * Stored every few moves so a replay can start anywhere without applying the whole game.
+ */
+public class Checkpoint {
+    private final long gameId;
+    private final int moveNumber;
+    private final byte[] board;
+
+    public Checkpoint(long gameId, int moveNumber, byte[] board) {
+        this.gameId = gameId;
+        this.moveNumber = moveNumber;
+        this.board = board;
+    }
+
+    public long getGameId() { return gameId; }
+    public int getMoveNumber() { return moveNumber; }
+    public byte[] getBoard() { return board; }
+}
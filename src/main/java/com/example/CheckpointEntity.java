@@ -0,0 +1,35 @@
+package com.example;
+
+import jakarta.persistence.*;
+
+@Entity
+@Table(name = "checkpoints", indexes = @Index(name = "idx_checkpoint_game_move", columnList = "game_id, move_number"))
+public class CheckpointEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "checkpoint_seq")
+    @SequenceGenerator(name = "checkpoint_seq", sequenceName = "checkpoint_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "game_id")
+    private Long gameId;
+
+    @Column(name = "move_number")
+    private int moveNumber;
+
+    /** Board packed 2 bits per intersection, see {@link Position#pack()}. */
+    private byte[] board;
+
+    public CheckpointEntity() {}
+
+    public CheckpointEntity(Long gameId, int moveNumber, byte[] board) {
+        this.gameId = gameId;
+        this.moveNumber = moveNumber;
+        this.board = board;
+    }
+
+    public Long getId() { return id; }
+    public Long getGameId() { return gameId; }
+    public int getMoveNumber() { return moveNumber; }
+    public byte[] getBoard() { return board; }
+}
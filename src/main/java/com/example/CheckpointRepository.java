@@ -0,0 +1,17 @@
+package com.example;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+
+@Repository
+public interface CheckpointRepository extends JpaRepository<CheckpointEntity, Long> {
+    List<CheckpointEntity> findByGameIdOrderByMoveNumberAsc(Long gameId);
+
+    @Modifying
+    @Query("delete from CheckpointEntity c where c.gameId = :gameId")
+    int deleteByGameId(@Param("gameId") Long gameId);
+}
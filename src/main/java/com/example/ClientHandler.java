@@ -3,76 +3,419 @@ package com.example;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
-import java.io.PrintWriter;
+import java.io.OutputStream;
 import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
 
 public class ClientHandler implements Runnable, Player {
+    private static final int MAX_WRITE_BATCH = 256;
+    private static final int SEARCH_LIMIT = 50;
+
+    private static final LongAdder OPEN_CONNECTIONS = ServerMetrics.get().gauge(
+            "go_connections", "Open client connections");
+    private static final LongAdder BYTES_SENT = ServerMetrics.get().counter(
+            "go_bytes_sent_total", "Bytes written to client sockets");
+    private static final LongAdder MESSAGES_SENT = ServerMetrics.get().counter(
+            "go_messages_sent_total", "Protocol lines written to client sockets");
+    private static final LongAdder WRITES = ServerMetrics.get().counter(
+            "go_socket_writes_total", "Coalesced socket writes");
+
     private Socket socket;
-    private PrintWriter out;
     private BufferedReader in;
-    private Game game;
-    private StoneColor color;
+    private volatile Game game;
+    private volatile StoneColor color;
+    private volatile ReplaySession replay;
+    private final OutboundQueue outbound;
+    private final boolean greetOnStart;   // bound to a game up front; later bindings send their own greeting
 
     public ClientHandler(Socket socket, Game game, StoneColor color) {
         this.socket = socket;
         this.game = game;
         this.color = color;
+        this.greetOnStart = game != null;
+        this.outbound = OutboundQueue.fromSystemProperties();
+    }
+
+    /**
+     * Creates a handler for a lobby connection that is not yet part of any game.
+     * The client chooses with PLAY (matchmaking) or WATCH &lt;id&gt; (spectating).
+     */
+    public ClientHandler(Socket socket) {
+        this(socket, null, StoneColor.EMPTY);
     }
 
     @Override
     public void run() {
+        OPEN_CONNECTIONS.increment();
         try {
-            out = new PrintWriter(socket.getOutputStream(), true);
-            in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+            OutputStream out = socket.getOutputStream();
+            in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
 
-            sendMessage("Twój kolor to: " + color);
-            sendMessage("BOARD " + game.getBoard().getBoardStateString());
+            Thread writer = new Thread(() -> writeLoop(out), "writer-" + socket.getPort());
+            writer.setDaemon(true);
+            writer.start();
+
+            if (greetOnStart) {
+                sendGreeting();
+            }
 
             while (true) {
                 String inputLine = in.readLine();
                 if (inputLine == null) break;
 
-                System.out.println("SERWER (" + color + "): " + inputLine);
+                EventLog.trace("SERWER ({}): {}", color, inputLine);
 
-                if (inputLine.startsWith("MOVE")) {
+                Game game = this.game;
+                if (inputLine.startsWith("PLAY")) {
+                    if (game == null) {
+                        GoServer.getInstance().matchmake(this);
+                    } else {
+                        sendMessage("MESSAGE Błąd: Już uczestniczysz w grze.");
+                    }
+                } else if (inputLine.startsWith("WATCH")) {
+                    watch(inputLine);
+                } else if (inputLine.startsWith("RECONNECT")) {
+                    reconnect(inputLine);
+                } else if (inputLine.startsWith("SEARCH")) {
+                    search(inputLine);
+                } else if (inputLine.startsWith("STATS")) {
+                    sendStats(inputLine);
+                } else if (inputLine.startsWith("MOVELIST")) {
+                    sendMoveList(inputLine);
+                } else if (isReplayControl(inputLine)) {
+                    controlReplay(inputLine);
+                } else if (game == null && !inputLine.startsWith("REPLAY")) {
+                    sendMessage("MESSAGE Błąd: Nie uczestniczysz w żadnej grze (użyj PLAY lub WATCH <id>).");
+                } else if (inputLine.startsWith("MOVE")) {
                     String[] parts = inputLine.split(" ");
                     int x = Integer.parseInt(parts[1]);
                     int y = Integer.parseInt(parts[2]);
-                    new MoveCommand(game, x, y, color).execute();
+                    game.submit(new MoveCommand(game, x, y, color));
 
                 } else if (inputLine.startsWith("PASS")) {
-                    new PassCommand(game, color).execute();
+                    game.submit(new PassCommand(game, color));
                 } else if (inputLine.startsWith("SURRENDER")) {
-                    new SurrenderCommand(game, color).execute();
+                    game.submit(new SurrenderCommand(game, color));
                 } else if (inputLine.startsWith("RESUME")) {
-                    new ResumeCommand(game, color).execute();
+                    game.submit(new ResumeCommand(game, color));
                 } else if (inputLine.startsWith("REPLAY")) {
-                    try {
-                        String[] parts = inputLine.split(" ");
-                        Long gameId = Long.parseLong(parts[1]);
-                        
-                        GameService service = GoServer.getInstance().getGameService();
-                        if (service != null) {
-                            service.playReplayForClient(gameId, this);
-                        } else {
-                            sendMessage("MESSAGE Błąd: Serwis gry niedostępny.");
-                        }
-                    } catch (Exception e) {
-                        sendMessage("MESSAGE Błąd komendy replay: " + e.getMessage());
-                        e.printStackTrace();
-                    }
+                    if (game != null) game.removeSpectator(this);
+                    startReplay(inputLine);
                 }
             }
         } catch (IOException e) {
-            System.out.println("Gracz " + color + " rozłączył się.");
+            EventLog.debug("Gracz {} rozłączył się.", color);
         } finally {
-            try { socket.close(); } catch (IOException e) {}
+            Game game = this.game;
+            if (game != null) {
+                game.removeSpectator(this);
+                game.leave(this);
+            }
+            stopReplay();
+            GoServer.getInstance().leaveLobby(this);
+            disconnect();
+            OPEN_CONNECTIONS.decrement();
+        }
+    }
+
+    /**
+     * Binds this connection to a game, e.g. after matchmaking, and sends the usual greeting.
+     */
+    public void joinGame(Game game, long gameId, StoneColor color) {
+        this.game = game;
+        this.color = color;
+        sendMessage("MESSAGE ID gry: " + gameId);
+        sendMessage("MESSAGE Powrót po rozłączeniu: RECONNECT " + gameId + " " + color + " " + game.getSeatSecret(color));
+        sendGreeting();
+    }
+
+    private void sendGreeting() {
+        Game game = this.game;
+        sendMessage("Twój kolor to: " + color);
+        game.submit(() -> {
+            sendMessage(game.sequenceLine());
+            sendMessage("BOARD " + game.getBoard().getBoardStateString());
+        });
+    }
+
+    /**
+     * Handles RECONNECT &lt;id&gt; &lt;BLACK|WHITE&gt; &lt;secret&gt;: takes the free seat of that colour in a running game,
+     * e.g. one recovered after a server restart or one the player's previous connection dropped out of.
+     * The secret is the one sent to the player with the game ID when the game started.
+     * A game evicted from memory while nobody was connected is loaded again first.
+     */
+    private void reconnect(String inputLine) {
+        try {
+            String[] parts = inputLine.split(" ");
+            long gameId = Long.parseLong(parts[1]);
+            StoneColor seat = StoneColor.valueOf(parts[2].toUpperCase());
+            if (seat == StoneColor.EMPTY) throw new IllegalArgumentException(parts[2]);
+            String secret = parts[3];
+
+            Game target = GoServer.getInstance().getRegistry().getOrLoad(gameId);
+            if (target == null) {
+                sendMessage("MESSAGE Błąd: Brak aktywnej gry o ID " + gameId + ".");
+                return;
+            }
+            if (game != null && color != StoneColor.EMPTY) {
+                sendMessage("MESSAGE Błąd: Już uczestniczysz w grze.");
+                return;
+            }
+            Game previous = this.game;
+            if (previous != null) previous.removeSpectator(this);
+            stopReplay();
+            GoServer.getInstance().leaveLobby(this);
+            target.reconnect(this, seat, secret, () -> joinGame(target, gameId, seat));
+        } catch (RuntimeException e) {
+            sendMessage("MESSAGE Błąd komendy RECONNECT: " + inputLine);
+        }
+    }
+
+    /**
+     * Handles WATCH &lt;id&gt;: leaves the lobby and follows a running game as a spectator.
+     */
+    private void watch(String inputLine) {
+        long gameId;
+        try {
+            gameId = Long.parseLong(inputLine.split(" ")[1]);
+        } catch (RuntimeException e) {
+            sendMessage("MESSAGE Błąd komendy WATCH: " + inputLine);
+            return;
+        }
+        Game target = GoServer.getInstance().getRegistry().getOrLoad(gameId);
+        if (target == null) {
+            sendMessage("MESSAGE Błąd: Brak aktywnej gry o ID " + gameId + ".");
+            return;
+        }
+        if (color != StoneColor.EMPTY) {
+            sendMessage("MESSAGE Błąd: Gracz nie może zostać widzem.");
+            return;
+        }
+        Game previous = this.game;
+        if (previous != null) previous.removeSpectator(this);
+        this.game = null;
+        GoServer.getInstance().leaveLobby(this);
+        spectate(target);
+    }
+
+    /**
+     * Follows the game as a spectator. Goes through the game's actor, like RECONNECT:
+     * the evictor may release the game at any moment before that.
+     */
+    public void spectate(Game target) {
+        target.watch(this, () -> {
+            this.game = target;
+            sendMessage("MESSAGE Oglądasz grę ID: " + target.getId());
+        });
+    }
+
+    /**
+     * Handles REPLAY &lt;id&gt; [FROM &lt;n&gt;] [DELAY &lt;ms&gt;]; DELAY 0 opens the replay paused.
+     */
+    private void startReplay(String inputLine) {
+        try {
+            String[] parts = inputLine.split(" ");
+            long gameId = Long.parseLong(parts[1]);
+            int fromMove = 0;
+            long delay = ReplaySession.DEFAULT_DELAY_MS;
+            for (int i = 2; i + 1 < parts.length; i += 2) {
+                if (parts[i].equalsIgnoreCase("FROM")) fromMove = Integer.parseInt(parts[i + 1]);
+                else if (parts[i].equalsIgnoreCase("DELAY")) delay = Long.parseLong(parts[i + 1]);
+            }
+
+            GameService service = GoServer.getInstance().getGameService();
+            if (service != null) {
+                stopReplay();
+                replay = service.startReplay(gameId, this, fromMove, delay);
+            } else {
+                sendMessage("MESSAGE Błąd: Serwis gry niedostępny.");
+            }
+        } catch (Exception e) {
+            sendMessage("MESSAGE Błąd komendy replay: " + e.getMessage());
+            EventLog.error("Błąd komendy replay: {}", inputLine, e);
+        }
+    }
+
+    /**
+     * Handles MOVELIST &lt;id&gt;: answers "MOVELIST &lt;id&gt; &lt;base64 MoveCodec blob&gt;", the whole game in one
+     * line (about 2 bytes per move), which the client replays and scrubs locally.
+     */
+    private void sendMoveList(String inputLine) {
+        GameService service = GoServer.getInstance().getGameService();
+        if (service == null) {
+            sendMessage("MESSAGE Błąd: Serwis gry niedostępny.");
+            return;
         }
+        try {
+            long gameId = Long.parseLong(inputLine.split(" ")[1]);
+            byte[] blob = service.loadMoveList(gameId);
+            if (blob == null) {
+                sendMessage("MESSAGE Błąd: Gra o ID " + gameId + " nie istnieje lub nie ma ruchów.");
+            } else {
+                sendMessage("MOVELIST " + gameId + " " + Base64.getEncoder().encodeToString(blob));
+            }
+        } catch (RuntimeException e) {
+            sendMessage("MESSAGE Błąd komendy MOVELIST: " + inputLine);
+        }
+    }
+
+    /**
+     * Handles STATS (archive summary) and STATS HEATMAP &lt;size&gt; (first-move heatmap).
+     * Answers from the last background refresh of {@link ArchiveAnalytics}, without scanning the archive.
+     */
+    private void sendStats(String inputLine) {
+        ArchiveAnalytics analytics = GoServer.getInstance().getAnalytics();
+        if (analytics == null) {
+            sendMessage("MESSAGE Błąd: Statystyki niedostępne.");
+            return;
+        }
+        try {
+            String[] parts = inputLine.split(" ");
+            ArchiveAnalytics.Snapshot snapshot = analytics.getSnapshot();
+            if (snapshot == null) {
+                sendMessage("MESSAGE Statystyki są jeszcze liczone, spróbuj za chwilę.");
+                return;
+            }
+            if (parts.length > 2 && parts[1].equalsIgnoreCase("HEATMAP")) {
+                int size = Integer.parseInt(parts[2]);
+                List<String> rows = snapshot.getStats().heatmapLines(size);
+                sendMessage("MESSAGE Pierwsze ruchy, plansza " + size + "x" + size + ":");
+                if (rows.isEmpty()) sendMessage("MESSAGE (brak gier)");
+                for (String row : rows) sendMessage("MESSAGE " + row);
+            } else {
+                sendMessage("MESSAGE --- Statystyki archiwum (nowe gry: " + snapshot.getNewGames()
+                        + ", " + snapshot.getScanMillis() + " ms) ---");
+                for (String line : snapshot.getStats().summaryLines()) sendMessage("MESSAGE " + line);
+            }
+        } catch (RuntimeException e) {
+            sendMessage("MESSAGE Błąd komendy statystyk: " + inputLine);
+            EventLog.error("Błąd komendy STATS: {}", inputLine, e);
+        }
+    }
+
+    /**
+     * Handles SEARCH &lt;cells&gt; (a whole board in the BOARD format) and SEARCH CORNER &lt;cells&gt;
+     * (a 7x7 corner pattern as seen in the top-left corner). Matches any rotation or reflection.
+     */
+    private void search(String inputLine) {
+        PositionIndex index = GoServer.getInstance().getPositionIndex();
+        if (index == null) {
+            sendMessage("MESSAGE Błąd: Wyszukiwanie pozycji niedostępne.");
+            return;
+        }
+        try {
+            String[] parts = inputLine.split(" ");
+            boolean corner = parts.length > 2 && parts[1].equalsIgnoreCase("CORNER");
+            String[] cells = parts[corner ? 2 : 1].split(";");
+            StoneColor[] stones = new StoneColor[cells.length];
+            for (int i = 0; i < cells.length; i++) stones[i] = StoneColor.valueOf(cells[i]);
+
+            long key;
+            if (corner) {
+                key = PositionHash.cornerPattern(stones);
+            } else {
+                int size = (int) Math.round(Math.sqrt(stones.length));
+                if (size * size != stones.length) throw new IllegalArgumentException("plansza nie jest kwadratowa");
+                Board board = new Board(size);
+                for (int i = 0; i < stones.length; i++) board.setStone(i % size, i / size, stones[i]);
+                key = PositionHash.of(Position.fromBoard(board));
+            }
+
+            List<PositionIndex.Hit> hits = index.find(key, SEARCH_LIMIT);
+            StringBuilder sb = new StringBuilder("MESSAGE Znaleziono gier: " + hits.size()
+                    + (hits.size() == SEARCH_LIMIT ? "+" : ""));
+            for (int i = 0; i < hits.size(); i++) {
+                sb.append(i == 0 ? " - " : ", ").append(hits.get(i).getGameId())
+                        .append(" (ruch ").append(hits.get(i).getMoveNumber()).append(')');
+            }
+            sendMessage(sb.toString());
+        } catch (RuntimeException e) {
+            sendMessage("MESSAGE Błąd komendy wyszukiwania: " + e.getMessage());
+        }
+    }
+
+    private static boolean isReplayControl(String inputLine) {
+        return inputLine.startsWith("SEEK") || inputLine.startsWith("STEP") || inputLine.startsWith("PAUSE")
+                || inputLine.startsWith("SPEED") || inputLine.startsWith("STOP");
     }
 
+    private void controlReplay(String inputLine) {
+        ReplaySession session = replay;
+        if (session == null) {
+            sendMessage("MESSAGE Błąd: Brak aktywnej powtórki.");
+            return;
+        }
+        try {
+            String[] parts = inputLine.split(" ");
+            if (inputLine.startsWith("SEEK")) {
+                session.seek(Integer.parseInt(parts[1]));
+            } else if (inputLine.startsWith("STEP")) {
+                session.step(parts.length > 1 ? Integer.parseInt(parts[1]) : 1);
+            } else if (inputLine.startsWith("PAUSE")) {
+                session.pause();
+            } else if (inputLine.startsWith("SPEED")) {
+                session.setSpeed(Long.parseLong(parts[1]));
+            } else {
+                stopReplay();
+                sendMessage("MESSAGE Powtórka zatrzymana.");
+            }
+        } catch (RuntimeException e) {
+            sendMessage("MESSAGE Błąd komendy powtórki: " + inputLine);
+        }
+    }
+
+    private void stopReplay() {
+        ReplaySession session = replay;
+        if (session != null) {
+            session.stop();
+            replay = null;
+        }
+    }
+
+    /**
+     * Drains the outbound queue and sends every batch with a single write and flush.
+     */
+    private void writeLoop(OutputStream out) {
+        StringBuilder buffer = new StringBuilder();
+        try {
+            while (true) {
+                List<String> batch = outbound.drainBatch(MAX_WRITE_BATCH);
+                if (batch.isEmpty()) break;
+
+                buffer.setLength(0);
+                for (String message : batch) {
+                    buffer.append(message).append('\n');
+                }
+                byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+                out.write(bytes);
+                out.flush();
+
+                BYTES_SENT.add(bytes.length);
+                MESSAGES_SENT.add(batch.size());
+                WRITES.increment();
+            }
+        } catch (IOException | InterruptedException e) {
+            disconnect();
+        }
+    }
+
+    /**
+     * Queues a message for the writer thread. Never blocks the caller;
+     * a client whose queue overflows is disconnected according to the slow-consumer policy.
+     */
     @Override
     public void sendMessage(String message) {
-        if (out != null) out.println(message);
+        if (!outbound.offer(message)) {
+            disconnect();
+        }
+    }
+
+    private void disconnect() {
+        outbound.close();
+        try { socket.close(); } catch (IOException e) {}
     }
 
     public StoneColor getColor() {
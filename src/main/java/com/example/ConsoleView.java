@@ -1,54 +1,150 @@
 package com.example;
 
+import java.io.PrintStream;
 import java.util.Scanner;
 
 /**
  * Provides a text-based interface for displaying game status and debugging.
- * Useful for testing logic without the full GUI.
+ * The board is drawn once and afterwards only the changed intersections are rewritten with ANSI
+ * cursor-positioning escapes, so a terminal over SSH receives a few bytes per move instead of the whole board.
+ * Output calls are synchronized: board updates come from the connection thread while the user types.
  */
 public class ConsoleView {
-    private Scanner scanner;
+    private static final String ESC = "\033[";
+    private static final String COLUMNS = "ABCDEFGHJKLMNOPQRSTUVWXYZ";   // no I, as on a real board
+    private static final char[] STONES = {'.', 'X', 'O'};             // BoardFrame.EMPTY, BLACK, WHITE
+
+    private final Scanner scanner;
+    private final PrintStream out;
+    private int size = 0;
+    private boolean[] hoshi = new boolean[0];
 
     /**
      * Initializes the console view with a scanner for input.
      * @param scanner The Scanner instance to read user input.
      */
     public ConsoleView(Scanner scanner) {
+        this(scanner, System.out);
+    }
+
+    public ConsoleView(Scanner scanner, PrintStream out) {
         this.scanner = scanner;
+        this.out = out;
     }
 
     /**
-     * Prints a generic message to the console.
+     * Prints a message on the status line below the board (or as a plain line before a board is shown).
      * @param msg The message to display.
      */
-    public void displayMessage(String msg){
-        System.out.println(msg);
+    public synchronized void displayMessage(String msg) {
+        if (size == 0) {
+            out.println(msg);
+            return;
+        }
+        StringBuilder sb = new StringBuilder();
+        sb.append(ESC).append('s');
+        moveTo(sb, size + 3, 1);
+        sb.append(ESC).append("2K").append(msg);
+        sb.append(ESC).append('u');
+        out.print(sb);
+        out.flush();
+    }
+
+    /**
+     * Draws the changed intersections of a board frame. A new board size redraws the whole screen.
+     * @param diff The cells changed since the previous frame.
+     */
+    public synchronized void displayBoard(BoardFrame.Diff diff) {
+        StringBuilder sb = new StringBuilder();
+        if (diff.isResized() || diff.getSize() != size) {
+            drawEmptyBoard(sb, diff.getSize());
+        } else {
+            sb.append(ESC).append('s');
+        }
+        for (int i = 0; i < diff.getChangedCount(); i++) {
+            int cell = diff.getCell(i);
+            moveTo(sb, 2 + cell / size, 4 + 2 * (cell % size));
+            byte value = diff.getValue(i);
+            sb.append(value == BoardFrame.EMPTY && hoshi[cell] ? '+' : STONES[value]);
+        }
+        sb.append(ESC).append('u');
+        out.print(sb);
+        out.flush();
     }
 
     /**
-     * Formats and prints the board state to the console.
-     * Replaces internal delimiters with newlines for readability.
-     * @param boardData The serialized board string.
+     * Clears the input line (the terminal moved past it when the user pressed Enter) and prints the prompt again.
      */
-    public void displayBoard(String boardData){
-        clearScreen();
-        
-        System.out.println(boardData.replaceAll(";", "\n"));
+    public synchronized void prompt() {
+        if (size == 0) return;
+        StringBuilder sb = new StringBuilder();
+        moveTo(sb, size + 5, 1);
+        sb.append(ESC).append("2K");
+        moveTo(sb, size + 4, 1);
+        sb.append(ESC).append("2K").append("> ");
+        sb.append(ESC).append('s');
+        out.print(sb);
+        out.flush();
+    }
+
+    /**
+     * Parses a point as labelled on screen, e.g. "D4" (column letter, row number counted from the bottom).
+     * @return {x, y}, or null if the text is not a point on the current board
+     */
+    public synchronized int[] parsePoint(String text) {
+        if (size == 0 || text.length() < 2) return null;
+        int x = COLUMNS.indexOf(Character.toUpperCase(text.charAt(0)));
+        int row;
+        try {
+            row = Integer.parseInt(text.substring(1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        if (x < 0 || x >= size || row < 1 || row > size) return null;
+        return new int[]{x, size - row};
     }
 
     /**
      * Reads a line of input from the user.
-     * @return The input string entered by the user.
+     * @return The input string entered by the user, or null at the end of input.
      */
-    public String getUserInput(){
-        return scanner.nextLine();
+    public String getUserInput() {
+        return scanner.hasNextLine() ? scanner.nextLine() : null;
     }
 
     /**
-     * Clears the console screen using ANSI escape codes.
+     * Clears the screen and draws coordinates, empty intersections and hoshi; leaves the cursor position
+     * saved on the input line below the status line.
      */
-    private void clearScreen() {
-        System.out.print("\033[H\033[2J");
-        System.out.flush();
+    private void drawEmptyBoard(StringBuilder sb, int newSize) {
+        size = newSize;
+        hoshi = new boolean[size * size];
+        int[] lines = size == 19 ? new int[]{3, 9, 15} : size == 13 ? new int[]{3, 6, 9} : size == 9 ? new int[]{2, 6} : new int[0];
+        for (int x : lines) {
+            for (int y : lines) {
+                hoshi[y * size + x] = true;
+            }
+        }
+
+        sb.append(ESC).append("H").append(ESC).append("2J");
+        sb.append("   ");
+        for (int x = 0; x < size; x++) {
+            sb.append(x < COLUMNS.length() ? COLUMNS.charAt(x) : '?').append(' ');
+        }
+        sb.append('\n');
+        for (int y = 0; y < size; y++) {
+            sb.append(String.format("%2d ", size - y));
+            for (int x = 0; x < size; x++) {
+                sb.append(hoshi[y * size + x] ? '+' : '.').append(' ');
+            }
+            sb.append('\n');
+        }
+        moveTo(sb, size + 4, 1);
+        sb.append("> ");
+        sb.append(ESC).append('s');
+    }
+
+    private static void moveTo(StringBuilder sb, int row, int column) {
+        sb.append(ESC).append(row).append(';').append(column).append('H');
     }
-}
\ No newline at end of file
+}
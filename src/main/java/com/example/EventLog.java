@@ -0,0 +1,306 @@
+package com.example;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.charset.Charset;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Asynchronous structured event log for the server hot path.
+ * Callers only copy a template and its arguments into a preallocated ring-buffer slot;
+ * formatting and I/O happen on a background writer thread. When the writer falls behind,
+ * new events are dropped (and counted) instead of blocking the game thread.
+ * trace and debug have fixed-arity overloads for up to four arguments, so a disabled hot-path call
+ * allocates no varargs array (small int arguments are boxed from the Integer cache).
+ *
+ * Configuration (system properties):
+ * go.log.level - minimum level (default INFO; TRACE enables the full per-move trace),
+ * go.log.traceSampling - log every N-th TRACE event (default 1 = all),
+ * go.log.bufferSize - ring capacity, rounded up to a power of two (default 65536),
+ * go.log.file - append to this file instead of standard output.
+ */
+public final class EventLog {
+
+    public enum Level { TRACE, DEBUG, INFO, WARN, ERROR }
+
+    private static final int MAX_ARGS = 4;
+    private static final int WRITE_BATCH = 512;
+    private static final DateTimeFormatter TIME_FORMAT =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
+
+    private static final LongAdder DROPPED = ServerMetrics.get().counter(
+            "go_log_dropped_total", "Log events dropped because the log ring buffer was full");
+
+    private static volatile int minLevel = Level.valueOf(System.getProperty("go.log.level", "INFO")).ordinal();
+    private static volatile int traceSampling = Math.max(1, Integer.getInteger("go.log.traceSampling", 1));
+
+    private static final Ring ring = new Ring(Integer.getInteger("go.log.bufferSize", 1 << 16));
+    private static final AtomicLong traceCounter = new AtomicLong();
+    private static final OutputStream sink;
+    private static final Thread writer;
+
+    /**
+     * One preallocated ring entry. {@code sequence} is written last and published the event.
+     */
+    private static final class Slot {
+        volatile long sequence = -1;
+        long timestamp;
+        Level level;
+        String thread;
+        String template;
+        final Object[] args = new Object[MAX_ARGS];
+        int argCount;
+    }
+
+    /**
+     * Multi-producer, single-consumer ring of preallocated slots. Producers claim a sequence with a CAS and
+     * publish by writing the slot's sequence last; the consumer formats slots in sequence order and frees them.
+     */
+    static final class Ring {
+        private final Slot[] slots;
+        private final int mask;
+        private final AtomicLong claimed = new AtomicLong();
+        private final AtomicLong consumed = new AtomicLong();
+
+        /**
+         * @param requested capacity, rounded up to a power of two
+         */
+        Ring(int requested) {
+            int capacity = Integer.highestOneBit(Math.max(2, requested - 1)) << 1;
+            slots = new Slot[capacity];
+            for (int i = 0; i < capacity; i++) {
+                slots[i] = new Slot();
+            }
+            mask = capacity - 1;
+        }
+
+        int capacity() {
+            return slots.length;
+        }
+
+        /**
+         * @return false if the ring is full and the event was dropped
+         */
+        boolean publish(Level level, String template, int argCount, Object a0, Object a1, Object a2, Object a3) {
+            long sequence;
+            do {
+                sequence = claimed.get();
+                if (sequence - consumed.get() >= slots.length) return false;
+            } while (!claimed.compareAndSet(sequence, sequence + 1));
+
+            Slot slot = slots[(int) (sequence & mask)];
+            slot.timestamp = System.currentTimeMillis();
+            slot.level = level;
+            slot.thread = Thread.currentThread().getName();
+            slot.template = template;
+            slot.args[0] = a0;
+            slot.args[1] = a1;
+            slot.args[2] = a2;
+            slot.args[3] = a3;
+            slot.argCount = argCount;
+            slot.sequence = sequence;
+            return true;
+        }
+
+        /**
+         * Formats up to maxEvents published events into the buffer (cleared first) and releases their slots.
+         * Only one thread may drain at a time.
+         */
+        int drainInto(StringBuilder buffer, int maxEvents) {
+            buffer.setLength(0);
+            int count = 0;
+            long next = consumed.get();
+            while (count < maxEvents) {
+                Slot slot = slots[(int) (next & mask)];
+                if (slot.sequence != next) break;
+
+                format(buffer, slot);
+                Arrays.fill(slot.args, null);
+                slot.template = null;
+                next++;
+                count++;
+                consumed.set(next);
+            }
+            return count;
+        }
+    }
+
+    static {
+        sink = openSink(System.getProperty("go.log.file"));
+
+        writer = new Thread(EventLog::writeLoop, "event-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(EventLog::flush, "event-log-flush"));
+    }
+
+    private EventLog() {}
+
+    private static OutputStream openSink(String file) {
+        if (file == null) return System.out;
+        try {
+            return new FileOutputStream(file, true);
+        } catch (IOException e) {
+            System.err.println("Nie można otworzyć pliku logu " + file + ": " + e.getMessage());
+            return System.out;
+        }
+    }
+
+    public static void setLevel(Level level) {
+        minLevel = level.ordinal();
+    }
+
+    public static void setTraceSampling(int everyNth) {
+        traceSampling = Math.max(1, everyNth);
+    }
+
+    public static boolean isEnabled(Level level) {
+        return level.ordinal() >= minLevel;
+    }
+
+    public static void trace(String template) {
+        if (traceEnabled()) publish(Level.TRACE, template, 0, null, null, null, null);
+    }
+
+    public static void trace(String template, Object a0) {
+        if (traceEnabled()) publish(Level.TRACE, template, 1, a0, null, null, null);
+    }
+
+    public static void trace(String template, Object a0, Object a1) {
+        if (traceEnabled()) publish(Level.TRACE, template, 2, a0, a1, null, null);
+    }
+
+    public static void trace(String template, Object a0, Object a1, Object a2) {
+        if (traceEnabled()) publish(Level.TRACE, template, 3, a0, a1, a2, null);
+    }
+
+    public static void trace(String template, Object a0, Object a1, Object a2, Object a3) {
+        if (traceEnabled()) publish(Level.TRACE, template, 4, a0, a1, a2, a3);
+    }
+
+    public static void trace(String template, Object... args) {
+        if (traceEnabled()) publish(Level.TRACE, template, args);
+    }
+
+    private static boolean traceEnabled() {
+        if (Level.TRACE.ordinal() < minLevel) return false;
+        int sampling = traceSampling;
+        return sampling <= 1 || traceCounter.getAndIncrement() % sampling == 0;
+    }
+
+    public static void debug(String template, Object a0) {
+        if (Level.DEBUG.ordinal() >= minLevel) publish(Level.DEBUG, template, 1, a0, null, null, null);
+    }
+
+    public static void debug(String template, Object a0, Object a1) {
+        if (Level.DEBUG.ordinal() >= minLevel) publish(Level.DEBUG, template, 2, a0, a1, null, null);
+    }
+
+    public static void debug(String template, Object a0, Object a1, Object a2) {
+        if (Level.DEBUG.ordinal() >= minLevel) publish(Level.DEBUG, template, 3, a0, a1, a2, null);
+    }
+
+    public static void debug(String template, Object a0, Object a1, Object a2, Object a3) {
+        if (Level.DEBUG.ordinal() >= minLevel) publish(Level.DEBUG, template, 4, a0, a1, a2, a3);
+    }
+
+    public static void debug(String template, Object... args) {
+        if (Level.DEBUG.ordinal() >= minLevel) publish(Level.DEBUG, template, args);
+    }
+
+    public static void info(String template, Object... args) {
+        if (Level.INFO.ordinal() >= minLevel) publish(Level.INFO, template, args);
+    }
+
+    public static void warn(String template, Object... args) {
+        if (Level.WARN.ordinal() >= minLevel) publish(Level.WARN, template, args);
+    }
+
+    /**
+     * Logs an error; a Throwable passed as the last argument is printed with its stack trace.
+     */
+    public static void error(String template, Object... args) {
+        if (Level.ERROR.ordinal() >= minLevel) publish(Level.ERROR, template, args);
+    }
+
+    private static void publish(Level level, String template, Object[] args) {
+        int count = Math.min(args.length, MAX_ARGS);
+        publish(level, template, count, count > 0 ? args[0] : null, count > 1 ? args[1] : null,
+                count > 2 ? args[2] : null, count > 3 ? args[3] : null);
+    }
+
+    private static void publish(Level level, String template, int count, Object a0, Object a1, Object a2, Object a3) {
+        if (!ring.publish(level, template, count, a0, a1, a2, a3)) {
+            DROPPED.increment();
+        }
+    }
+
+    private static void writeLoop() {
+        StringBuilder buffer = new StringBuilder(16 * 1024);
+        int idleSpins = 0;
+        while (true) {
+            if (writeBatch(buffer) == 0) {
+                LockSupport.parkNanos(idleSpins++ < 100 ? 100_000 : 2_000_000);
+            } else {
+                idleSpins = 0;
+            }
+        }
+    }
+
+    private static synchronized int writeBatch(StringBuilder buffer) {
+        int count = ring.drainInto(buffer, WRITE_BATCH);
+        if (count > 0) writeOut(buffer);
+        return count;
+    }
+
+    private static void format(StringBuilder sb, Slot slot) {
+        TIME_FORMAT.formatTo(Instant.ofEpochMilli(slot.timestamp), sb);
+        sb.append(' ').append(slot.level);
+        if (slot.level.name().length() == 4) sb.append(' ');
+        sb.append(" [").append(slot.thread).append("] ");
+
+        String template = slot.template;
+        int argIndex = 0;
+        int from = 0;
+        int placeholder;
+        while ((placeholder = template.indexOf("{}", from)) >= 0 && argIndex < slot.argCount) {
+            sb.append(template, from, placeholder).append(slot.args[argIndex++]);
+            from = placeholder + 2;
+        }
+        sb.append(template, from, template.length()).append('\n');
+
+        if (slot.argCount > 0 && slot.args[slot.argCount - 1] instanceof Throwable) {
+            StringWriter trace = new StringWriter();
+            ((Throwable) slot.args[slot.argCount - 1]).printStackTrace(new PrintWriter(trace));
+            sb.append(trace);
+        }
+    }
+
+    private static void writeOut(StringBuilder buffer) {
+        try {
+            sink.write(buffer.toString().getBytes(Charset.defaultCharset()));
+            sink.flush();
+        } catch (IOException e) {
+            System.err.println("Błąd zapisu logu: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Writes out everything published so far; used on shutdown and in tests.
+     */
+    public static void flush() {
+        StringBuilder buffer = new StringBuilder();
+        while (writeBatch(buffer) > 0) {
+            // keep draining until the ring is empty
+        }
+    }
+}
@@ -1,13 +1,41 @@
 package com.example;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
 /**
  * Core engine class managing the logic and flow of a Go game session.
  * Handles turn synchronization, move processing, score calculation and communication.
+ * The game runs as an actor: commands are posted with {@link #submit(Command)} and executed
+ * one at a time from its {@link Mailbox}, so the process* methods need no locking.
+ * A {@link GameClock} runs from the moment both seats are taken; running out of time loses the game.
  */
 public class Game {
+    private static final LatencyHistogram PROCESS_MOVE_TIME = ServerMetrics.get().histogram(
+            "go_process_move_seconds", "Total time of Game.processMove");
+    private static final LatencyHistogram RULE_CHECK_TIME = ServerMetrics.get().histogram(
+            "go_rule_check_seconds", "Time spent in RuleEngine.isMoveValid");
+    private static final LatencyHistogram BROADCAST_TIME = ServerMetrics.get().histogram(
+            "go_broadcast_seconds", "Time spent broadcasting the new state to players and spectators");
+    private static final LatencyHistogram PERSISTENCE_TIME = ServerMetrics.get().histogram(
+            "go_persistence_seconds", "Time spent handing a move to GameService on the game thread");
+
+    // rough heap estimate for estimateFootprint(), 64-bit JVM with compressed references
+    private static final long GAME_BYTES = 512;        // Game, Mailbox, RuleEngine, Board and clock objects
+    private static final long GRID_ROW_BYTES = 16;     // array header of one StoneColor[] row
+    private static final long SPECTATOR_BYTES = 16;
+
+    private static final SecureRandom SECRETS = new SecureRandom();
+
     private Board board;
     private Player playerBlack;
     private Player playerWhite;
+    private final List<Player> spectators = new CopyOnWriteArrayList<>();
 
     private StoneColor currentPlayer;
     private RuleEngine ruleEngine;
@@ -21,46 +49,334 @@ public class Game {
     private GameService gameService;
     private Long dbGameId;
     private int moveCounter = 0;
+    private int sequence = 0;     // accepted moves and passes, sent to clients as "SEQ <n> <turn>"
+    private short[] moveCodes = new short[128];
     private boolean persistenceEnabled = true;
+    private GameClock clock = GameClock.fromSystemProperties();
+
+    private final Mailbox mailbox;
+    private volatile long lastActivity = System.nanoTime();
+    private boolean released = false;
+
+    // per-seat secrets a player needs for RECONNECT; persisted with the game so they survive a restart
+    private String blackSecret = newSecret();
+    private String whiteSecret = newSecret();
 
     public Game(int size) {
+        this(size, GameExecutor.shared());
+    }
+
+    public Game(int size, GameExecutor executor) {
         this.board = new Board(size);
         this.currentPlayer = StoneColor.BLACK;
         this.ruleEngine = new RuleEngine();
+        this.mailbox = new Mailbox(executor);
+    }
+
+    /**
+     * Queues a command for execution on this game's actor.
+     * Safe to call from any thread; commands run in submission order.
+     */
+    public void submit(Command command) {
+        lastActivity = System.nanoTime();
+        mailbox.post(command);
+    }
+
+    /**
+     * Queues a command to be executed after the given delay without holding a thread meanwhile.
+     */
+    public void submitDelayed(Command command, long delayMillis) {
+        mailbox.postDelayed(command, delayMillis);
+    }
+
+    /**
+     * Replaces the time control configured by system properties. Must be called before the players join.
+     */
+    public void setClock(GameClock clock) {
+        this.clock = clock;
     }
 
     public void setGameService(GameService service) {
         this.gameService = service;
         if (this.gameService != null && persistenceEnabled) {
-            this.dbGameId = this.gameService.createNewGame(board.getSize());
+            this.dbGameId = this.gameService.createNewGame(board.getSize(), blackSecret, whiteSecret);
+        }
+    }
+
+    /**
+     * Returns the secret the player of the given colour must present to RECONNECT to this game.
+     */
+    public String getSeatSecret(StoneColor color) {
+        return color == StoneColor.BLACK ? blackSecret : color == StoneColor.WHITE ? whiteSecret : null;
+    }
+
+    /**
+     * Replaces the seat secrets with the persisted ones of a restored game. Must be called before the game is shared.
+     * A null secret (a game stored before secrets existed) closes that seat to reconnections.
+     */
+    public void setSeatSecrets(String blackSecret, String whiteSecret) {
+        this.blackSecret = blackSecret;
+        this.whiteSecret = whiteSecret;
+    }
+
+    private static String newSecret() {
+        byte[] bytes = new byte[16];
+        SECRETS.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private static boolean secretMatches(String expected, String given) {
+        return expected != null && given != null && MessageDigest.isEqual(
+                expected.getBytes(StandardCharsets.UTF_8), given.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Rebuilds an interrupted game from its persisted moves, e.g. after a server restart.
+     * The moves are replayed on a {@link Position} without rule checks or broadcasts, then the board,
+     * prisoners, ko history, turn and pass state are restored. Must be called before the game is shared.
+     * A game whose history already decides it (surrender, two passes in a row) is finished right away.
+     * Clock times are not persisted: an unfinished game continues with a fresh clock, started by
+     * {@link #reconnect} once both players are seated again.
+     */
+    public void restore(GameService service, long gameId, List<MoveRecord> moves) {
+        this.gameService = service;
+        this.dbGameId = gameId;
+        int size = board.getSize();
+
+        int lastStone = -1;
+        int previousStone = -1;
+        for (int i = 0; i < moves.size(); i++) {
+            if ("MOVE".equals(moves.get(i).getType())) {
+                previousStone = lastStone;
+                lastStone = i;
+            }
         }
+
+        Position position = new Position(size);
+        StoneColor[][] afterPreviousStone = null;
+        moveCodes = Arrays.copyOf(moveCodes, Math.max(moveCodes.length, moves.size() + 64));
+        for (int i = 0; i < moves.size(); i++) {
+            MoveRecord move = moves.get(i);
+            if ("MOVE".equals(move.getType())) {
+                int captured = position.apply(move);
+                if (move.getColor() == StoneColor.BLACK) {
+                    blackPrisoners += captured;
+                } else {
+                    whitePrisoners += captured;
+                }
+                if (i == previousStone) {
+                    afterPreviousStone = position.toGrid();
+                }
+            }
+            moveCodes[moveCounter++] = MoveCodec.encode(size, move.getX(), move.getY(), move.getColor(), move.getType());
+        }
+
+        StoneColor[][] grid = position.toGrid();
+        for (int x = 0; x < size; x++) {
+            for (int y = 0; y < size; y++) {
+                board.setStone(x, y, grid[x][y]);
+            }
+        }
+        ruleEngine.restoreHistory(afterPreviousStone, lastStone >= 0 ? grid : null);
+
+        sequence = moves.size();
+        if (moves.isEmpty()) return;
+        MoveRecord last = moves.get(moves.size() - 1);
+        currentPlayer = getOpponent(last.getColor());
+        previousPlayerPassed = "PASS".equals(last.getType());
+
+        if ("SURRENDER".equals(last.getType())) {
+            isGameOver = true;
+            if (gameService != null) {
+                gameService.finishGame(dbGameId, getOpponent(last.getColor()) + "_WON",
+                        MoveCodec.toBlob(size, moveCodes, moveCounter));
+            }
+        } else if (previousPlayerPassed && moves.size() > 1 && "PASS".equals(moves.get(moves.size() - 2).getType())) {
+            endGame();
+        }
+    }
+
+    public boolean isGameOver() {
+        return isGameOver;
+    }
+
+    /**
+     * Seats a returning player in the free seat of the given colour (after a restart or a dropped connection).
+     * The player must present that seat's secret ({@link #getSeatSecret}), so nobody else can take over the game.
+     * onSeated runs on the game's actor once the seat is taken; a taken seat is reported to the player instead.
+     * A restored game's clock starts when the second player is back.
+     */
+    public void reconnect(Player player, StoneColor color, String secret, Runnable onSeated) {
+        submit(() -> {
+            if (!secretMatches(getSeatSecret(color), secret)) {
+                player.sendMessage("MESSAGE Błąd: Niepoprawny kod powrotu do gry.");
+                return;
+            }
+            if (released) {
+                player.sendMessage("MESSAGE Błąd: Gra została zwolniona z pamięci, spróbuj ponownie.");
+                return;
+            }
+            if (isGameOver) {
+                player.sendMessage("MESSAGE Błąd: Gra jest już zakończona.");
+                return;
+            }
+            if (color == StoneColor.BLACK && playerBlack == null) {
+                playerBlack = player;
+            } else if (color == StoneColor.WHITE && playerWhite == null) {
+                playerWhite = player;
+            } else {
+                player.sendMessage("MESSAGE Błąd: Miejsce gracza " + color + " jest zajęte.");
+                return;
+            }
+            ruleEngine.setPlayers(playerBlack, playerWhite);
+            if (playerBlack != null && playerWhite != null && !clock.isRunning()) {
+                startClock();
+            }
+            onSeated.run();
+            notifyPlayer(getOpponent(color), "MESSAGE Przeciwnik wrócił do gry.");
+            notifyPlayer(color, currentPlayer == color ? "MESSAGE Twój ruch" : "MESSAGE Ruch przeciwnika...");
+        });
+    }
+
+    /**
+     * Frees the seat of a player whose connection closed, so that the player can come back with RECONNECT.
+     */
+    public void leave(Player player) {
+        submit(() -> {
+            StoneColor color;
+            if (playerBlack == player) {
+                playerBlack = null;
+                color = StoneColor.BLACK;
+            } else if (playerWhite == player) {
+                playerWhite = null;
+                color = StoneColor.WHITE;
+            } else {
+                return;
+            }
+            ruleEngine.setPlayers(playerBlack, playerWhite);
+            if (!isGameOver) {
+                notifyPlayer(getOpponent(color), "MESSAGE Przeciwnik rozłączył się (może wrócić do gry).");
+            }
+        });
+    }
+
+    /**
+     * Returns the database ID of this game, or null if it is not persisted.
+     */
+    public Long getId() {
+        return dbGameId;
+    }
+
+    /**
+     * System.nanoTime() of the last command submitted to this game.
+     */
+    public long getLastActivity() {
+        return lastActivity;
+    }
+
+    /**
+     * Estimated heap held by this game: the board, the two ko snapshots of the rule engine, the move codes
+     * and fixed per-game objects. Connected players are not counted, they belong to their connections.
+     * Read without synchronization from other threads, so it is only an estimate.
+     */
+    public long estimateFootprint() {
+        long size = board.getSize();
+        long grid = size * GRID_ROW_BYTES + size * size * 4;
+        return GAME_BYTES + 3 * grid + 2L * moveCodes.length + SPECTATOR_BYTES * spectators.size();
+    }
+
+    /**
+     * Drops the players, spectators and clock so the game can be evicted from the registry. Runs on the actor.
+     * A running game is only released when nobody is seated or watching; its moves are already persisted and
+     * it can be rebuilt with {@link #restore}. A released game refuses reconnections.
+     * @return true if the game was released
+     */
+    public boolean release() {
+        if (!isGameOver && (playerBlack != null || playerWhite != null || !spectators.isEmpty())) {
+            return false;
+        }
+        released = true;
+        clock.stop();
+        playerBlack = null;
+        playerWhite = null;
+        spectators.clear();
+        ruleEngine.setPlayers(null, null);
+        return true;
     }
 
     public void setPersistenceEnabled(boolean enabled) {
         this.persistenceEnabled = enabled;
     }
 
-    public synchronized void addPlayer(Player player) {
-        if (playerBlack == null) {
-            playerBlack = player;
-        } else if (playerWhite == null) {
-            playerWhite = player;
+    public void addPlayer(Player player) {
+        submit(() -> {
+            if (playerBlack == null) {
+                playerBlack = player;
+            } else if (playerWhite == null) {
+                playerWhite = player;
+            }
+            ruleEngine.setPlayers(playerBlack, playerWhite);
+            if (playerBlack != null && playerWhite != null && !clock.isRunning() && !isGameOver) {
+                startClock();
+            }
+        });
+    }
+
+    /**
+     * Registers a client that receives every broadcast without taking part in the game.
+     * The spectator is added on the game's actor, so it cannot slip in after {@link #release}; a released game
+     * reports it to the spectator instead. onWatching runs on the actor once the spectator is added,
+     * before the current sequence and board are sent.
+     */
+    public void watch(Player spectator, Runnable onWatching) {
+        submit(() -> {
+            if (released) {
+                spectator.sendMessage("MESSAGE Błąd: Gra została zwolniona z pamięci, spróbuj ponownie.");
+                return;
+            }
+            spectators.add(spectator);
+            onWatching.run();
+            spectator.sendMessage(sequenceLine());
+            spectator.sendMessage("BOARD " + board.getBoardStateString());
+        });
+    }
+
+    public void removeSpectator(Player spectator) {
+        spectators.remove(spectator);
+    }
+
+    public void processMove(int x, int y, StoneColor playerColor) {
+        long started = System.nanoTime();
+        try {
+            handleMove(x, y, playerColor);
+        } finally {
+            PROCESS_MOVE_TIME.recordValue(System.nanoTime() - started);   // rejected and late moves count too
         }
-        ruleEngine.setPlayers(playerBlack, playerWhite);
     }
 
-    public synchronized void processMove(int x, int y, StoneColor playerColor) {
+    private void handleMove(int x, int y, StoneColor playerColor) {
         if (isGameOver) {
             notifyPlayer(playerColor, "MESSAGE Gra zakończona. Nie można wykonywać ruchów.");
+            notifyPlayer(playerColor, sequenceLine());
             return;
         }
 
         if (persistenceEnabled && playerColor != currentPlayer) {
             notifyPlayer(playerColor, "MESSAGE To nie jest Twój ruch!");
+            notifyPlayer(playerColor, sequenceLine());
+            return;
+        }
+
+        if (clock.hasExpired(playerColor)) {
+            timeOut(playerColor);   // the move arrived after the flag fell, before the timeout was processed
             return;
         }
 
-        if (ruleEngine.isMoveValid(board, x, y, playerColor)) {
+        long ruleCheckStarted = System.nanoTime();
+        boolean valid = ruleEngine.isMoveValid(board, x, y, playerColor);
+        RULE_CHECK_TIME.recordValue(System.nanoTime() - ruleCheckStarted);
+
+        if (valid) {
             int captured = ruleEngine.getLastCapturedCount();
             if (playerColor == StoneColor.BLACK) {
                 blackPrisoners += captured;
@@ -69,59 +385,118 @@ public class Game {
             }
 
             if (persistenceEnabled && gameService != null && dbGameId != null) {
-                moveCounter++;
-                gameService.saveMove(dbGameId, moveCounter, x, y, playerColor, "MOVE");
+                long persistenceStarted = System.nanoTime();
+                recordMove(x, y, playerColor, "MOVE");
+                PERSISTENCE_TIME.recordValue(System.nanoTime() - persistenceStarted);
             }
 
+            EventLog.trace("Gra {}: ruch {} na ({},{})", dbGameId, playerColor, x, y);
             previousPlayerPassed = false;
+            sequence++;
             switchTurn();
+            startClock();
+
+            long broadcastStarted = System.nanoTime();
             broadcastState();
+            BROADCAST_TIME.recordValue(System.nanoTime() - broadcastStarted);
+        } else {
+            // lets a client that predicted the move roll it back
+            notifyPlayer(playerColor, sequenceLine());
         }
     }
 
-    public synchronized void processPass(StoneColor playerColor) {
+    public void processPass(StoneColor playerColor) {
         if (isGameOver) return;
 
         if (persistenceEnabled && playerColor != currentPlayer) {
             notifyPlayer(playerColor, "MESSAGE To nie jest Twój ruch!");
+            notifyPlayer(playerColor, sequenceLine());
+            return;
+        }
+
+        if (clock.hasExpired(playerColor)) {
+            timeOut(playerColor);
             return;
         }
 
         if (persistenceEnabled && gameService != null && dbGameId != null) {
-            moveCounter++;
-            gameService.saveMove(dbGameId, moveCounter, -1, -1, playerColor, "PASS");
+            recordMove(-1, -1, playerColor, "PASS");
         }
 
+        sequence++;
         if (previousPlayerPassed) {
             endGame();
         } else {
             previousPlayerPassed = true;
             switchTurn();
-            broadcastMessage("MESSAGE Tura gracza: " + currentPlayer);
+            startClock();
+            broadcastMessage(sequenceLine());
+            broadcastMessage("MESSAGE Tura gracza: " + currentPlayer + clockMessage());
         }
         notifyPlayer(playerColor, "MESSAGE Spasowałeś.");
         notifyPlayer(getOpponent(playerColor), "MESSAGE Przeciwnik spasował.");
     }
 
-    public synchronized void processSurrender(StoneColor playerColor) {
+    public void processSurrender(StoneColor playerColor) {
         if (isGameOver) return;
         isGameOver = true;
+        clock.stop();
         StoneColor winner = (playerColor == StoneColor.BLACK) ? StoneColor.WHITE : StoneColor.BLACK;
 
         if (persistenceEnabled && gameService != null && dbGameId != null) {
-             moveCounter++;
-             gameService.saveMove(dbGameId, moveCounter, -1, -1, playerColor, "SURRENDER");
-             gameService.finishGame(dbGameId, winner + "_WON");
+             recordMove(-1, -1, playerColor, "SURRENDER");
+             gameService.finishGame(dbGameId, winner + "_WON", MoveCodec.toBlob(board.getSize(), moveCodes, moveCounter));
         }
 
         broadcastMessage("MESSAGE Gracz " + playerColor + " poddał się. Wygrywa " + winner + "!");
     }
 
-    public synchronized void processResume(StoneColor playerColor) {
+    public void processResume(StoneColor playerColor) {
+    }
+
+    /**
+     * Handles a flag-fall posted by the clock; ignored if the player moved in the meantime or the game is over.
+     */
+    public void processTimeout(StoneColor playerColor, int turn) {
+        if (isGameOver || !clock.isTimeout(playerColor, turn)) return;
+        timeOut(playerColor);
+    }
+
+    /**
+     * Stops a game whose moves could not be stored: it could no longer be replayed or recovered.
+     */
+    public void processPersistenceFailure() {
+        if (isGameOver) return;
+        isGameOver = true;
+        clock.stop();
+        EventLog.warn("Gra {}: przerwana z powodu błędu zapisu", dbGameId);
+        broadcastMessage("MESSAGE === KONIEC GRY === Błąd zapisu: ruchy tej gry nie zostały zapisane, gra została przerwana.");
+    }
+
+    private void timeOut(StoneColor playerColor) {
+        isGameOver = true;
+        clock.stop();
+        StoneColor winner = getOpponent(playerColor);
+
+        if (persistenceEnabled && gameService != null && dbGameId != null) {
+            gameService.finishGame(dbGameId, winner + "_WON", MoveCodec.toBlob(board.getSize(), moveCodes, moveCounter));
+        }
+
+        EventLog.info("Gra {}: koniec czasu gracza {}", dbGameId, playerColor);
+        broadcastMessage("MESSAGE === KONIEC GRY === Czas gracza " + playerColor + " minął. Wygrywa " + winner + "!");
+    }
+
+    private void startClock() {
+        clock.start(currentPlayer, (color, turn) -> submit(new TimeoutCommand(this, color, turn)));
+    }
+
+    private String clockMessage() {
+        return clock.isEnabled() ? " Czas: " + clock.describe() : "";
     }
 
     private void endGame() {
         isGameOver = true;
+        clock.stop();
 
         int[] territories = ruleEngine.countTerritory(board);
         int blackTerritory = territories[0];
@@ -147,12 +522,31 @@ public class Game {
         }
 
         if (persistenceEnabled && gameService != null && dbGameId != null) {
-            gameService.finishGame(dbGameId, result);
+            gameService.finishGame(dbGameId, result, MoveCodec.toBlob(board.getSize(), moveCodes, moveCounter));
         }
 
         broadcastMessage(sb.toString());
     }
 
+    /**
+     * Persists an accepted action and keeps its 2-byte code for the compact blob written at the end of the game.
+     * Every ReplaySession.CHECKPOINT_INTERVAL moves the board is stored too, so replays can seek without
+     * replaying the whole game.
+     */
+    private void recordMove(int x, int y, StoneColor color, String type) {
+        moveCounter++;
+        gameService.saveMove(dbGameId, moveCounter, x, y, color, type);
+
+        if (moveCounter > moveCodes.length) {
+            moveCodes = Arrays.copyOf(moveCodes, moveCodes.length * 2);
+        }
+        moveCodes[moveCounter - 1] = MoveCodec.encode(board.getSize(), x, y, color, type);
+
+        if (moveCounter % ReplaySession.CHECKPOINT_INTERVAL == 0) {
+            gameService.saveCheckpoint(dbGameId, moveCounter, Position.fromBoard(board).pack());
+        }
+    }
+
     private void switchTurn() {
         currentPlayer = (currentPlayer == StoneColor.BLACK) ? StoneColor.WHITE : StoneColor.BLACK;
     }
@@ -163,8 +557,9 @@ public class Game {
 
     private void broadcastState() {
         String state = board.getBoardStateString();
-        String prisonersMsg = " (Jeńcy: B=" + blackPrisoners + ", W=" + whitePrisoners + ")";
+        String prisonersMsg = " (Jeńcy: B=" + blackPrisoners + ", W=" + whitePrisoners + ")" + clockMessage();
 
+        broadcastMessage(sequenceLine());
         broadcastMessage("BOARD " + state);
 
         if (!isGameOver) {
@@ -178,9 +573,21 @@ public class Game {
         }
     }
 
+    /**
+     * "SEQ &lt;n&gt; &lt;turn&gt;": the number of accepted moves and passes and the colour to move. Sent before
+     * every BOARD and after a pass or a rejected move, so a client predicting moves locally can tell a
+     * confirmed prediction from a rejected one. Only the game's own commands may call it.
+     */
+    public String sequenceLine() {
+        return "SEQ " + sequence + " " + currentPlayer;
+    }
+
     private void broadcastMessage(String msg) {
         if (playerBlack != null) playerBlack.sendMessage(msg);
         if (playerWhite != null) playerWhite.sendMessage(msg);
+        for (Player spectator : spectators) {
+            spectator.sendMessage(msg);
+        }
     }
 
     private void notifyPlayer(StoneColor color, String msg) {
@@ -191,7 +598,11 @@ public class Game {
         }
     }
 
-    public synchronized Board getBoard() {
+    /**
+     * Returns the live board. Only the game's own commands (or a thread that exclusively
+     * owns a game that is never submitted to, such as a replay simulation) may read it.
+     */
+    public Board getBoard() {
         return board;
     }
 }
\ No newline at end of file
@@ -0,0 +1,31 @@
+package com.example;
+
+import jakarta.persistence.*;
+
+/**
+ * Whole finished game encoded with {@link MoveCodec}, one row per game.
+ * Kept out of the games table so catalogue pages and lookups of a game row do not load the moves;
+ * readers fetch the blob by game ID only when they replay the game.
+ */
+@Entity
+@Table(name = "game_blobs")
+public class GameBlobEntity {
+
+    @Id
+    @Column(name = "game_id")
+    private Long gameId;
+
+    @Lob
+    @Column(name = "move_blob")
+    private byte[] moveBlob;
+
+    public GameBlobEntity() {}
+
+    public GameBlobEntity(Long gameId, byte[] moveBlob) {
+        this.gameId = gameId;
+        this.moveBlob = moveBlob;
+    }
+
+    public Long getGameId() { return gameId; }
+    public byte[] getMoveBlob() { return moveBlob; }
+}
@@ -0,0 +1,8 @@
+package com.example;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface GameBlobRepository extends JpaRepository<GameBlobEntity, Long> {
+}
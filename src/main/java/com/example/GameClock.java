@@ -0,0 +1,163 @@
+package com.example;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Time control of one game: Fischer (main time plus an increment per move) or byoyomi (main time, then
+ * a number of periods; a move within a period keeps it, overrunning one uses it up).
+ * Only the clock of the player to move runs. Instead of a thread per game, the moment that player would
+ * run out of time is scheduled on the shared {@link TimingWheel}; the timeout only posts a
+ * {@link TimeoutCommand} to the game, which asks {@link #hasExpired} before declaring the loss, so a move
+ * that arrived first always wins the race. Owned by the game's actor, like the rest of its state.
+ */
+public class GameClock {
+    public enum Mode { NONE, FISCHER, BYOYOMI }
+
+    private final Mode mode;
+    private final long incrementMillis;
+    private final long periodMillis;
+    private final TimingWheel wheel;
+    private final LongSupplier nanoClock;
+
+    private final long[] mainMillis = new long[2];   // indexed by BLACK = 0, WHITE = 1
+    private final int[] periods = new int[2];
+
+    private StoneColor running = StoneColor.EMPTY;
+    private long runningSince;
+    private int generation = 0;   // identifies the current turn, so a stale timeout is ignored
+    private TimingWheel.Timeout timeout;
+
+    public GameClock(Mode mode, long mainMillis, long incrementMillis, int periods, long periodMillis,
+                     TimingWheel wheel, LongSupplier nanoClock) {
+        this.mode = mode;
+        this.incrementMillis = incrementMillis;
+        this.periodMillis = Math.max(1, periodMillis);
+        this.wheel = wheel;
+        this.nanoClock = nanoClock;
+        this.mainMillis[0] = this.mainMillis[1] = mainMillis;
+        this.periods[0] = this.periods[1] = mode == Mode.BYOYOMI ? periods : 0;
+    }
+
+    /**
+     * Builds the clock configured with go.clock.mode (BYOYOMI, FISCHER or NONE), go.clock.mainSeconds,
+     * go.clock.incrementSeconds, go.clock.periods and go.clock.periodSeconds.
+     */
+    public static GameClock fromSystemProperties() {
+        Mode mode = Mode.valueOf(System.getProperty("go.clock.mode", Mode.BYOYOMI.name()));
+        return new GameClock(mode,
+                TimeUnit.SECONDS.toMillis(Long.getLong("go.clock.mainSeconds", 600)),
+                TimeUnit.SECONDS.toMillis(Long.getLong("go.clock.incrementSeconds", 10)),
+                Integer.getInteger("go.clock.periods", 5),
+                TimeUnit.SECONDS.toMillis(Long.getLong("go.clock.periodSeconds", 30)),
+                TimingWheel.shared(), System::nanoTime);
+    }
+
+    public boolean isEnabled() {
+        return mode != Mode.NONE;
+    }
+
+    public boolean isRunning() {
+        return running != StoneColor.EMPTY;
+    }
+
+    /**
+     * Starts the given player's clock and schedules onTimeout(generation) for when it would run out.
+     * The callback runs on the wheel thread and must only post to the game.
+     */
+    public void start(StoneColor color, TimeoutListener onTimeout) {
+        if (mode == Mode.NONE) return;
+        stop();
+        running = color;
+        runningSince = nanoClock.getAsLong();
+        int turn = ++generation;
+        timeout = wheel.schedule(() -> onTimeout.timedOut(color, turn), remainingMillis(color));
+    }
+
+    /**
+     * Stops the running clock, charging the player for the time used (and adding the Fischer increment).
+     */
+    public void stop() {
+        if (running == StoneColor.EMPTY) return;
+        int i = index(running);
+        long used = elapsedMillis();
+        if (used <= mainMillis[i]) {
+            mainMillis[i] -= used;
+        } else {
+            long over = used - mainMillis[i];
+            mainMillis[i] = 0;
+            periods[i] = (int) Math.max(0, periods[i] - over / periodMillis);
+        }
+        if (mode == Mode.FISCHER && mainMillis[i] > 0) {
+            mainMillis[i] += incrementMillis;
+        }
+        running = StoneColor.EMPTY;
+        if (timeout != null) {
+            timeout.cancel();
+            timeout = null;
+        }
+    }
+
+    /**
+     * True if the given turn is still the current one and the player's time is used up.
+     */
+    public boolean isTimeout(StoneColor color, int turn) {
+        return turn == generation && running == color && hasExpired(color);
+    }
+
+    /**
+     * True if the player has no time left, counting the running turn.
+     */
+    public boolean hasExpired(StoneColor color) {
+        return mode != Mode.NONE && remainingMillis(color) <= 0;
+    }
+
+    /**
+     * Time until the player's flag falls: main time plus all remaining byoyomi periods, minus the running turn.
+     * In byoyomi the current period restarts with every move, so only whole periods count.
+     */
+    long remainingMillis(StoneColor color) {
+        int i = index(color);
+        long used = running == color ? elapsedMillis() : 0;
+        long total = mainMillis[i] + periods[i] * periodMillis;
+        return total - used;
+    }
+
+    /**
+     * E.g. "B 9:58, W 4:12" or in byoyomi "B 0:21 (3x30s), W 10:00"; the running player's time counts down.
+     */
+    public String describe() {
+        return "B " + describe(StoneColor.BLACK) + ", W " + describe(StoneColor.WHITE);
+    }
+
+    private String describe(StoneColor color) {
+        int i = index(color);
+        long used = running == color ? elapsedMillis() : 0;
+        if (mainMillis[i] > used || periods[i] == 0) {
+            return format(mainMillis[i] - used);
+        }
+        long over = used - mainMillis[i];
+        int left = (int) Math.max(0, periods[i] - over / periodMillis);
+        return format(periodMillis - over % periodMillis) + " (" + left + "x" + periodMillis / 1000 + "s)";
+    }
+
+    private static String format(long millis) {
+        long seconds = Math.max(0, millis) / 1000;
+        return seconds / 60 + ":" + (seconds % 60 < 10 ? "0" : "") + seconds % 60;
+    }
+
+    private long elapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(nanoClock.getAsLong() - runningSince);
+    }
+
+    private static int index(StoneColor color) {
+        return color == StoneColor.BLACK ? 0 : 1;
+    }
+
+    /**
+     * Receives the flag-fall of a turn on the wheel thread.
+     */
+    public interface TimeoutListener {
+        void timedOut(StoneColor color, int turn);
+    }
+}
@@ -5,18 +5,33 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "games")
+@Table(name = "games", indexes = {
+        @Index(name = "idx_game_finish_time", columnList = "finish_time"),
+        @Index(name = "idx_game_result", columnList = "result")
+})
 public class GameEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "game_seq")
+    @SequenceGenerator(name = "game_seq", sequenceName = "game_seq", allocationSize = 50)
     private Long id;
 
     private LocalDateTime startTime;
     private int boardSize;
     private String result;
 
-    @OneToMany(mappedBy = "game", cascade = CascadeType.ALL, fetch = FetchType.EAGER)
+    /** Set when the result is stored; lets analytics pick up only games finished since their last run. */
+    @Column(name = "finish_time")
+    private LocalDateTime finishTime;
+
+    /** Seat secrets required by RECONNECT, kept so that recovered games can be rejoined after a restart. */
+    @Column(name = "black_secret", length = 32)
+    private String blackSecret;
+
+    @Column(name = "white_secret", length = 32)
+    private String whiteSecret;
+
+    @OneToMany(mappedBy = "game", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<MoveEntity> moves;
 
     public GameEntity() {}
@@ -35,6 +50,12 @@ public class GameEntity {
     public void setBoardSize(int boardSize) { this.boardSize = boardSize; }
     public String getResult() { return result; }
     public void setResult(String result) { this.result = result; }
+    public LocalDateTime getFinishTime() { return finishTime; }
+    public void setFinishTime(LocalDateTime finishTime) { this.finishTime = finishTime; }
+    public String getBlackSecret() { return blackSecret; }
+    public void setBlackSecret(String blackSecret) { this.blackSecret = blackSecret; }
+    public String getWhiteSecret() { return whiteSecret; }
+    public void setWhiteSecret(String whiteSecret) { this.whiteSecret = whiteSecret; }
     public List<MoveEntity> getMoves() { return moves; }
     public void setMoves(List<MoveEntity> moves) { this.moves = moves; }
 }
\ No newline at end of file
@@ -0,0 +1,141 @@
+package com.example;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps the memory held by games bounded in a long-running server.
+ * A periodic sweep evicts from the {@link GameRegistry} finished games idle for go.eviction.finished-minutes
+ * and running games nobody has touched for go.eviction.idle-minutes. If the estimated footprint of the
+ * remaining games still exceeds go.eviction.max-bytes, running games are evicted least recently active first.
+ * Pending moves are flushed to the move store before anything is evicted, and each game is released on its
+ * own actor ({@link Game#release}), which keeps any game with a seated player or spectator. An evicted
+ * running game is rebuilt on demand by {@link GameRegistry#getOrLoad} when someone reconnects or watches it;
+ * finished games are replayed from the archive as before.
+ */
+@Component
+public class GameEvictor {
+    private static final LongAdder EVICTED = ServerMetrics.get().counter(
+            "go_evicted_games_total", "Games evicted from memory");
+
+    @Autowired
+    private MoveStore moveStore;
+
+    @Value("${go.eviction.enabled:true}")
+    private boolean enabled;
+
+    @Value("${go.eviction.interval-seconds:60}")
+    private long intervalSeconds;
+
+    @Value("${go.eviction.idle-minutes:30}")
+    private long idleMinutes;
+
+    @Value("${go.eviction.finished-minutes:2}")
+    private long finishedMinutes;
+
+    @Value("${go.eviction.max-bytes:268435456}")
+    private long maxBytes;
+
+    private ScheduledExecutorService timer;
+
+    /**
+     * Starts sweeping the registry every go.eviction.interval-seconds. Safe to call more than once.
+     */
+    public synchronized void start(GameRegistry registry) {
+        if (!enabled || timer != null) return;
+        timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "game-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = Math.max(1, intervalSeconds);
+        timer.scheduleWithFixedDelay(() -> {
+            try {
+                sweep(registry);
+            } catch (RuntimeException e) {
+                EventLog.error("Błąd zwalniania gier", e);
+            }
+        }, interval, interval, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        if (timer != null) timer.shutdownNow();
+    }
+
+    /**
+     * Evicts what the timeouts and the memory budget allow and returns the number of games evicted.
+     */
+    public int sweep(GameRegistry registry) {
+        long now = System.nanoTime();
+        long idleNanos = TimeUnit.MINUTES.toNanos(idleMinutes);
+        long finishedNanos = TimeUnit.MINUTES.toNanos(finishedMinutes);
+
+        List<Map.Entry<Long, Game>> expired = new ArrayList<>();
+        List<Map.Entry<Long, Game>> others = new ArrayList<>();
+        long remainingBytes = 0;
+        for (Map.Entry<Long, Game> entry : registry.entries()) {
+            Game game = entry.getValue();
+            boolean over = game.isGameOver();
+            if (!over && game.getId() == null) continue;   // not persisted, could not be loaded again
+            long idle = now - game.getLastActivity();
+            if (idle >= (over ? finishedNanos : idleNanos)) {
+                expired.add(entry);
+            } else {
+                others.add(entry);
+                remainingBytes += game.estimateFootprint();
+            }
+        }
+        if (maxBytes > 0 && remainingBytes > maxBytes) {
+            others.sort(Comparator.comparingLong(entry -> entry.getValue().getLastActivity()));
+            for (Map.Entry<Long, Game> entry : others) {
+                if (remainingBytes <= maxBytes) break;
+                expired.add(entry);
+                remainingBytes -= entry.getValue().estimateFootprint();
+            }
+        }
+        if (expired.isEmpty()) return 0;
+
+        try {
+            moveStore.flush();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 0;
+        }
+
+        LongAdder evicted = new LongAdder();
+        CountDownLatch done = new CountDownLatch(expired.size());
+        for (Map.Entry<Long, Game> entry : expired) {
+            long id = entry.getKey();
+            Game game = entry.getValue();
+            game.submit(() -> {
+                try {
+                    if (game.release() && registry.remove(id, game)) evicted.increment();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        try {
+            done.await(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        EVICTED.add(evicted.sum());
+        EventLog.info("Zwolniono {} z {} gier, pozostało {} gier (~{} KB)",
+                evicted.sum(), expired.size() + others.size(), registry.size(), registry.estimateFootprint() / 1024);
+        return evicted.intValue();
+    }
+}
@@ -0,0 +1,57 @@
+package com.example;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Small shared worker pool on which all game mailboxes are multiplexed.
+ * Each game occupies at most one worker at a time, so games run in parallel
+ * while commands within a single game are processed strictly in order.
+ */
+public class GameExecutor {
+    private static final GameExecutor SHARED = new GameExecutor(
+            Integer.getInteger("go.game.workers", Runtime.getRuntime().availableProcessors()));
+
+    private final ExecutorService workers;
+    private final ScheduledExecutorService timer;
+
+    public GameExecutor(int workerCount) {
+        this.workers = Executors.newFixedThreadPool(workerCount, daemonThreads("game-worker"));
+        this.timer = Executors.newSingleThreadScheduledExecutor(daemonThreads("game-timer"));
+    }
+
+    public static GameExecutor shared() {
+        return SHARED;
+    }
+
+    public void execute(Runnable task) {
+        workers.execute(task);
+    }
+
+    /**
+     * Runs the task after the given delay. The task itself should only enqueue work
+     * into a mailbox; it runs on the timer thread, not on a game worker.
+     */
+    public ScheduledFuture<?> schedule(Runnable task, long delayMillis) {
+        return timer.schedule(task, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void shutdown() {
+        timer.shutdownNow();
+        workers.shutdown();
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,152 @@
+package com.example;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Brings the games that were running when the server stopped back to life.
+ * This needs a database that outlives the process (spring.datasource.url, an H2 file by default);
+ * with an in-memory database there is nothing left to recover after a restart.
+ * Every ONGOING game is loaded from the move store and rebuilt with {@link Game#restore} (a fast replay
+ * on {@link Position}, no sockets or broadcasts), then registered so its players can RECONNECT.
+ * Games are recovered in parallel: loading the moves is I/O bound, replaying them takes microseconds.
+ * Games started more than go.recovery.abandon-after-hours ago are closed as ABANDONED instead.
+ * The same rebuild brings back a single game evicted from memory by {@link GameEvictor} ({@link #reload}).
+ */
+@Component
+public class GameRecovery {
+    private static final int PAGE_SIZE = 500;
+
+    private static final LongAdder RECOVERED = ServerMetrics.get().counter(
+            "go_recovered_games_total", "Interrupted games restored at startup");
+    private static final LongAdder RELOADED = ServerMetrics.get().counter(
+            "go_reloaded_games_total", "Evicted games loaded again on demand");
+    private static final LatencyHistogram RECOVERY_TIME = ServerMetrics.get().histogram(
+            "go_recovery_game_seconds", "Time to load and rebuild one interrupted game");
+
+    @Autowired
+    private GameRepository gameRepository;
+
+    @Autowired
+    private MoveStore moveStore;
+
+    @Autowired
+    private GameService gameService;
+
+    @Value("${go.recovery.enabled:true}")
+    private boolean enabled;
+
+    @Value("${go.recovery.threads:0}")
+    private int threads;
+
+    @Value("${go.recovery.abandon-after-hours:48}")
+    private long abandonAfterHours;
+
+    /**
+     * Restores all interrupted games into the registry and returns how many are playable again.
+     */
+    public int recoverAll(GameRegistry registry) {
+        if (!enabled) return 0;
+        long started = System.nanoTime();
+        int workers = threads > 0 ? threads : 2 * Runtime.getRuntime().availableProcessors();
+        ExecutorService pool = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "game-recovery");
+            thread.setDaemon(true);
+            return thread;
+        });
+        LocalDateTime abandonBefore = LocalDateTime.now().minusHours(abandonAfterHours);
+        AtomicInteger recovered = new AtomicInteger();
+        AtomicInteger closed = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+
+        long afterId = 0;
+        while (true) {
+            List<GameEntity> page = gameRepository.findByResultAndIdGreaterThanOrderByIdAsc(
+                    "ONGOING", afterId, PageRequest.of(0, PAGE_SIZE));
+            for (GameEntity entity : page) {
+                pool.execute(() -> {
+                    try {
+                        if (recover(entity, registry, abandonBefore)) recovered.incrementAndGet();
+                        else closed.incrementAndGet();
+                    } catch (RuntimeException e) {
+                        failed.incrementAndGet();
+                        EventLog.error("Nie udało się odtworzyć gry {}", entity.getId(), e);
+                    }
+                });
+            }
+            if (page.size() < PAGE_SIZE) break;
+            afterId = page.get(page.size() - 1).getId();
+        }
+
+        pool.shutdown();
+        try {
+            pool.awaitTermination(5, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        EventLog.info("Odtwarzanie gier: {} wznowionych, {} zamkniętych, {} błędów w {} ms",
+                recovered.get(), closed.get(), failed.get(), (System.nanoTime() - started) / 1_000_000);
+        return recovered.get();
+    }
+
+    /**
+     * Rebuilds one running game that is not in memory, e.g. after eviction, for RECONNECT or WATCH.
+     * Pending writes are flushed first so that the moves played just before the eviction are loaded too.
+     * @return the restored game, or null if the game is missing, finished or cannot be loaded
+     */
+    public Game reload(long gameId) {
+        try {
+            moveStore.flush();
+            GameEntity entity = gameRepository.findById(gameId).orElse(null);
+            if (entity == null || !"ONGOING".equals(entity.getResult())) return null;
+
+            Game game = new Game(entity.getBoardSize());
+            game.setSeatSecrets(entity.getBlackSecret(), entity.getWhiteSecret());
+            game.restore(gameService, gameId, moveStore.loadMoves(gameId));
+            if (game.isGameOver()) return null;
+            RELOADED.increment();
+            EventLog.info("Gra {} wczytana ponownie do pamięci", gameId);
+            return game;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (RuntimeException e) {
+            EventLog.error("Nie udało się wczytać gry {}", gameId, e);
+            return null;
+        }
+    }
+
+    /**
+     * @return true if the game is running again, false if its history or age closed it
+     */
+    private boolean recover(GameEntity entity, GameRegistry registry, LocalDateTime abandonBefore) {
+        long t0 = System.nanoTime();
+        long gameId = entity.getId();
+        List<MoveRecord> moves = moveStore.loadMoves(gameId);
+
+        if (entity.getStartTime() != null && entity.getStartTime().isBefore(abandonBefore)) {
+            gameService.finishGame(gameId, "ABANDONED", MoveCodec.toBlob(entity.getBoardSize(), moves));
+            return false;
+        }
+
+        Game game = new Game(entity.getBoardSize());
+        game.setSeatSecrets(entity.getBlackSecret(), entity.getWhiteSecret());
+        game.restore(gameService, gameId, moves);
+        RECOVERY_TIME.recordValue(System.nanoTime() - t0);
+        if (game.isGameOver()) return false;
+
+        registry.register(game);
+        RECOVERED.increment();
+        return true;
+    }
+}
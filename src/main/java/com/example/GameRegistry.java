@@ -0,0 +1,115 @@
+package com.example;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongFunction;
+
+/**
+ * Directory of the live games hosted by the server, keyed by game ID.
+ * Lets clients attach to a running game (spectating, reconnecting) by its ID.
+ * Games evicted from memory ({@link GameEvictor}) are loaded again on demand through the loader.
+ */
+public class GameRegistry {
+    private final Map<Long, Game> games = new ConcurrentHashMap<>();
+    private final Map<Long, CompletableFuture<Game>> loading = new ConcurrentHashMap<>();
+    private final AtomicLong localIds = new AtomicLong();
+    private volatile LongFunction<Game> loader;
+
+    /**
+     * Sets how getOrLoad rebuilds a persisted game that is not in memory; the loader returns null
+     * for a game that is missing or already finished.
+     */
+    public void setLoader(LongFunction<Game> loader) {
+        this.loader = loader;
+    }
+
+    /**
+     * Registers a game under its database ID, or under a server-local ID if it is not persisted.
+     * @return The ID under which the game can be found.
+     */
+    public long register(Game game) {
+        long id = game.getId() != null ? game.getId() : localIds.incrementAndGet();
+        games.put(id, game);
+        return id;
+    }
+
+    public Game get(long id) {
+        return games.get(id);
+    }
+
+    /**
+     * Returns the game, loading it first if it was evicted. Concurrent calls for the same ID load it once:
+     * later callers wait for the first one's load. The loader (database reads) never runs inside the map,
+     * so other games are registered and looked up meanwhile.
+     */
+    public Game getOrLoad(long id) {
+        Game game = games.get(id);
+        LongFunction<Game> loader = this.loader;
+        if (game != null || loader == null) return game;
+
+        CompletableFuture<Game> mine = new CompletableFuture<>();
+        CompletableFuture<Game> pending = loading.putIfAbsent(id, mine);
+        if (pending != null) {
+            return pending.join();
+        }
+        try {
+            Game loaded = games.get(id);   // registered by another caller between the two checks
+            if (loaded == null) {
+                loaded = loader.apply(id);
+                if (loaded != null) {
+                    Game registered = games.putIfAbsent(id, loaded);
+                    if (registered != null) loaded = registered;
+                }
+            }
+            mine.complete(loaded);
+            return loaded;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(id, mine);
+        }
+    }
+
+    public void remove(long id) {
+        games.remove(id);
+    }
+
+    /**
+     * Removes the game only if it is still the one registered under the ID.
+     */
+    public boolean remove(long id, Game game) {
+        return games.remove(id, game);
+    }
+
+    public Set<Map.Entry<Long, Game>> entries() {
+        return games.entrySet();
+    }
+
+    /**
+     * Sum of {@link Game#estimateFootprint()} over the registered games.
+     */
+    public long estimateFootprint() {
+        long bytes = 0;
+        for (Game game : games.values()) {
+            bytes += game.estimateFootprint();
+        }
+        return bytes;
+    }
+
+    public Collection<Game> all() {
+        return games.values();
+    }
+
+    public int size() {
+        return games.size();
+    }
+
+    public void clear() {
+        games.clear();
+    }
+}
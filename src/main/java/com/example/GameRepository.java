@@ -1,8 +1,36 @@
 package com.example;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.List;
 
 @Repository
 public interface GameRepository extends JpaRepository<GameEntity, Long> {
+    /**
+     * One keyset page of the game catalogue in ID order, for archive-wide scans.
+     */
+    List<GameEntity> findByIdGreaterThanOrderByIdAsc(Long afterId, Pageable page);
+
+    /**
+     * One keyset page of the games with the given result, e.g. the ONGOING games to recover at startup.
+     */
+    List<GameEntity> findByResultAndIdGreaterThanOrderByIdAsc(String result, Long afterId, Pageable page);
+
+    /**
+     * One keyset page of the games in an ID range that finished within [from, to).
+     */
+    @Query("select g from GameEntity g where g.id > :afterId and g.id <= :maxId"
+            + " and g.finishTime >= :from and g.finishTime < :to order by g.id")
+    List<GameEntity> findFinishedPage(@Param("afterId") Long afterId, @Param("maxId") Long maxId,
+                                      @Param("from") LocalDateTime from, @Param("to") LocalDateTime to, Pageable page);
+
+    @Query("select min(g.id) from GameEntity g where g.finishTime >= :from and g.finishTime < :to")
+    Long findMinFinishedId(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Query("select max(g.id) from GameEntity g where g.finishTime >= :from and g.finishTime < :to")
+    Long findMaxFinishedId(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
 }
\ No newline at end of file
@@ -1,10 +1,15 @@
 package com.example;
 
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.LongConsumer;
 
 @Service
 public class GameService {
@@ -13,87 +18,174 @@ public class GameService {
     private GameRepository gameRepository;
 
     @Autowired
-    private MoveRepository moveRepository;
+    private GameBlobRepository gameBlobRepository;
+
+    @Autowired
+    private MoveStore moveStore;
+
+    @Autowired
+    private PositionIndex positionIndex;
+
+    @Autowired
+    private ReplayCache replayCache;
+
+    @Value("${go.archive.move-blob:true}")
+    private boolean writeMoveBlob;
+
+    /** Loads further replay pages off the game workers, which must never block on the database. */
+    private final ExecutorService replayLoader = Executors.newFixedThreadPool(2, runnable -> {
+        Thread thread = new Thread(runnable, "replay-loader");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Gry, które nie zmieściły się w kolejce indeksu pozycji, są indeksowane później z zapisu w bazie.
+     */
+    @PostConstruct
+    public void init() {
+        positionIndex.setBlobLoader(this::loadArchivedBlob);
+    }
 
     /**
      * Tworzy nową grę w bazie danych i zwraca jej ID.
      */
     @Transactional
-    public Long createNewGame(int size) {
+    public Long createNewGame(int size, String blackSecret, String whiteSecret) {
         GameEntity game = new GameEntity(size);
+        game.setBlackSecret(blackSecret);
+        game.setWhiteSecret(whiteSecret);
         game = gameRepository.save(game);
-        System.out.println("DB: Utworzono nową grę o ID: " + game.getId());
+        EventLog.info("DB: Utworzono nową grę o ID: {}", game.getId());
         return game.getId();
     }
 
     /**
-     * Zapisuje ruch w bazie danych.
+     * Zapisuje ruch gry.
+     * Ruch trafia do wybranego magazynu ruchów (go.storage) i jest utrwalany w tle, w paczkach.
      */
-    @Transactional
     public void saveMove(Long gameId, int moveNum, int x, int y, StoneColor color, String type) {
-        GameEntity game = gameRepository.findById(gameId).orElse(null);
-        if (game != null) {
-            MoveEntity move = new MoveEntity(game, moveNum, x, y, color, type);
-            moveRepository.save(move);
-            System.out.println("DB: Zapisano ruch " + moveNum + " (" + type + ")");
-        }
+        moveStore.appendMove(new MoveRecord(gameId, moveNum, x, y, color, type));
     }
 
     /**
      * Aktualizuje wynik gry po jej zakończeniu.
+     * Wynik jest zapisywany po wszystkich wcześniej zakolejkowanych ruchach tej gry,
+     * razem ze zwartym zapisem całej partii (MoveCodec), o ile go.archive.move-blob nie jest wyłączone.
+     * Partia trafia też w tle do indeksu pozycji (SEARCH).
      */
-    @Transactional
-    public void finishGame(Long gameId, String result) {
-        GameEntity game = gameRepository.findById(gameId).orElse(null);
-        if (game != null) {
-            game.setResult(result);
-            gameRepository.save(game);
-            System.out.println("DB: Zakończono grę " + gameId + " z wynikiem: " + result);
+    public void finishGame(Long gameId, String result, byte[] moveBlob) {
+        moveStore.finishGame(gameId, result, writeMoveBlob ? moveBlob : null);
+        if (moveBlob != null) {
+            positionIndex.submit(gameId, moveBlob);
+        }
+    }
+
+    /**
+     * Rejestruje obsługę gier, których ruchów nie udało się zapisać mimo ponowień.
+     */
+    public void setPersistenceFailureListener(LongConsumer listener) {
+        moveStore.setFailureListener(listener);
+    }
+
+    /**
+     * Zapisuje punkt kontrolny planszy po danym ruchu (co ReplaySession.CHECKPOINT_INTERVAL ruchów).
+     */
+    public void saveCheckpoint(Long gameId, int moveNum, byte[] packedBoard) {
+        moveStore.saveCheckpoint(new Checkpoint(gameId, moveNum, packedBoard));
+    }
+
+    /**
+     * Rozpoczyna powtórkę gry dla konkretnego klienta od wskazanego ruchu.
+     * Zakończone gry pochodzą z ReplayCache (jedno wczytanie na grę, współdzielone przez widzów).
+     * W trwającej grze pierwsza strona ruchów jest wysyłana od razu, kolejne są doczytywane w tle
+     * (stronicowanie po numerze ruchu), więc start powtórki nie zależy od długości gry.
+     * Zwraca sesję sterowaną komendami klienta (SEEK, STEP, PAUSE, SPEED, STOP) albo null, gdy gry nie ma.
+     */
+    public ReplaySession startReplay(Long gameId, Player viewer, int fromMove, long delayMillis) {
+        ReplayCache.CachedGame finished = replayCache.get(gameId, this::loadFinishedGame);
+        if (finished != null) {
+            // finished game: moves and checkpoints are shared by every viewer, nothing to load or simulate
+            ReplaySession session = new ReplaySession(gameId, finished.getBoardSize(),
+                    finished.getMoves(), finished.getCheckpoints(), viewer, GameExecutor.shared());
+            session.start(fromMove, delayMillis);
+            return session;
+        }
+
+        GameEntity gameEntity = gameRepository.findById(gameId).orElse(null);
+        List<MoveRecord> firstPage = gameEntity == null ? List.of() : moveStore.loadMoves(gameId, 0, MoveStore.PAGE_SIZE);
+
+        if (firstPage.isEmpty()) {
+            viewer.sendMessage("MESSAGE Błąd: Gra o ID " + gameId + " nie istnieje lub nie ma ruchów.");
+            return null;
+        }
+
+        ReplaySession session = new ReplaySession(gameId, gameEntity.getBoardSize(),
+                moveStore.loadCheckpoints(gameId), viewer, GameExecutor.shared());
+        boolean last = firstPage.size() < MoveStore.PAGE_SIZE;
+        session.appendMoves(firstPage, last);
+        session.start(fromMove, delayMillis);
+        if (!last) {
+            replayLoader.execute(() -> loadRemainingPages(gameId, session, firstPage.get(firstPage.size() - 1).getMoveNumber()));
         }
+        return session;
     }
 
     /**
-     * Specjalna metoda do odtwarzania powtórki dla konkretnego klienta.
-     * Pobiera ruchy i wysyła je z opóźnieniem do klienta.
+     * Zwraca całą partię w zwartym zapisie MoveCodec (MOVELIST), żeby klient mógł ją przewijać lokalnie;
+     * null, gdy gry nie ma albo nie ma ruchów. Zakończone gry pochodzą z ReplayCache.
      */
-    public void playReplayForClient(Long gameId, ClientHandler client) {
-        List<MoveEntity> moves = moveRepository.findByGameIdOrderByMoveNumberAsc(gameId);
-        
-        if (moves.isEmpty()) {
-            client.sendMessage("MESSAGE Błąd: Gra o ID " + gameId + " nie istnieje lub nie ma ruchów.");
-            return;
+    public byte[] loadMoveList(Long gameId) {
+        ReplayCache.CachedGame finished = replayCache.get(gameId, this::loadFinishedGame);
+        if (finished != null) {
+            return MoveCodec.toBlob(finished.getBoardSize(), finished.getMoves());
         }
+        GameEntity gameEntity = gameRepository.findById(gameId).orElse(null);
+        if (gameEntity == null) return null;
+        List<MoveRecord> moves = moveStore.loadMoves(gameId);
+        return moves.isEmpty() ? null : MoveCodec.toBlob(gameEntity.getBoardSize(), moves);
+    }
+
+    /**
+     * Loads the MoveCodec blob of a game for the position index; null for a missing game.
+     * Bypasses the replay cache, so indexing never pushes out the games people are watching.
+     */
+    private byte[] loadArchivedBlob(long gameId) {
+        GameBlobEntity blob = gameBlobRepository.findById(gameId).orElse(null);
+        if (blob != null) return blob.getMoveBlob();
+        GameEntity gameEntity = gameRepository.findById(gameId).orElse(null);
+        if (gameEntity == null) return null;
+        List<MoveRecord> moves = moveStore.loadMoves(gameId);
+        return moves.isEmpty() ? null : MoveCodec.toBlob(gameEntity.getBoardSize(), moves);
+    }
 
-        GameEntity gameEntity = gameRepository.findById(gameId).orElseThrow();
-        
-        Game simulationGame = new Game(gameEntity.getBoardSize());
-        
-        simulationGame.setPersistenceEnabled(false); 
-
-        client.sendMessage("MESSAGE --- Rozpoczynam powtórkę gry ID: " + gameId + " ---");
-        
-        client.sendMessage("BOARD " + simulationGame.getBoard().getBoardStateString());
-
-        new Thread(() -> {
-            try {
-                for (MoveEntity move : moves) {
-                    Thread.sleep(800); 
-
-                    if ("MOVE".equals(move.getType())) {
-                        simulationGame.processMove(move.getX(), move.getY(), move.getColor());
-                    } else if ("PASS".equals(move.getType())) {
-                        simulationGame.processPass(move.getColor());
-                    }
-                    else if ("SURRENDER".equals(move.getType())) {
-                         client.sendMessage("MESSAGE Gracz " + move.getColor() + " poddał się (w historii).");
-                    }
-                    
-                    client.sendMessage("BOARD " + simulationGame.getBoard().getBoardStateString());
-                }
-                client.sendMessage("MESSAGE --- Koniec powtórki ---");
-            } catch (InterruptedException e) {
-                e.printStackTrace();
+    /**
+     * Loads a finished game for the replay cache; null for a missing or still running game.
+     */
+    private ReplayCache.CachedGame loadFinishedGame(long gameId) {
+        GameEntity gameEntity = gameRepository.findById(gameId).orElse(null);
+        if (gameEntity == null || "ONGOING".equals(gameEntity.getResult())) {
+            return null;
+        }
+        GameBlobEntity blob = gameBlobRepository.findById(gameId).orElse(null);
+        List<MoveRecord> moves = blob != null
+                ? MoveCodec.decode(gameId, blob.getMoveBlob())
+                : moveStore.loadMoves(gameId);
+        return moves.isEmpty() ? null : new ReplayCache.CachedGame(gameId, gameEntity.getBoardSize(), moves);
+    }
+
+    private void loadRemainingPages(long gameId, ReplaySession session, int afterMove) {
+        try {
+            while (!session.isStopped()) {
+                List<MoveRecord> page = moveStore.loadMoves(gameId, afterMove, MoveStore.PAGE_SIZE);
+                boolean last = page.size() < MoveStore.PAGE_SIZE;
+                session.appendMoves(page, last);
+                if (last) return;
+                afterMove = page.get(page.size() - 1).getMoveNumber();
             }
-        }).start();
+        } catch (RuntimeException e) {
+            EventLog.error("Błąd wczytywania ruchów powtórki gry {}", gameId, e);
+            session.appendMoves(List.of(), true);
+        }
     }
-}
\ No newline at end of file
+}
@@ -8,22 +8,22 @@ import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.layout.*;
 import javafx.scene.paint.Color;
-import javafx.scene.shape.Circle;
-import javafx.scene.shape.Line;
 import javafx.stage.Stage;
 
 import java.io.IOException;
+import java.util.List;
 
-public class GoApplication extends Application {
+public class GoApplication extends Application implements UiDispatcher.Sink {
 
     private GoClient client;
     private Stage primaryStage;
     private BorderPane gameRoot;
-    private TextArea messageArea;
-    private Pane boardPane;
-    private int currentBoardSize = 0;
+    private ListView<String> logView;
+    private LogBuffer logBuffer;
+    private BoardCanvas boardCanvas;
+    private VBox sidePanel;
+    private LocalReplay replay;
     private AlertView alertView;
-    private Circle[][] stones;
 
     private static final int CELL_SIZE = 35;
 
@@ -115,16 +115,15 @@ public class GoApplication extends Application {
         btnReplay.setPrefWidth(100);
         btnReplay.setOnAction(e -> {
             int port = parsePort(portField.getText());
-            if (port > 0) {
-                connectToServer("localhost", port);
-                new Thread(() -> {
-                    try {
-                        Thread.sleep(500);
-                        client.sendMessage("REPLAY " + gameIdField.getText());
-                    } catch (InterruptedException ex) {
-                        ex.printStackTrace();
-                    }
-                }).start();
+            long gameId;
+            try {
+                gameId = Long.parseLong(gameIdField.getText().trim());
+            } catch (NumberFormatException ex) {
+                alertView.showAlert("Błąd", "Nieprawidłowe ID gry.", Alert.AlertType.ERROR);
+                return;
+            }
+            if (port > 0 && connectToServer("localhost", port)) {
+                client.requestMoveList(gameId);
             }
         });
         replayBox.getChildren().addAll(new Label("ID:"), gameIdField, btnReplay);
@@ -150,13 +149,15 @@ public class GoApplication extends Application {
         }
     }
 
-    private void connectToServer(String ip, int port) {
+    private boolean connectToServer(String ip, int port) {
         try {
             client = new GoClient(this);
             client.connect(ip, port);
             initGameView();
+            return true;
         } catch (IOException e) {
             alertView.showAlert("Błąd połączenia", "Nie można połączyć z " + ip + ":" + port, Alert.AlertType.ERROR);
+            return false;
         }
     }
 
@@ -164,16 +165,16 @@ public class GoApplication extends Application {
         gameRoot = new BorderPane();
         gameRoot.setStyle("-fx-background-color: #333333;");
 
-        VBox sidePanel = new VBox(10);
+        sidePanel = new VBox(10);
         sidePanel.setPadding(new Insets(10));
         sidePanel.setStyle("-fx-background-color: #DDDDDD;");
         sidePanel.setPrefWidth(250);
         sidePanel.setMinWidth(250);
 
-        messageArea = new TextArea();
-        messageArea.setEditable(false);
-        messageArea.setWrapText(true);
-        messageArea.setPrefHeight(400);
+        logBuffer = new LogBuffer();
+        logView = new ListView<>(logBuffer);
+        logView.setFixedCellSize(20);
+        logView.setPrefHeight(400);
 
         Button btnPass = new Button("PAS");
         btnPass.setMaxWidth(Double.MAX_VALUE);
@@ -187,7 +188,7 @@ public class GoApplication extends Application {
         btnResume.setMaxWidth(Double.MAX_VALUE);
         btnResume.setOnAction(e -> client.sendResume());
 
-        sidePanel.getChildren().addAll(new Label("Log gry:"), messageArea, btnPass, btnSurrender, btnResume, new Separator());
+        sidePanel.getChildren().addAll(new Label("Log gry:"), logView, btnPass, btnSurrender, btnResume, new Separator());
         gameRoot.setRight(sidePanel);
 
         Label loading = new Label("Oczekiwanie na dane planszy...");
@@ -203,128 +204,77 @@ public class GoApplication extends Application {
         });
     }
 
-    public void updateBoard(String boardData) {
-        Platform.runLater(() -> {
-            String[] fields = boardData.split(";");
-            int totalFields = fields.length;
-            int calculatedSize = (int) Math.sqrt(totalFields);
-
-            if (calculatedSize != currentBoardSize || boardPane == null) {
-                currentBoardSize = calculatedSize;
-                createBoardView(currentBoardSize);
-
-                StackPane boardContainer = new StackPane(boardPane);
-                boardContainer.setPadding(new Insets(20));
-                boardContainer.setStyle("-fx-background-color: #333333;");
-
-                ScrollPane scrollPane = new ScrollPane(boardContainer);
-                scrollPane.setFitToWidth(true);
-                scrollPane.setFitToHeight(true);
-                scrollPane.setStyle("-fx-background: #333333; -fx-border-color: #333333;");
-
-                gameRoot.setCenter(scrollPane);
-            }
-
-            for (int i = 0; i < totalFields; i++) {
-                int x = i % currentBoardSize;
-                int y = i / currentBoardSize;
-
-                String field = fields[i];
-                Circle stone = stones[x][y];
-
-                if ("BLACK".equals(field)) {
-                    stone.setFill(Color.BLACK);
-                    stone.setStroke(Color.BLACK);
-                } else if ("WHITE".equals(field)) {
-                    stone.setFill(Color.WHITE);
-                    stone.setStroke(Color.BLACK);
-                } else {
-                    stone.setFill(Color.TRANSPARENT);
-                    stone.setStroke(Color.TRANSPARENT);
-                }
-            }
-        });
+    /**
+     * Shows a board frame already decoded and diffed off the UI thread; only changed cells are drawn.
+     */
+    @Override
+    public void updateBoard(BoardFrame.Diff diff) {
+        if (diff.isResized()) boardCanvas = null;
+        ensureBoard(diff.getSize());
+        boardCanvas.apply(diff);
     }
 
-    private void createBoardView(int size) {
-        boardPane = new Pane();
+    private void ensureBoard(int size) {
+        if (boardCanvas != null && boardCanvas.getBoardSize() == size) return;
 
-        int boardPixelSize = (size + 1) * CELL_SIZE;
+        boardCanvas = new BoardCanvas(size, CELL_SIZE, (x, y) -> client.sendMove(x, y));
+        boardCanvas.setStyle("-fx-effect: dropshadow(three-pass-box, rgba(0,0,0,0.5), 10, 0, 0, 0);");
 
-        boardPane.setPrefSize(boardPixelSize, boardPixelSize);
-        boardPane.setMinSize(boardPixelSize, boardPixelSize);
-        boardPane.setStyle("-fx-background-color: #DCB35C; -fx-effect: dropshadow(three-pass-box, rgba(0,0,0,0.5), 10, 0, 0, 0);");
+        StackPane boardContainer = new StackPane(boardCanvas);
+        boardContainer.setPadding(new Insets(20));
+        boardContainer.setStyle("-fx-background-color: #333333;");
 
-        stones = new Circle[size][size];
+        ScrollPane scrollPane = new ScrollPane(boardContainer);
+        scrollPane.setFitToWidth(true);
+        scrollPane.setFitToHeight(true);
+        scrollPane.setStyle("-fx-background: #333333; -fx-border-color: #333333;");
 
-        for (int i = 0; i < size; i++) {
-            double offset = CELL_SIZE;
-
-            Line vLine = new Line(
-                    offset + i * CELL_SIZE, offset,
-                    offset + i * CELL_SIZE, offset + (size - 1) * CELL_SIZE
-            );
-            Line hLine = new Line(
-                    offset, offset + i * CELL_SIZE,
-                    offset + (size - 1) * CELL_SIZE, offset + i * CELL_SIZE
-            );
-            boardPane.getChildren().addAll(vLine, hLine);
-        }
+        gameRoot.setCenter(scrollPane);
+    }
 
-        drawHoshi(size);
-
-        for (int x = 0; x < size; x++) {
-            for (int y = 0; y < size; y++) {
-                Circle stone = new Circle(CELL_SIZE / 2.2);
-                stone.setCenterX(CELL_SIZE + x * CELL_SIZE);
-                stone.setCenterY(CELL_SIZE + y * CELL_SIZE);
-                stone.setFill(Color.TRANSPARENT);
-                stone.setStroke(Color.TRANSPARENT);
-
-                final int finalX = x;
-                final int finalY = y;
-                stone.setOnMouseClicked(e -> client.sendMove(finalX, finalY));
-
-                stone.setOnMouseEntered(e -> {
-                    if (stone.getFill() == Color.TRANSPARENT) {
-                        stone.setStroke(Color.GRAY);
-                        stone.setStrokeWidth(2);
-                    }
-                });
-                stone.setOnMouseExited(e -> {
-                    if (stone.getFill() == Color.TRANSPARENT) {
-                        stone.setStroke(Color.TRANSPARENT);
-                    }
-                });
-
-                stones[x][y] = stone;
-                boardPane.getChildren().add(stone);
-            }
-        }
+    /**
+     * Shows a game fetched with MOVELIST and lets the user scrub through it with a slider;
+     * every position is rebuilt locally, nothing more is asked from the server.
+     */
+    public void showReplay(LocalReplay loaded) {
+        this.replay = loaded;
+        boardCanvas = null;
+        ensureBoard(loaded.getBoardSize());
+
+        Label moveLabel = new Label();
+        Slider slider = new Slider(0, loaded.getMoveCount(), 0);
+        slider.setBlockIncrement(1);
+        slider.setMajorTickUnit(1);
+        slider.setSnapToTicks(true);
+        slider.valueProperty().addListener((obs, oldValue, value) ->
+                showReplayMove((int) Math.round(value.doubleValue()), moveLabel));
+
+        Button back = new Button("<");
+        back.setOnAction(e -> slider.setValue(Math.max(0, replay.getCurrentMove() - 1)));
+        Button forward = new Button(">");
+        forward.setOnAction(e -> slider.setValue(Math.min(replay.getMoveCount(), replay.getCurrentMove() + 1)));
+
+        HBox steps = new HBox(10, back, forward, moveLabel);
+        steps.setAlignment(Pos.CENTER_LEFT);
+        sidePanel.getChildren().addAll(new Label("Powtórka gry " + loaded.getGameId() + ":"), slider, steps);
+        showReplayMove(0, moveLabel);
     }
 
-    private void drawHoshi(int size) {
-        if (size == 19 || size == 13 || size == 9) {
-            int[] points;
-            if (size == 19) points = new int[]{3, 9, 15};
-            else if (size == 13) points = new int[]{3, 6, 9};
-            else points = new int[]{2, 6};
-
-            for (int i : points) {
-                for (int j : points) {
-                    Circle dot = new Circle(CELL_SIZE + i * CELL_SIZE, CELL_SIZE + j * CELL_SIZE, 3);
-                    dot.setFill(Color.BLACK);
-                    boardPane.getChildren().add(dot);
-                }
-            }
-        }
+    private void showReplayMove(int move, Label moveLabel) {
+        boardCanvas.showPosition(replay.seek(move));
+        MoveRecord last = replay.getLastMove();
+        String lastText = last == null ? "" : " (" + last.getColor() + " " + ("MOVE".equals(last.getType())
+                ? last.getX() + "," + last.getY() : last.getType()) + ")";
+        moveLabel.setText("Ruch " + replay.getCurrentMove() + " / " + replay.getMoveCount() + lastText);
     }
 
-    public void appendLog(String message) {
-        Platform.runLater(() -> {
-            messageArea.appendText(message + "\n");
-            messageArea.setScrollTop(Double.MAX_VALUE);
-        });
+    /**
+     * Appends a batch of log lines to the bounded log; the list view only renders the visible rows.
+     */
+    @Override
+    public void appendLog(List<String> lines) {
+        logBuffer.append(lines);
+        logView.scrollTo(logBuffer.size() - 1);
     }
 
     private int parsePort(String text) {
@@ -1,25 +1,24 @@
 package com.example;
 
-import java.io.BufferedReader;
-import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.PrintWriter;
-import java.net.Socket;
-
 import javafx.application.Platform;
 
+import java.io.IOException;
+
 /**
- * Handles network communication on the client side.
- * Runs a background thread to listen for server updates and redirects them to the GUI.
+ * JavaFX adapter over the headless {@link GoProtocolClient}.
+ * Server events are handed to the GUI through a {@link UiDispatcher}, merged per UI pulse;
+ * the player's own moves are predicted locally so they show up without waiting for the server.
  */
-public class GoClient {
-    private Socket socket;
-    private PrintWriter out;
-    private BufferedReader in;
-    private GoApplication gui;
+public class GoClient implements GoClientListener {
+    private final GoProtocolClient protocol;
+    private final UiDispatcher ui;
+    private final GoApplication gui;
 
     public GoClient(GoApplication gui) {
         this.gui = gui;
+        this.ui = new UiDispatcher(gui);
+        this.protocol = new GoProtocolClient(this);
+        this.protocol.setPredictionEnabled(true);
     }
     /**
      * Establishes a socket connection to the game server.
@@ -28,62 +27,55 @@ public class GoClient {
      * @throws IOException If the connection fails.
      */
     public void connect(String ip, int port) throws IOException {
-        this.socket = new Socket(ip, port);
-        this.out = new PrintWriter(socket.getOutputStream(), true);
-        this.in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+        protocol.connect(ip, port);
+    }
 
-        new Thread(this::listenForServer).start();
+    @Override
+    public void onBoard(BoardFrame.Diff diff) {
+        if (!diff.isEmpty()) ui.postBoard(diff);
     }
+
+    @Override
+    public void onMessage(String text) {
+        ui.postLog(text);
+    }
+
     /**
-     * A background loop that listens for incoming messages from the server.
-     * It processes different types of server commands:
-     * - BOARD: Triggers a graphical board update.
-     * - MESSAGE: Appends a system or game message to the chat log.
-     * Updates are wrapped in Platform.runLater to ensure thread safety with JavaFX.
+     * The move list is decoded and checkpointed here, on the connection thread; the GUI gets a ready replay.
      */
-    private void listenForServer() {
-        try {
-            String response;
-            while ((response = in.readLine()) != null) {
-                String finalResponse = response;
+    @Override
+    public void onMoveList(long gameId, byte[] blob) {
+        LocalReplay replay = new LocalReplay(gameId, blob);
+        Platform.runLater(() -> gui.showReplay(replay));
+    }
 
-                Platform.runLater(() -> {
-                    if (finalResponse.startsWith("BOARD")) {
-                        String boardData = finalResponse.substring(6);
-                        gui.updateBoard(boardData);
-                    } else if (finalResponse.startsWith("MESSAGE")) {
-                        gui.appendLog(finalResponse.substring(8));
-                    } else {
-                        gui.appendLog(finalResponse);
-                    }
-                });
-            }
-        } catch (IOException e) {
-            Platform.runLater(() -> gui.appendLog("Rozłączono z serwerem."));
-        }
+    @Override
+    public void onDisconnected(Exception cause) {
+        ui.postLog("Rozłączono z serwerem.");
     }
     /**
      * Sends a move request to the server with the specified coordinates.
-     * The message is formatted as "MOVE x y".
+     * The message is formatted as "MOVE x y". While the user plays, the move is first checked and shown
+     * locally; an illegal move is reported without contacting the server.
      * @param x The X-coordinate on the board.
      * @param y The Y-coordinate on the board.
      */
     public void sendMove(int x, int y) {
-        if (out != null) out.println("MOVE " + x + " " + y);
+        protocol.sendMove(x, y);
     }
     /**
      * Sends a "PASS" command to the server, indicating the player
      * chooses to skip their current turn.
      */
     public void sendPass() {
-        if (out != null) out.println("PASS");
+        protocol.sendPass();
     }
     /**
      * Sends a "SURRENDER" command to the server, effectively
      * conceding the game to the opponent.
      */
     public void sendSurrender() {
-        if (out != null) out.println("SURRENDER");
+        protocol.sendSurrender();
     }
     /**
      * Sends a "RESUME" command to the server.
@@ -91,17 +83,21 @@ public class GoClient {
      * wish to continue playing (e.g., during a dispute over dead stones).
      */
     public void sendResume() {
-        if (out != null) out.println("RESUME");
+        protocol.sendResume();
     }
     /**
      * Sends a "QUIT" command to the server to signal that the player
      * is leaving the game session.
      */
     public void sendQuit() {
-        if (out != null) out.println("QUIT");
+        protocol.send("QUIT");
+    }
+
+    public void requestMoveList(long gameId) {
+        protocol.requestMoveList(gameId);
     }
 
     public void sendMessage(String msg) {
-        if (out != null) out.println(msg);
+        protocol.send(msg);
     }
-}
\ No newline at end of file
+}
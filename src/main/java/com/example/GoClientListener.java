@@ -0,0 +1,54 @@
+package com.example;
+
+/**
+ * Receives decoded server events from a {@link GoProtocolClient}.
+ * Callbacks run on the client's reader thread (a locally rejected prediction is reported on the thread
+ * that sent the move), so implementations must hand work to their own thread if they need one.
+ * Every method has an empty default; implement only what the client cares about.
+ */
+public interface GoClientListener {
+
+    /**
+     * A BOARD frame, as the cells that changed since the previous one (empty if nothing changed).
+     */
+    default void onBoard(BoardFrame.Diff diff) { }
+
+    /**
+     * Any text meant for the user: MESSAGE lines without the prefix and other plain lines.
+     * Called in addition to the typed callbacks below.
+     */
+    default void onMessage(String text) { }
+
+    default void onGameId(long gameId) { }
+
+    default void onColor(StoneColor color) { }
+
+    /**
+     * "SEQ n turn": number of accepted moves and passes and the colour to move.
+     */
+    default void onSequence(int sequence, StoneColor turn) { }
+
+    /**
+     * It is this player's turn; opponentPassed if the opponent has just passed.
+     */
+    default void onTurn(boolean opponentPassed) { }
+
+    /**
+     * A move or command was refused, by the server or (with prediction) locally.
+     */
+    default void onRejected(String reason) { }
+
+    default void onGameOver(String message) { }
+
+    default void onReplayFinished() { }
+
+    /**
+     * "MOVELIST id blob": a whole game in MoveCodec form, e.g. for a {@link LocalReplay}.
+     */
+    default void onMoveList(long gameId, byte[] blob) { }
+
+    /**
+     * The connection is closed; cause is null after {@link GoProtocolClient#close()}.
+     */
+    default void onDisconnected(Exception cause) { }
+}
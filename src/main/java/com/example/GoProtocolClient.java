@@ -0,0 +1,223 @@
+package com.example;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Headless client for the text protocol, with no dependency on JavaFX.
+ * One reader thread per connection decodes the server's lines (BOARD frames are diffed with a
+ * {@link BoardFrame}) and reports them to a {@link GoClientListener}; the send methods can be called
+ * from any thread. Used by the JavaFX {@link GoClient}, the terminal client and the {@link LoadGenerator}.
+ * With prediction enabled the player's own moves are checked and shown locally first ({@link MovePrediction}).
+ */
+public class GoProtocolClient {
+    private static final long READER_STACK_SIZE = 256 * 1024;
+
+    private final GoClientListener listener;
+    private final BoardFrame frame = new BoardFrame();
+    private final MovePrediction prediction = new MovePrediction();
+    private boolean predictionEnabled = false;
+    private int readTimeoutMillis = 0;
+
+    private Socket socket;
+    private PrintWriter out;
+    private volatile boolean closed = false;
+
+    public GoProtocolClient(GoClientListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Shows the player's own moves before the server confirms them. Set before connecting.
+     */
+    public void setPredictionEnabled(boolean enabled) {
+        this.predictionEnabled = enabled;
+    }
+
+    /**
+     * Closes the connection if the server sends nothing for this long (0 = wait forever). Set before connecting.
+     */
+    public void setReadTimeout(int millis) {
+        this.readTimeoutMillis = millis;
+    }
+
+    /**
+     * Connects and starts the reader thread.
+     * @throws IOException if the connection fails
+     */
+    public void connect(String host, int port) throws IOException {
+        socket = new Socket(host, port);
+        socket.setTcpNoDelay(true);
+        socket.setSoTimeout(readTimeoutMillis);
+        out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.UTF_8);
+        BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+
+        Thread reader = new Thread(null, () -> readLoop(in), "go-client-" + port, READER_STACK_SIZE);
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    private void readLoop(BufferedReader in) {
+        Exception cause = null;
+        try {
+            String line;
+            while ((line = in.readLine()) != null) {
+                try {
+                    dispatch(line);
+                } catch (IllegalArgumentException e) {
+                    listener.onMessage("Niepoprawna wiadomość serwera: " + e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            if (!closed) cause = e;
+        } finally {
+            closeQuietly();
+            listener.onDisconnected(cause);
+        }
+    }
+
+    private void dispatch(String line) {
+        if (line.startsWith("BOARD")) {
+            if (predictionEnabled && prediction.isActive()) {
+                synchronized (frame) {
+                    prediction.onServerBoard(frame.decode(line, 6), frame.getSize());
+                    listener.onBoard(frame.publish());
+                }
+            } else {
+                showBoard(line, 6);
+            }
+            return;
+        }
+        if (line.startsWith("MOVELIST ")) {
+            String[] parts = line.split(" ");
+            listener.onMoveList(Long.parseLong(parts[1]), Base64.getDecoder().decode(parts[2]));
+            return;
+        }
+        if (line.startsWith("SEQ ")) {
+            String[] parts = line.split(" ");
+            int sequence = Integer.parseInt(parts[1]);
+            StoneColor turn = StoneColor.valueOf(parts[2]);
+            boolean rolledBack = prediction.onSequence(sequence, turn);
+            if (predictionEnabled && rolledBack) showPrediction();
+            listener.onSequence(sequence, turn);
+            return;
+        }
+
+        String text = line.startsWith("MESSAGE") ? line.substring(Math.min(8, line.length())) : line;
+        listener.onMessage(text);
+
+        if (text.startsWith("ID gry: ")) {
+            String id = text.substring(8).trim();
+            if (!"null".equals(id)) listener.onGameId(Long.parseLong(id));   // "null" when the game is not persisted
+        } else if (text.startsWith("Twój kolor to: ")) {
+            StoneColor color = StoneColor.valueOf(text.substring(15).trim());
+            prediction.setColor(color);
+            listener.onColor(color);
+        } else if (text.startsWith("Twój ruch")) {
+            listener.onTurn(false);
+        } else if (text.startsWith("Przeciwnik spasował")) {
+            listener.onTurn(true);
+        } else if (text.startsWith("Błąd") || text.startsWith("To nie jest Twój ruch")) {
+            listener.onRejected(text);
+        } else if (text.contains("KONIEC GRY") || text.contains("poddał się")) {
+            listener.onGameOver(text);
+        } else if (text.contains("Koniec powtórki")) {
+            listener.onReplayFinished();
+        }
+    }
+
+    /**
+     * Diffs a board against the last one delivered; called from the reader and from sendMove.
+     */
+    private void showBoard(String cells, int from) {
+        synchronized (frame) {
+            listener.onBoard(frame.update(cells, from));
+        }
+    }
+
+    /**
+     * Shows the locally predicted (or rolled back) board, diffed like a server frame.
+     */
+    private void showPrediction() {
+        synchronized (frame) {
+            prediction.copyTo(frame.edit());
+            listener.onBoard(frame.publish());
+        }
+    }
+
+    /**
+     * Sends "MOVE x y". With prediction, an illegal move is reported to onRejected without contacting the
+     * server, and a legal one is shown through onBoard right away.
+     */
+    public void sendMove(int x, int y) {
+        if (out == null) return;
+        if (predictionEnabled && prediction.isActive()) {
+            String rejection = prediction.predict(x, y);
+            if (rejection != null) {
+                listener.onMessage(rejection);
+                listener.onRejected(rejection);
+                return;
+            }
+            showPrediction();
+        }
+        out.println("MOVE " + x + " " + y);
+    }
+
+    public void sendPass() {
+        send("PASS");
+    }
+
+    public void sendSurrender() {
+        send("SURRENDER");
+    }
+
+    public void sendResume() {
+        send("RESUME");
+    }
+
+    public void play() {
+        send("PLAY");
+    }
+
+    public void watch(long gameId) {
+        send("WATCH " + gameId);
+    }
+
+    public void replay(long gameId) {
+        send("REPLAY " + gameId);
+    }
+
+    /**
+     * Asks for the whole game as one MOVELIST line, answered through onMoveList.
+     */
+    public void requestMoveList(long gameId) {
+        send("MOVELIST " + gameId);
+    }
+
+    /**
+     * Sends a raw protocol line.
+     */
+    public void send(String line) {
+        if (out != null) out.println(line);
+    }
+
+    /**
+     * Closes the connection; the reader thread then reports onDisconnected(null).
+     */
+    public void close() {
+        closed = true;
+        closeQuietly();
+    }
+
+    private void closeQuietly() {
+        try {
+            if (socket != null) socket.close();
+        } catch (IOException ignored) {
+        }
+    }
+}
@@ -7,6 +7,8 @@ import org.springframework.context.ConfigurableApplicationContext;
 import java.io.IOException;
 import java.net.ServerSocket;
 import java.net.Socket;
+import java.util.HashSet;
+import java.util.Set;
 
 @SpringBootApplication
 public class GoServer {
@@ -15,73 +17,189 @@ public class GoServer {
     private ServerSocket serverSocket;
     private boolean isRunning;
     private GameService gameService;
+    private ArchiveAnalytics analytics;
+    private PositionIndex positionIndex;
+    private final GameRegistry registry = new GameRegistry();
 
-    public GoServer() {}
+    private int lobbyBoardSize = 19;
+    private ClientHandler waitingPlayer;
+    private final Set<ClientHandler> pairing = new HashSet<>();
 
-    public static GoServer getInstance() {
+    public GoServer() {
+        ServerMetrics.get().gauge("go_active_games", "Games currently held by the server", registry::size);
+        ServerMetrics.get().gauge("go_game_memory_bytes", "Estimated heap held by the games in memory", registry::estimateFootprint);
+    }
+
+    public static synchronized GoServer getInstance() {
         if (instance == null) {
             instance = new GoServer();
         }
         return instance;
     }
 
-    public void start(int port, int size, boolean playWithBot) {
+    /**
+     * Runs a headless multi-game server: java com.example.GoServer [port] [boardSize].
+     */
+    public static void main(String[] args) {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+        int size = args.length > 1 ? Integer.parseInt(args[1]) : 19;
+        getInstance().startLobby(port, size);
+    }
+
+    private void initServices() {
         if (springContext == null) {
             springContext = SpringApplication.run(GoServer.class);
         }
         this.gameService = springContext.getBean(GameService.class);
+        gameService.setPersistenceFailureListener(gameId -> {
+            Game game = registry.get(gameId);
+            if (game != null) game.submit(game::processPersistenceFailure);
+        });
+        this.analytics = springContext.getBean(ArchiveAnalytics.class);
+        this.positionIndex = springContext.getBean(PositionIndex.class);
+        GameRecovery recovery = springContext.getBean(GameRecovery.class);
+        if (registry.size() == 0) {
+            recovery.recoverAll(registry);
+        }
+        registry.setLoader(recovery::reload);
+        springContext.getBean(GameEvictor.class).start(registry);
+        ServerMetrics.get().start(Integer.getInteger("go.metrics.port", 9464));
+    }
+
+    public void start(int port, int size, boolean playWithBot) {
+        initServices();
 
         new Thread(() -> {
             try {
                 serverSocket = new ServerSocket(port);
                 isRunning = true;
-                System.out.println("SERWER START: Port " + port + ", Rozmiar " + size);
+                EventLog.info("SERWER START: Port {}, Rozmiar {}", port, size);
                 
                 Game game = new Game(size);
                 game.setGameService(gameService);
+                registry.register(game);
 
-                System.out.println("Oczekiwanie na Gracza 1 (Czarne)...");
+                EventLog.info("Oczekiwanie na Gracza 1 (Czarne)...");
                 Socket socket1 = serverSocket.accept();
-                System.out.println("Gracz 1 połączony.");
+                EventLog.info("Gracz 1 połączony.");
                 ClientHandler player1 = new ClientHandler(socket1, game, StoneColor.BLACK);
                 game.addPlayer(player1);
                 new Thread(player1).start();
 
                 if (playWithBot) {
-                    System.out.println("Dodawanie Bota (Białe)...");
+                    EventLog.info("Dodawanie Bota (Białe)...");
                     BotPlayer bot = new BotPlayer(game, StoneColor.WHITE);
                     game.addPlayer(bot);
                     new Thread(bot).start();
                 } else {
-                    System.out.println("Oczekiwanie na Gracza 2 (Białe)...");
+                    EventLog.info("Oczekiwanie na Gracza 2 (Białe)...");
                     Socket socket2 = serverSocket.accept();
-                    System.out.println("Gracz 2 połączony.");
+                    EventLog.info("Gracz 2 połączony.");
                     ClientHandler player2 = new ClientHandler(socket2, game, StoneColor.WHITE);
                     game.addPlayer(player2);
                     new Thread(player2).start();
                 }
 
-                System.out.println("Gra rozpoczęta. Serwer nasłuchuje teraz widzów/replay...");
+                EventLog.info("Gra rozpoczęta. Serwer nasłuchuje teraz widzów/replay...");
 
                 while (isRunning) {
                     try {
                         Socket spectatorSocket = serverSocket.accept();
-                        System.out.println("Nowe połączenie (Widz/Replay).");
+                        EventLog.info("Nowe połączenie (Widz/Replay).");
                         
-                        ClientHandler spectator = new ClientHandler(spectatorSocket, game, StoneColor.EMPTY);
+                        ClientHandler spectator = new ClientHandler(spectatorSocket);
+                        spectator.spectate(game);
                         new Thread(spectator).start();
                         
                     } catch (IOException e) {
-                        if (isRunning) System.err.println("Błąd połączenia z widzem: " + e.getMessage());
+                        if (isRunning) EventLog.warn("Błąd połączenia z widzem: {}", e.getMessage());
                     }
                 }
 
             } catch (IOException e) {
-                System.err.println("Krytyczny błąd serwera: " + e.getMessage());
+                EventLog.error("Krytyczny błąd serwera: {}", e.getMessage(), e);
             }
         }).start();
     }
 
+    /**
+     * Starts the server in lobby mode, hosting any number of games at once.
+     * Every connection first chooses PLAY (paired with the next waiting player),
+     * WATCH &lt;id&gt; or REPLAY &lt;id&gt;.
+     */
+    public void startLobby(int port, int size) {
+        initServices();
+        this.lobbyBoardSize = size;
+
+        new Thread(() -> {
+            try {
+                serverSocket = new ServerSocket(port, 1024);
+                isRunning = true;
+                EventLog.info("SERWER START (lobby): Port {}, Rozmiar {}", port, size);
+
+                while (isRunning) {
+                    try {
+                        Socket socket = serverSocket.accept();
+                        socket.setTcpNoDelay(true);
+                        new Thread(new ClientHandler(socket)).start();
+                    } catch (IOException e) {
+                        if (isRunning) EventLog.warn("Błąd połączenia: {}", e.getMessage());
+                    }
+                }
+            } catch (IOException e) {
+                EventLog.error("Krytyczny błąd serwera: {}", e.getMessage(), e);
+            }
+        }, "lobby-acceptor").start();
+    }
+
+    /**
+     * Pairs the client with the player waiting in the lobby, or makes it wait for the next one.
+     * Only the pairing holds the lobby lock; the game is created and persisted outside it,
+     * so other PLAY and leaveLobby calls do not wait for the database.
+     */
+    public void matchmake(ClientHandler client) {
+        ClientHandler black;
+        synchronized (this) {
+            if (pairing.contains(client)) {
+                return;
+            }
+            if (waitingPlayer == null || waitingPlayer == client) {
+                waitingPlayer = client;
+                client.sendMessage("MESSAGE Oczekiwanie na przeciwnika...");
+                return;
+            }
+            black = waitingPlayer;
+            waitingPlayer = null;
+            pairing.add(black);
+            pairing.add(client);
+        }
+
+        try {
+            Game game = new Game(lobbyBoardSize);
+            game.setGameService(gameService);
+            long gameId = registry.register(game);
+
+            game.addPlayer(black);
+            game.addPlayer(client);
+            black.joinGame(game, gameId, StoneColor.BLACK);
+            client.joinGame(game, gameId, StoneColor.WHITE);
+        } finally {
+            synchronized (this) {
+                pairing.remove(black);
+                pairing.remove(client);
+            }
+        }
+    }
+
+    /**
+     * Forgets a disconnected client that was still waiting for an opponent.
+     */
+    public synchronized void leaveLobby(ClientHandler client) {
+        if (waitingPlayer == client) {
+            waitingPlayer = null;
+        }
+    }
+
     public void stop() {
         isRunning = false;
         try {
@@ -89,11 +207,27 @@ public class GoServer {
                 serverSocket.close();
             }
         } catch (IOException e) {
-            e.printStackTrace();
+            EventLog.error("Błąd zamykania serwera", e);
         }
+        synchronized (this) {
+            waitingPlayer = null;
+        }
+        registry.clear();
     }
 
     public GameService getGameService() {
         return gameService;
     }
-}
\ No newline at end of file
+
+    public ArchiveAnalytics getAnalytics() {
+        return analytics;
+    }
+
+    public PositionIndex getPositionIndex() {
+        return positionIndex;
+    }
+
+    public GameRegistry getRegistry() {
+        return registry;
+    }
+}
@@ -0,0 +1,625 @@
+package com.example;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Append-only binary move journal.
+ * Moves are fixed-size records appended to preallocated segment files (journal-000000.seg, ...).
+ * Appenders only copy the record into an in-memory buffer; a commit thread writes everything
+ * that accumulated with one FileChannel write and one force (group commit). Replays read the
+ * segments through read-only memory mappings, using a per-game index of record numbers that is
+ * rebuilt by scanning the segments on startup.
+ *
+ * Record layout (16 bytes, big endian): game id (8), move number (4),
+ * packed coordinate (2, x &lt;&lt; 8 | y, 0xFFFF for pass and surrender), colour (1), type (1).
+ * Type 0 never occurs in a written record, so the first zero type marks the end of the data.
+ *
+ * Board checkpoints go to checkpoints.dat in the same directory, written by the same commit
+ * thread after the moves they follow: game id (8), move number (4), length (2), packed board.
+ *
+ * Results of finished games go to results.dat, written by the commit thread before the group holding
+ * the game's finish record: game id (8), applied flag (1), result length (1), blob length (4, -1 for none),
+ * result, blob. The flag is set once the {@link ResultWriter} accepted the result, so a result whose finish
+ * record is durable but which never reached the database is handed to the writer again on startup.
+ */
+public class JournalMoveStore implements MoveStore, Closeable {
+    public static final int RECORD_SIZE = 16;
+    public static final long DEFAULT_SEGMENT_SIZE = 64L << 20;
+    public static final long DEFAULT_LINGER_MILLIS = 2;
+
+    private static final int BUFFER_RECORDS = 1 << 16;
+    private static final short NO_COORDINATE = (short) 0xFFFF;
+    private static final byte TYPE_MOVE = 1;
+    private static final byte TYPE_PASS = 2;
+    private static final byte TYPE_SURRENDER = 3;
+    private static final byte TYPE_FINISH = 4;
+    private static final int CHECKPOINT_HEADER = 14;
+    private static final int RESULT_HEADER = 14;
+
+    private static final LatencyHistogram COMMIT_TIME = ServerMetrics.get().histogram(
+            "go_journal_commit_seconds", "Time to write and force one journal group commit");
+    private static final LongAdder COMMITS = ServerMetrics.get().counter(
+            "go_journal_commits_total", "Journal group commits");
+    private static final LongAdder RECORDS = ServerMetrics.get().counter(
+            "go_journal_records_total", "Records written to the move journal");
+
+    private final Path directory;
+    private final long segmentSize;
+    private final long lingerMillis;
+    private final ResultWriter resultWriter;
+
+    private final List<FileChannel> channels = new ArrayList<>();
+    private final List<MappedByteBuffer> mappings = new CopyOnWriteArrayList<>();
+    private final Map<Long, RecordList> index = new ConcurrentHashMap<>();
+    private final Map<Long, List<Long>> checkpointIndex = new ConcurrentHashMap<>();
+    private final FileChannel checkpointChannel;
+    private long checkpointEnd;
+    // results written but not yet accepted by the result writer; only touched by the constructor and the committer
+    private final Map<Long, Long> unappliedResults = new HashMap<>();
+    private final FileChannel resultChannel;
+    private long resultEnd;
+    private final Thread committer;
+
+    // guarded by this
+    private ByteBuffer filling = ByteBuffer.allocate(BUFFER_RECORDS * RECORD_SIZE);
+    private ByteBuffer spare = ByteBuffer.allocate(BUFFER_RECORDS * RECORD_SIZE);
+    private long appendedPosition;
+    private long committedPosition;
+    private List<Checkpoint> pendingCheckpoints = new ArrayList<>();
+    private List<FinishedGame> pendingResults = new ArrayList<>();
+    private long appendedCheckpoints;
+    private long committedCheckpoints;
+    private boolean closed = false;
+
+    /**
+     * Receives the result of a finished game once its moves are durable.
+     */
+    public interface ResultWriter {
+        void write(long gameId, String result, byte[] moveBlob);
+    }
+
+    /**
+     * Result of a finished game waiting for the group that holds its finish record.
+     */
+    private static class FinishedGame {
+        final long gameId;
+        final String result;
+        final byte[] moveBlob;
+
+        FinishedGame(long gameId, String result, byte[] moveBlob) {
+            this.gameId = gameId;
+            this.result = result;
+            this.moveBlob = moveBlob;
+        }
+    }
+
+    /**
+     * Record numbers of one game's moves, in append order.
+     */
+    private static class RecordList {
+        private int[] records = new int[32];
+        private int size = 0;
+
+        synchronized void add(int record) {
+            if (size == records.length) {
+                records = Arrays.copyOf(records, size * 2);
+            }
+            records[size++] = record;
+        }
+
+        synchronized int[] snapshot() {
+            return Arrays.copyOf(records, size);
+        }
+    }
+
+    public JournalMoveStore(Path directory) throws IOException {
+        this(directory, DEFAULT_SEGMENT_SIZE, DEFAULT_LINGER_MILLIS, null);
+    }
+
+    /**
+     * Opens (or creates) the journal in the given directory and rebuilds the index from existing segments.
+     * @param lingerMillis how long the committer waits for more records before writing a group
+     * @param resultWriter receives game results once all their moves are durable; may be null
+     */
+    public JournalMoveStore(Path directory, long segmentSize, long lingerMillis,
+                            ResultWriter resultWriter) throws IOException {
+        if (segmentSize % RECORD_SIZE != 0 || segmentSize <= 0 || segmentSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Nieprawidłowy rozmiar segmentu: " + segmentSize);
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.lingerMillis = lingerMillis;
+        this.resultWriter = resultWriter;
+
+        Files.createDirectories(directory);
+        resultChannel = FileChannel.open(directory.resolve("results.dat"),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        recoverResults();
+        recover();
+        checkpointChannel = FileChannel.open(directory.resolve("checkpoints.dat"),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        recoverCheckpoints();
+
+        committer = new Thread(this::commitLoop, "journal-commit");
+        committer.setDaemon(true);
+        committer.start();
+    }
+
+    private Path segmentPath(int segment) {
+        return directory.resolve(String.format("journal-%06d.seg", segment));
+    }
+
+    /**
+     * Maps every existing segment and indexes its records; the first unused slot is where appending resumes.
+     */
+    private void recover() throws IOException {
+        long position = 0;
+        for (int segment = 0; Files.exists(segmentPath(segment)); segment++) {
+            MappedByteBuffer mapping = openSegment(segment);
+            int offset = 0;
+            while (offset < segmentSize && mapping.get(offset + RECORD_SIZE - 1) != 0) {
+                indexRecord(mapping, offset, (int) ((position + offset) / RECORD_SIZE));
+                offset += RECORD_SIZE;
+            }
+            position = (long) segment * segmentSize + offset;
+            if (offset < segmentSize) break;
+        }
+        appendedPosition = position;
+        committedPosition = position;
+        if (position > 0) {
+            EventLog.info("Dziennik ruchów: odtworzono {} rekordów, {} gier", position / RECORD_SIZE, index.size());
+        }
+    }
+
+    /**
+     * Collects the results not yet accepted by the result writer and cuts off a torn record left by a crash.
+     * Runs before the segments are scanned, so their finish records can apply these results.
+     */
+    private void recoverResults() throws IOException {
+        long size = resultChannel.size();
+        ByteBuffer header = ByteBuffer.allocate(RESULT_HEADER);
+        long offset = 0;
+        while (offset + RESULT_HEADER <= size) {
+            header.clear();
+            resultChannel.read(header, offset);
+            int length = RESULT_HEADER + (header.get(9) & 0xFF) + Math.max(header.getInt(10), 0);
+            if (offset + length > size) break;
+            if (header.get(8) == 0) {
+                unappliedResults.put(header.getLong(0), offset);
+            }
+            offset += length;
+        }
+        if (offset < size) {
+            resultChannel.truncate(offset);
+        }
+        resultEnd = offset;
+    }
+
+    /**
+     * Indexes complete checkpoint records and cuts off a torn one left by a crash.
+     */
+    private void recoverCheckpoints() throws IOException {
+        long size = checkpointChannel.size();
+        ByteBuffer header = ByteBuffer.allocate(CHECKPOINT_HEADER);
+        long offset = 0;
+        while (offset + CHECKPOINT_HEADER <= size) {
+            header.clear();
+            checkpointChannel.read(header, offset);
+            long gameId = header.getLong(0);
+            int length = header.getShort(12) & 0xFFFF;
+            if (offset + CHECKPOINT_HEADER + length > size) break;
+            checkpointIndex.computeIfAbsent(gameId, id -> new CopyOnWriteArrayList<>()).add(offset);
+            offset += CHECKPOINT_HEADER + length;
+        }
+        if (offset < size) {
+            checkpointChannel.truncate(offset);
+        }
+        checkpointEnd = offset;
+    }
+
+    private MappedByteBuffer openSegment(int segment) throws IOException {
+        FileChannel channel = FileChannel.open(segmentPath(segment),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (channel.size() < segmentSize) {
+            // preallocate (sparse) so the whole segment can be mapped once
+            channel.write(ByteBuffer.allocate(1), segmentSize - 1);
+        }
+        MappedByteBuffer mapping = channel.map(FileChannel.MapMode.READ_ONLY, 0, segmentSize);
+        channels.add(channel);
+        mappings.add(mapping);
+        return mapping;
+    }
+
+    private void indexRecord(ByteBuffer buffer, int offset, int recordNumber) {
+        long gameId = buffer.getLong(offset);
+        if (buffer.get(offset + RECORD_SIZE - 1) == TYPE_FINISH) {
+            applyResult(gameId);
+            return;
+        }
+        index.computeIfAbsent(gameId, id -> new RecordList()).add(recordNumber);
+    }
+
+    /**
+     * Hands the stored result of a game to the result writer and marks it applied.
+     * A result the writer rejects stays unapplied and is offered again on the next startup.
+     */
+    private void applyResult(long gameId) {
+        Long offset = unappliedResults.get(gameId);
+        if (offset == null || resultWriter == null) return;
+        try {
+            ByteBuffer header = ByteBuffer.allocate(RESULT_HEADER);
+            resultChannel.read(header, offset);
+            ByteBuffer result = ByteBuffer.allocate(header.get(9) & 0xFF);
+            resultChannel.read(result, offset + RESULT_HEADER);
+            byte[] moveBlob = null;
+            if (header.getInt(10) >= 0) {
+                ByteBuffer blob = ByteBuffer.allocate(header.getInt(10));
+                resultChannel.read(blob, offset + RESULT_HEADER + result.capacity());
+                moveBlob = blob.array();
+            }
+            resultWriter.write(gameId, new String(result.array(), StandardCharsets.UTF_8), moveBlob);
+            resultChannel.write(ByteBuffer.wrap(new byte[]{1}), offset + 8);
+            unappliedResults.remove(gameId);
+        } catch (IOException | RuntimeException e) {
+            EventLog.error("Dziennik ruchów: nie udało się zapisać wyniku gry {}", gameId, e);
+        }
+    }
+
+    @Override
+    public void appendMove(MoveRecord move) {
+        short coordinate = move.getX() < 0 ? NO_COORDINATE : (short) ((move.getX() << 8) | move.getY());
+        append(move.getGameId(), move.getMoveNumber(), coordinate, (byte) move.getColor().ordinal(), typeCode(move.getType()));
+    }
+
+    @Override
+    public synchronized void finishGame(long gameId, String result, byte[] moveBlob) {
+        // queued together with the finish record, so the commit thread takes both in the same group
+        append(gameId, 0, NO_COORDINATE, (byte) StoneColor.EMPTY.ordinal(), TYPE_FINISH);
+        pendingResults.add(new FinishedGame(gameId, result, moveBlob));
+    }
+
+    @Override
+    public synchronized void saveCheckpoint(Checkpoint checkpoint) {
+        if (closed) {
+            throw new IllegalStateException("Dziennik ruchów jest zamknięty");
+        }
+        pendingCheckpoints.add(checkpoint);
+        appendedCheckpoints++;
+        notifyAll();
+    }
+
+    /**
+     * Copies the record into the current group; blocks only while the group buffer is full.
+     */
+    private synchronized void append(long gameId, int moveNumber, short coordinate, byte color, byte type) {
+        while (!filling.hasRemaining() && !closed) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Przerwano zapis do dziennika ruchów", e);
+            }
+        }
+        if (closed) {
+            throw new IllegalStateException("Dziennik ruchów jest zamknięty");
+        }
+        filling.putLong(gameId).putInt(moveNumber).putShort(coordinate).put(color).put(type);
+        appendedPosition += RECORD_SIZE;
+        if (filling.position() == RECORD_SIZE || !filling.hasRemaining()) {
+            notifyAll();
+        }
+    }
+
+    @Override
+    public synchronized void flush() throws InterruptedException {
+        long target = appendedPosition;
+        long checkpointTarget = appendedCheckpoints;
+        notifyAll();
+        while (committedPosition < target || committedCheckpoints < checkpointTarget) {
+            wait();
+        }
+    }
+
+    private void commitLoop() {
+        while (true) {
+            ByteBuffer batch;
+            long position;
+            List<Checkpoint> checkpoints;
+            List<FinishedGame> results;
+            synchronized (this) {
+                try {
+                    while (filling.position() == 0 && pendingCheckpoints.isEmpty()) {
+                        if (closed) return;
+                        wait();
+                    }
+                    if (lingerMillis > 0 && filling.hasRemaining() && !closed) {
+                        wait(lingerMillis);
+                    }
+                } catch (InterruptedException e) {
+                    // close() wakes us up; whatever is buffered is still written below
+                }
+                batch = filling;
+                filling = spare;
+                spare = null;
+                position = committedPosition;
+                // every queued checkpoint follows moves that are already in this group or an earlier one
+                checkpoints = pendingCheckpoints;
+                pendingCheckpoints = new ArrayList<>();
+                results = pendingResults;
+                pendingResults = new ArrayList<>();
+            }
+
+            if (!results.isEmpty()) {
+                writeResults(results);
+            }
+            batch.flip();
+            long started = System.nanoTime();
+            writeDurably(batch, position);
+            COMMIT_TIME.recordValue(System.nanoTime() - started);
+            COMMITS.increment();
+            RECORDS.add(batch.limit() / RECORD_SIZE);
+
+            for (int offset = 0; offset < batch.limit(); offset += RECORD_SIZE) {
+                indexRecord(batch, offset, (int) ((position + offset) / RECORD_SIZE));
+            }
+
+            if (!checkpoints.isEmpty()) {
+                writeCheckpoints(checkpoints);
+            }
+
+            synchronized (this) {
+                committedPosition = position + batch.limit();
+                committedCheckpoints += checkpoints.size();
+                batch.clear();
+                spare = batch;
+                notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Writes the group at its journal position, crossing into a new segment if needed.
+     * I/O errors are retried: dropping a group would leave a hole in every later replay.
+     */
+    private void writeDurably(ByteBuffer batch, long position) {
+        while (true) {
+            try {
+                ByteBuffer remaining = batch.duplicate();
+                long at = position;
+                while (remaining.hasRemaining()) {
+                    int segment = (int) (at / segmentSize);
+                    long offset = at % segmentSize;
+                    if (segment == channels.size()) {
+                        openSegment(segment);
+                    }
+                    FileChannel channel = channels.get(segment);
+                    int chunk = (int) Math.min(remaining.remaining(), segmentSize - offset);
+                    ByteBuffer slice = remaining.slice();
+                    slice.limit(chunk);
+                    while (slice.hasRemaining()) {
+                        offset += channel.write(slice, offset);
+                    }
+                    channel.force(false);
+                    remaining.position(remaining.position() + chunk);
+                    at += chunk;
+                }
+                return;
+            } catch (IOException e) {
+                EventLog.error("Dziennik ruchów: błąd zapisu na pozycji {}, ponawiam", position, e);
+                try {
+                    Thread.sleep(1000);
+                } catch (InterruptedException ignored) {
+                    // retry immediately
+                }
+            }
+        }
+    }
+
+    /**
+     * Stores the results before the group with their finish records, so a durable finish record always has one.
+     */
+    private void writeResults(List<FinishedGame> results) {
+        List<byte[]> names = new ArrayList<>(results.size());
+        int bytes = 0;
+        for (FinishedGame finished : results) {
+            byte[] name = finished.result.getBytes(StandardCharsets.UTF_8);
+            names.add(name);
+            bytes += RESULT_HEADER + name.length + (finished.moveBlob == null ? 0 : finished.moveBlob.length);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(bytes);
+        long[] offsets = new long[results.size()];
+        for (int i = 0; i < offsets.length; i++) {
+            FinishedGame finished = results.get(i);
+            offsets[i] = resultEnd + buffer.position();
+            buffer.putLong(finished.gameId).put((byte) 0).put((byte) names.get(i).length)
+                    .putInt(finished.moveBlob == null ? -1 : finished.moveBlob.length).put(names.get(i));
+            if (finished.moveBlob != null) buffer.put(finished.moveBlob);
+        }
+        buffer.flip();
+
+        while (true) {
+            try {
+                long offset = resultEnd;
+                ByteBuffer remaining = buffer.duplicate();
+                while (remaining.hasRemaining()) {
+                    offset += resultChannel.write(remaining, offset);
+                }
+                resultChannel.force(false);
+                break;
+            } catch (IOException e) {
+                EventLog.error("Dziennik ruchów: błąd zapisu wyników, ponawiam", e);
+                try {
+                    Thread.sleep(1000);
+                } catch (InterruptedException ignored) {
+                    // retry immediately
+                }
+            }
+        }
+
+        for (int i = 0; i < offsets.length; i++) {
+            unappliedResults.put(results.get(i).gameId, offsets[i]);
+        }
+        resultEnd += bytes;
+    }
+
+    private void writeCheckpoints(List<Checkpoint> checkpoints) {
+        int bytes = 0;
+        for (Checkpoint checkpoint : checkpoints) {
+            bytes += CHECKPOINT_HEADER + checkpoint.getBoard().length;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(bytes);
+        long[] offsets = new long[checkpoints.size()];
+        for (int i = 0; i < offsets.length; i++) {
+            Checkpoint checkpoint = checkpoints.get(i);
+            offsets[i] = checkpointEnd + buffer.position();
+            buffer.putLong(checkpoint.getGameId()).putInt(checkpoint.getMoveNumber())
+                    .putShort((short) checkpoint.getBoard().length).put(checkpoint.getBoard());
+        }
+        buffer.flip();
+
+        while (true) {
+            try {
+                long offset = checkpointEnd;
+                ByteBuffer remaining = buffer.duplicate();
+                while (remaining.hasRemaining()) {
+                    offset += checkpointChannel.write(remaining, offset);
+                }
+                checkpointChannel.force(false);
+                break;
+            } catch (IOException e) {
+                EventLog.error("Dziennik ruchów: błąd zapisu punktów kontrolnych, ponawiam", e);
+                try {
+                    Thread.sleep(1000);
+                } catch (InterruptedException ignored) {
+                    // retry immediately
+                }
+            }
+        }
+
+        for (int i = 0; i < offsets.length; i++) {
+            checkpointIndex.computeIfAbsent(checkpoints.get(i).getGameId(), id -> new CopyOnWriteArrayList<>()).add(offsets[i]);
+        }
+        checkpointEnd += bytes;
+    }
+
+    @Override
+    public List<Checkpoint> loadCheckpoints(long gameId) {
+        List<Long> offsets = checkpointIndex.get(gameId);
+        List<Checkpoint> checkpoints = new ArrayList<>();
+        if (offsets == null) return checkpoints;
+
+        try {
+            ByteBuffer header = ByteBuffer.allocate(CHECKPOINT_HEADER);
+            for (long offset : offsets) {
+                header.clear();
+                checkpointChannel.read(header, offset);
+                ByteBuffer board = ByteBuffer.allocate(header.getShort(12) & 0xFFFF);
+                checkpointChannel.read(board, offset + CHECKPOINT_HEADER);
+                checkpoints.add(new Checkpoint(gameId, header.getInt(8), board.array()));
+            }
+        } catch (IOException e) {
+            EventLog.error("Dziennik ruchów: błąd odczytu punktów kontrolnych gry {}", gameId, e);
+        }
+        return checkpoints;
+    }
+
+    @Override
+    public List<MoveRecord> loadMoves(long gameId, int afterMove, int limit) {
+        RecordList records = index.get(gameId);
+        if (records == null) return new ArrayList<>();
+
+        int[] numbers = records.snapshot();
+        // records of a game are appended in move order, normally record i holds move i + 1
+        int start = Math.min(Math.max(afterMove, 0), numbers.length);
+        while (start > 0 && moveNumberOf(numbers[start - 1]) > afterMove) start--;
+        while (start < numbers.length && moveNumberOf(numbers[start]) <= afterMove) start++;
+
+        int end = Math.min(numbers.length, start + limit);
+        List<MoveRecord> moves = new ArrayList<>(end - start);
+        for (int i = start; i < end; i++) {
+            moves.add(readMove(gameId, numbers[i]));
+        }
+        return moves;
+    }
+
+    private int moveNumberOf(int record) {
+        long position = (long) record * RECORD_SIZE;
+        return mappings.get((int) (position / segmentSize)).getInt((int) (position % segmentSize) + 8);
+    }
+
+    private MoveRecord readMove(long gameId, int record) {
+        long position = (long) record * RECORD_SIZE;
+        ByteBuffer segment = mappings.get((int) (position / segmentSize));
+        int offset = (int) (position % segmentSize);
+
+        short coordinate = segment.getShort(offset + 12);
+        int x = coordinate == NO_COORDINATE ? -1 : (coordinate >> 8) & 0xFF;
+        int y = coordinate == NO_COORDINATE ? -1 : coordinate & 0xFF;
+        return new MoveRecord(gameId, segment.getInt(offset + 8), x, y,
+                StoneColor.values()[segment.get(offset + 14)], typeName(segment.get(offset + 15)));
+    }
+
+    /**
+     * Reads the whole game directly from the index, without paging.
+     */
+    @Override
+    public List<MoveRecord> loadMoves(long gameId) {
+        return loadMoves(gameId, 0, Integer.MAX_VALUE);
+    }
+
+    private static byte typeCode(String type) {
+        switch (type) {
+            case "MOVE": return TYPE_MOVE;
+            case "PASS": return TYPE_PASS;
+            case "SURRENDER": return TYPE_SURRENDER;
+            default: throw new IllegalArgumentException("Nieznany typ ruchu: " + type);
+        }
+    }
+
+    private static String typeName(byte code) {
+        switch (code) {
+            case TYPE_MOVE: return "MOVE";
+            case TYPE_PASS: return "PASS";
+            case TYPE_SURRENDER: return "SURRENDER";
+            default: throw new IllegalStateException("Uszkodzony rekord dziennika, typ " + code);
+        }
+    }
+
+    /**
+     * Writes out everything still buffered and closes the segment files.
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (closed) return;
+            closed = true;
+            notifyAll();
+        }
+        try {
+            committer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (FileChannel channel : channels) {
+            channel.close();
+        }
+        checkpointChannel.close();
+        resultChannel.close();
+    }
+}
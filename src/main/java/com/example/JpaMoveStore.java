@@ -0,0 +1,69 @@
+package com.example;
+
+import org.springframework.data.domain.PageRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongConsumer;
+
+/**
+ * Stores moves as rows of the moves table, written in batches by {@link MoveWriteBehind}.
+ */
+public class JpaMoveStore implements MoveStore {
+    private final MoveWriteBehind writeBehind;
+    private final MoveRepository moveRepository;
+    private final CheckpointRepository checkpointRepository;
+
+    public JpaMoveStore(MoveWriteBehind writeBehind, MoveRepository moveRepository,
+                        CheckpointRepository checkpointRepository) {
+        this.writeBehind = writeBehind;
+        this.moveRepository = moveRepository;
+        this.checkpointRepository = checkpointRepository;
+    }
+
+    @Override
+    public void appendMove(MoveRecord move) {
+        writeBehind.enqueueMove(move);
+    }
+
+    @Override
+    public void saveCheckpoint(Checkpoint checkpoint) {
+        writeBehind.enqueueCheckpoint(checkpoint);
+    }
+
+    @Override
+    public void finishGame(long gameId, String result, byte[] moveBlob) {
+        writeBehind.enqueueFinish(gameId, result, moveBlob);
+    }
+
+    @Override
+    public void flush() throws InterruptedException {
+        writeBehind.flush();
+    }
+
+    @Override
+    public void setFailureListener(LongConsumer listener) {
+        writeBehind.setFailureListener(listener);
+    }
+
+    @Override
+    public List<MoveRecord> loadMoves(long gameId, int afterMove, int limit) {
+        List<MoveEntity> entities = moveRepository.findByGameIdAndMoveNumberGreaterThanOrderByMoveNumberAsc(
+                gameId, afterMove, PageRequest.of(0, limit));
+        List<MoveRecord> moves = new ArrayList<>(entities.size());
+        for (MoveEntity e : entities) {
+            moves.add(new MoveRecord(gameId, e.getMoveNumber(), e.getX(), e.getY(), e.getColor(), e.getType()));
+        }
+        return moves;
+    }
+
+    @Override
+    public List<Checkpoint> loadCheckpoints(long gameId) {
+        List<CheckpointEntity> entities = checkpointRepository.findByGameIdOrderByMoveNumberAsc(gameId);
+        List<Checkpoint> checkpoints = new ArrayList<>(entities.size());
+        for (CheckpointEntity e : entities) {
+            checkpoints.add(new Checkpoint(gameId, e.getMoveNumber(), e.getBoard()));
+        }
+        return checkpoints;
+    }
+}
@@ -0,0 +1,425 @@
+package com.example;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Headless load generator and soak-test harness for the lobby server ({@link GoServer#startLobby}).
+ * Opens many simulated clients on the headless {@link GoProtocolClient}: pairs of players playing random
+ * legal games, spectators attached to live games and viewers requesting replays of finished ones.
+ * Clients are callback driven, so the only thread per client is its connection's reader.
+ * Reports moves/sec, end-to-end move latency percentiles and error counts.
+ *
+ * Usage: java com.example.LoadGenerator --port=8080 --games=500 --spectators=1000 --replays=20
+ *        --moves=150 --duration=120 [--host=localhost] [--size=19] [--embedded]
+ *
+ * With thousands of clients on one Linux box raise the open file limit (ulimit -n) first,
+ * since every simulated client holds one socket here and one on the server side. No display is needed.
+ */
+public class LoadGenerator {
+    private static final int SOCKET_TIMEOUT_MS = 30_000;
+    private static final int MAX_REJECTIONS_PER_TURN = 30;
+
+    private final String host;
+    private final int port;
+    private final int games;
+    private final int spectators;
+    private final int replays;
+    private final int movesPerGame;
+    private final long deadline;
+
+    private final LatencyHistogram moveLatency = new LatencyHistogram();
+    private final LongAdder movesPlayed = new LongAdder();
+    private final LongAdder rejectedMoves = new LongAdder();
+    private final LongAdder gamesFinished = new LongAdder();
+    private final LongAdder spectatorFrames = new LongAdder();
+    private final LongAdder replayFrames = new LongAdder();
+    private final LongAdder connectErrors = new LongAdder();
+    private final LongAdder protocolErrors = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+
+    private final List<Long> liveGameIds = new CopyOnWriteArrayList<>();
+    private final List<Long> finishedGameIds = new CopyOnWriteArrayList<>();
+
+    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2, runnable -> {
+        Thread thread = new Thread(runnable, "sim-scheduler");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public LoadGenerator(String host, int port, int games, int spectators, int replays, int movesPerGame, long durationSeconds) {
+        this.host = host;
+        this.port = port;
+        this.games = games;
+        this.spectators = spectators;
+        this.replays = replays;
+        this.movesPerGame = movesPerGame;
+        this.deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(durationSeconds);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        int port = Integer.parseInt(options.getOrDefault("port", "8080"));
+
+        if (options.containsKey("embedded")) {
+            GoServer.getInstance().startLobby(port, Integer.parseInt(options.getOrDefault("size", "19")));
+            Thread.sleep(2000);
+        }
+
+        LoadGenerator generator = new LoadGenerator(
+                options.getOrDefault("host", "localhost"),
+                port,
+                Integer.parseInt(options.getOrDefault("games", "100")),
+                Integer.parseInt(options.getOrDefault("spectators", "0")),
+                Integer.parseInt(options.getOrDefault("replays", "0")),
+                Integer.parseInt(options.getOrDefault("moves", "150")),
+                Long.parseLong(options.getOrDefault("duration", "60")));
+        generator.run(Integer.parseInt(options.getOrDefault("report", "5")));
+        System.exit(0);
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            String option = arg.startsWith("--") ? arg.substring(2) : arg;
+            int eq = option.indexOf('=');
+            if (eq < 0) options.put(option, "true");
+            else options.put(option.substring(0, eq), option.substring(eq + 1));
+        }
+        return options;
+    }
+
+    public void run(int reportIntervalSeconds) throws InterruptedException {
+        for (int i = 0; i < games * 2; i++) {
+            new SimulatedPlayer().start();
+        }
+        for (int i = 0; i < spectators; i++) {
+            new Spectator().start();
+        }
+        for (int i = 0; i < replays; i++) {
+            new ReplayViewer().start();
+        }
+
+        long start = System.nanoTime();
+        long lastMoves = 0;
+        while (System.nanoTime() < deadline) {
+            Thread.sleep(reportIntervalSeconds * 1000L);
+            long moves = movesPlayed.sum();
+            report("interval", (moves - lastMoves) / (double) reportIntervalSeconds);
+            lastMoves = moves;
+        }
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+        report("TOTAL", movesPlayed.sum() / elapsedSeconds);
+        scheduler.shutdownNow();
+    }
+
+    private void report(String label, double movesPerSecond) {
+        System.out.printf("[%s] moves/s=%.1f moves=%d games=%d latency ms p50=%.2f p90=%.2f p99=%.2f p99.9=%.2f max=%.2f"
+                        + " | rejected=%d connectErr=%d protocolErr=%d timeouts=%d | spectatorFrames=%d replayFrames=%d live=%d%n",
+                label, movesPerSecond, movesPlayed.sum(), gamesFinished.sum(),
+                millis(moveLatency.getValueAtPercentile(50)), millis(moveLatency.getValueAtPercentile(90)),
+                millis(moveLatency.getValueAtPercentile(99)), millis(moveLatency.getValueAtPercentile(99.9)),
+                millis(moveLatency.getMax()),
+                rejectedMoves.sum(), connectErrors.sum(), protocolErrors.sum(), timeouts.sum(),
+                spectatorFrames.sum(), replayFrames.sum(), liveGameIds.size());
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private boolean running() {
+        return System.nanoTime() < deadline;
+    }
+
+    /**
+     * Base of the simulated clients: one {@link GoProtocolClient} connection per session, driven entirely by
+     * its callbacks, and a new session when the previous one ends. No thread waits on a simulated client
+     * besides the connection's reader.
+     */
+    private abstract class SimulatedClient implements GoClientListener {
+        protected GoProtocolClient client;
+
+        void start() {
+            if (!running()) return;
+            client = new GoProtocolClient(this);
+            client.setReadTimeout(SOCKET_TIMEOUT_MS);
+            try {
+                client.connect(host, port);
+            } catch (IOException e) {
+                connectErrors.increment();
+                restartIn(1000);
+                return;
+            }
+            begin();
+        }
+
+        /** Sends the session's first command. */
+        abstract void begin();
+
+        /** Ends the session; onDisconnected then starts the next one. */
+        void finish() {
+            client.close();
+        }
+
+        void restartIn(long millis) {
+            if (!running()) return;
+            try {
+                scheduler.schedule(this::start, millis, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                // shutting down
+            }
+        }
+
+        @Override
+        public void onDisconnected(Exception cause) {
+            if (cause instanceof SocketTimeoutException) {
+                timeouts.increment();
+            } else if (cause != null) {
+                connectErrors.increment();
+            }
+            sessionEnded();
+            restartIn(cause == null || cause instanceof SocketTimeoutException ? 0 : 1000);
+        }
+
+        void sessionEnded() {
+        }
+    }
+
+    /**
+     * Plays games back to back: PLAY, random legal moves until the move budget is spent, then pass.
+     * Tracks occupancy from BOARD diffs and measures the time from sending MOVE to receiving the resulting board.
+     */
+    private class SimulatedPlayer extends SimulatedClient {
+        private StoneColor color;
+        private Long gameId;
+        private boolean[] occupied;
+        private int size;
+        private int movesMade;
+        private int rejectionsThisTurn;
+        private long moveSentAt;
+        private boolean opened;
+
+        @Override
+        void begin() {
+            color = null;
+            gameId = null;
+            occupied = null;
+            movesMade = 0;
+            rejectionsThisTurn = 0;
+            moveSentAt = 0;
+            opened = false;
+            client.play();
+        }
+
+        @Override
+        public void onGameId(long id) {
+            gameId = id;
+            liveGameIds.add(id);
+        }
+
+        @Override
+        public void onColor(StoneColor color) {
+            this.color = color;
+        }
+
+        @Override
+        public void onBoard(BoardFrame.Diff diff) {
+            if (diff.isResized() || occupied == null) {
+                size = diff.getSize();
+                occupied = new boolean[size * size];
+            }
+            for (int i = 0; i < diff.getChangedCount(); i++) {
+                occupied[diff.getCell(i)] = diff.getValue(i) != BoardFrame.EMPTY;
+            }
+
+            if (moveSentAt != 0) {
+                moveLatency.recordValue(System.nanoTime() - moveSentAt);
+                movesPlayed.increment();
+                moveSentAt = 0;
+            }
+            if (color == StoneColor.BLACK && !opened) {
+                opened = true;
+                play();
+            }
+        }
+
+        @Override
+        public void onTurn(boolean opponentPassed) {
+            if (!running()) {
+                finish();
+                return;
+            }
+            rejectionsThisTurn = 0;
+            if (opponentPassed && movesMade >= movesPerGame) {
+                client.sendPass();
+            } else {
+                play();
+            }
+        }
+
+        @Override
+        public void onRejected(String reason) {
+            if (reason.startsWith("To nie jest Twój ruch")) {
+                protocolErrors.increment();
+                return;
+            }
+            rejectedMoves.increment();
+            moveSentAt = 0;
+            movesMade--;
+            if (++rejectionsThisTurn > MAX_REJECTIONS_PER_TURN) {
+                client.sendPass();
+            } else {
+                play();
+            }
+        }
+
+        @Override
+        public void onGameOver(String message) {
+            if (color == StoneColor.BLACK) {
+                gamesFinished.increment();
+                if (gameId != null) finishedGameIds.add(gameId);
+            }
+            finish();
+        }
+
+        @Override
+        void sessionEnded() {
+            if (gameId != null) liveGameIds.remove(gameId);
+        }
+
+        private void play() {
+            if (occupied == null || movesMade >= movesPerGame) {
+                client.sendPass();
+                return;
+            }
+            int cell = randomEmptyCell();
+            if (cell < 0) {
+                client.sendPass();
+                return;
+            }
+            movesMade++;
+            moveSentAt = System.nanoTime();
+            client.sendMove(cell % size, cell / size);
+        }
+
+        private int randomEmptyCell() {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int attempt = 0; attempt < 16; attempt++) {
+                int cell = random.nextInt(occupied.length);
+                if (!occupied[cell]) return cell;
+            }
+            int start = random.nextInt(occupied.length);
+            for (int i = 0; i < occupied.length; i++) {
+                int cell = (start + i) % occupied.length;
+                if (!occupied[cell]) return cell;
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * Watches a random live game, switching to another one every few seconds.
+     */
+    private class Spectator extends SimulatedClient {
+        private ScheduledFuture<?> switching;
+
+        @Override
+        void start() {
+            if (liveGameIds.isEmpty()) {
+                restartIn(500);
+                return;
+            }
+            super.start();
+        }
+
+        @Override
+        void begin() {
+            switching = scheduler.scheduleWithFixedDelay(this::switchGame, 0, 10, TimeUnit.SECONDS);
+        }
+
+        private void switchGame() {
+            Long target = randomElement(liveGameIds);
+            if (target == null || !running()) {
+                finish();
+            } else {
+                client.watch(target);
+            }
+        }
+
+        @Override
+        public void onBoard(BoardFrame.Diff diff) {
+            spectatorFrames.increment();
+        }
+
+        @Override
+        public void onRejected(String reason) {
+            switchGame();
+        }
+
+        @Override
+        void sessionEnded() {
+            if (switching != null) switching.cancel(false);
+        }
+    }
+
+    /**
+     * Requests replays of finished games and reads them to the end.
+     */
+    private class ReplayViewer extends SimulatedClient {
+        private Long target;
+
+        @Override
+        void start() {
+            target = randomElement(finishedGameIds);
+            if (target == null) {
+                restartIn(1000);
+                return;
+            }
+            super.start();
+        }
+
+        @Override
+        void begin() {
+            client.replay(target);
+        }
+
+        @Override
+        public void onBoard(BoardFrame.Diff diff) {
+            replayFrames.increment();
+            if (!running()) finish();
+        }
+
+        @Override
+        public void onReplayFinished() {
+            finish();
+        }
+
+        @Override
+        public void onRejected(String reason) {
+            protocolErrors.increment();
+            finish();
+        }
+    }
+
+    private static Long randomElement(List<Long> ids) {
+        int size = ids.size();
+        if (size == 0) return null;
+        try {
+            return ids.get(ThreadLocalRandom.current().nextInt(size));
+        } catch (IndexOutOfBoundsException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.example;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A whole game held by the client (from a MOVELIST answer) so the user can scrub through it without
+ * any server traffic. Board checkpoints are packed every {@link #CHECKPOINT_INTERVAL} moves while the
+ * game is loaded; any position is then at most CHECKPOINT_INTERVAL - 1 moves away from one.
+ * Not thread-safe: used from the UI thread.
+ */
+public class LocalReplay {
+    public static final int CHECKPOINT_INTERVAL = 16;
+
+    private final long gameId;
+    private final int boardSize;
+    private final List<MoveRecord> moves;
+    private final List<byte[]> checkpoints = new ArrayList<>();   // index i = position after i * interval moves
+    private final Position position;
+    private int currentMove = 0;
+
+    public LocalReplay(long gameId, byte[] blob) {
+        this.gameId = gameId;
+        this.boardSize = MoveCodec.boardSize(blob);
+        this.moves = MoveCodec.decode(gameId, blob);
+        this.position = new Position(boardSize);
+
+        checkpoints.add(position.pack());
+        for (int i = 0; i < moves.size(); i++) {
+            position.apply(moves.get(i));
+            if ((i + 1) % CHECKPOINT_INTERVAL == 0) {
+                checkpoints.add(position.pack());
+            }
+        }
+        position.clear();
+    }
+
+    public long getGameId() {
+        return gameId;
+    }
+
+    public int getBoardSize() {
+        return boardSize;
+    }
+
+    public int getMoveCount() {
+        return moves.size();
+    }
+
+    public int getCurrentMove() {
+        return currentMove;
+    }
+
+    /**
+     * The last move played at the current position, or null at the start.
+     */
+    public MoveRecord getLastMove() {
+        return currentMove == 0 ? null : moves.get(currentMove - 1);
+    }
+
+    /**
+     * Moves to the position after {@code move} moves (clamped to the game) and returns it.
+     * Stepping forward applies the moves in between; anything else starts from the nearest checkpoint.
+     * The returned position is reused by the next call.
+     */
+    public Position seek(int move) {
+        int target = Math.max(0, Math.min(move, moves.size()));
+        int from = currentMove;
+        if (target < from || target - from >= CHECKPOINT_INTERVAL) {
+            int checkpoint = target / CHECKPOINT_INTERVAL;
+            position.restore(checkpoints.get(checkpoint));
+            from = checkpoint * CHECKPOINT_INTERVAL;
+        }
+        for (int i = from; i < target; i++) {
+            position.apply(moves.get(i));
+        }
+        currentMove = target;
+        return position;
+    }
+}
@@ -0,0 +1,71 @@
+package com.example;
+
+import javafx.collections.ObservableListBase;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fixed-capacity ring buffer of log lines exposed as an observable list, so a {@code ListView} can show
+ * it and render only the visible rows. Once full, every batch evicts the oldest lines; memory and the
+ * cost of an append stay constant however long the session runs.
+ * The capacity comes from go.client.logLines. Must be used from the JavaFX thread only.
+ */
+public class LogBuffer extends ObservableListBase<String> {
+    public static final int DEFAULT_CAPACITY = 2000;
+
+    private final String[] ring;
+    private int head = 0;   // index in ring of element 0
+    private int size = 0;
+
+    public LogBuffer() {
+        this(Math.max(1, Integer.getInteger("go.client.logLines", DEFAULT_CAPACITY)));
+    }
+
+    public LogBuffer(int capacity) {
+        this.ring = new String[capacity];
+    }
+
+    @Override
+    public String get(int index) {
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException(index);
+        return ring[(head + index) % ring.length];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    public int getCapacity() {
+        return ring.length;
+    }
+
+    /**
+     * Appends a batch as one list change: a removal of the evicted head (if any) and an add at the tail.
+     */
+    public void append(List<String> lines) {
+        int from = Math.max(0, lines.size() - ring.length);   // a batch larger than the buffer keeps its tail
+        int adding = lines.size() - from;
+        if (adding == 0) return;
+        int evicted = Math.max(0, size + adding - ring.length);
+
+        beginChange();
+        if (evicted > 0) {
+            List<String> removed = new ArrayList<>(evicted);
+            for (int i = 0; i < evicted; i++) {
+                removed.add(ring[head]);
+                ring[head] = null;
+                head = (head + 1) % ring.length;
+            }
+            size -= evicted;
+            nextRemove(0, removed);
+        }
+        for (int i = from; i < lines.size(); i++) {
+            ring[(head + size) % ring.length] = lines.get(i);
+            size++;
+        }
+        nextAdd(size - adding, size);
+        endChange();
+    }
+}
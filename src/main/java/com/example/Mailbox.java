@@ -0,0 +1,64 @@
+package com.example;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Ordered command queue of a single game (actor mailbox).
+ * Any thread may post commands; they are executed one at a time on a worker of the
+ * shared {@link GameExecutor}, so the game state is only ever touched by one thread.
+ */
+public class Mailbox {
+    private static final int MAX_BATCH = 64;
+
+    private final Queue<Command> commands = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean(false);
+    private final GameExecutor executor;
+
+    public Mailbox(GameExecutor executor) {
+        this.executor = executor;
+    }
+
+    public void post(Command command) {
+        commands.add(command);
+        scheduleIfIdle();
+    }
+
+    public void postDelayed(Command command, long delayMillis) {
+        executor.schedule(() -> post(command), delayMillis);
+    }
+
+    public int size() {
+        return commands.size();
+    }
+
+    private void scheduleIfIdle() {
+        if (scheduled.compareAndSet(false, true)) {
+            executor.execute(this::drain);
+        }
+    }
+
+    /**
+     * Processes a bounded batch and then yields the worker, so one busy game
+     * cannot starve the others sharing the pool.
+     */
+    private void drain() {
+        try {
+            for (int i = 0; i < MAX_BATCH; i++) {
+                Command command = commands.poll();
+                if (command == null) break;
+                try {
+                    command.execute();
+                } catch (RuntimeException e) {
+                    EventLog.error("Błąd podczas wykonywania komendy gry", e);
+                }
+            }
+        } finally {
+            scheduled.set(false);
+            if (!commands.isEmpty()) {
+                scheduleIfIdle();
+            }
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.example;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.ReflectionException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JMX view of {@link ServerMetrics}. Every counter and gauge becomes a Long attribute and every
+ * histogram a set of attributes (count, p50, p99, p999, max in microseconds), so the metrics
+ * can be browsed with jconsole or VisualVM without any extra agent.
+ */
+public class MetricsMBean implements DynamicMBean {
+    private final ServerMetrics metrics;
+
+    public MetricsMBean(ServerMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    private Map<String, Object> snapshot() {
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.putAll(metrics.counterValues());
+        values.putAll(metrics.gaugeValues());
+        metrics.histogramValues().forEach((name, h) -> {
+            values.put(name + "_count", h.getCount());
+            values.put(name + "_p50_us", h.getValueAtPercentile(50) / 1000.0);
+            values.put(name + "_p99_us", h.getValueAtPercentile(99) / 1000.0);
+            values.put(name + "_p999_us", h.getValueAtPercentile(99.9) / 1000.0);
+            values.put(name + "_max_us", h.getMax() / 1000.0);
+        });
+        return values;
+    }
+
+    @Override
+    public Object getAttribute(String attribute) throws AttributeNotFoundException {
+        Object value = snapshot().get(attribute);
+        if (value == null) throw new AttributeNotFoundException(attribute);
+        return value;
+    }
+
+    @Override
+    public AttributeList getAttributes(String[] attributes) {
+        Map<String, Object> values = snapshot();
+        AttributeList list = new AttributeList();
+        for (String name : attributes) {
+            if (values.containsKey(name)) list.add(new Attribute(name, values.get(name)));
+        }
+        return list;
+    }
+
+    /**
+     * Metrics are read-only: every attribute is reported as not writable, the way a StandardMBean does.
+     */
+    @Override
+    public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+        throw new AttributeNotFoundException("Metryka " + attribute.getName() + " jest tylko do odczytu");
+    }
+
+    @Override
+    public AttributeList setAttributes(AttributeList attributes) {
+        return new AttributeList();
+    }
+
+    /**
+     * There are no operations; JMX clients get the ReflectionException a missing method would give.
+     */
+    @Override
+    public Object invoke(String actionName, Object[] params, String[] signature) throws ReflectionException {
+        throw new ReflectionException(new NoSuchMethodException(actionName), "Brak operacji " + actionName);
+    }
+
+    @Override
+    public MBeanInfo getMBeanInfo() {
+        List<MBeanAttributeInfo> attributes = new ArrayList<>();
+        snapshot().forEach((name, value) -> attributes.add(
+                new MBeanAttributeInfo(name, value.getClass().getName(), name, true, false, false)));
+        return new MBeanInfo(getClass().getName(), "Go server metrics",
+                attributes.toArray(new MBeanAttributeInfo[0]), null, null, null);
+    }
+}
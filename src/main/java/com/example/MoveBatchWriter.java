@@ -0,0 +1,93 @@
+package com.example;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes a batch of queued persistence operations in a single transaction.
+ * Moves use sequence-generated IDs, so Hibernate can send them as JDBC batches.
+ */
+@Component
+public class MoveBatchWriter {
+
+    @Autowired
+    private GameRepository gameRepository;
+
+    @Autowired
+    private MoveRepository moveRepository;
+
+    @Autowired
+    private CheckpointRepository checkpointRepository;
+
+    @Autowired
+    private GameBlobRepository gameBlobRepository;
+
+    @Value("${go.archive.drop-move-rows:false}")
+    private boolean dropMoveRows;
+
+    @Transactional
+    public void writeBatch(List<MoveWriteBehind.PendingWrite> batch) {
+        Map<Long, GameEntity> references = new HashMap<>();
+        List<MoveEntity> moves = new ArrayList<>(batch.size());
+        List<CheckpointEntity> checkpoints = new ArrayList<>();
+
+        for (MoveWriteBehind.PendingWrite write : batch) {
+            if (write.move != null) {
+                MoveRecord record = write.move;
+                GameEntity game = references.computeIfAbsent(record.getGameId(), gameRepository::getReferenceById);
+                moves.add(new MoveEntity(game, record.getMoveNumber(), record.getX(), record.getY(),
+                        record.getColor(), record.getType()));
+            } else if (write.checkpoint != null) {
+                Checkpoint checkpoint = write.checkpoint;
+                checkpoints.add(new CheckpointEntity(checkpoint.getGameId(), checkpoint.getMoveNumber(), checkpoint.getBoard()));
+            } else {
+                if (!moves.isEmpty()) {
+                    moveRepository.saveAll(moves);
+                    moves = new ArrayList<>();
+                }
+                if (!checkpoints.isEmpty()) {
+                    checkpointRepository.saveAll(checkpoints);
+                    checkpoints = new ArrayList<>();
+                }
+                writeResult(write.gameId, write.result, write.moveBlob);
+            }
+        }
+
+        if (!moves.isEmpty()) {
+            moveRepository.saveAll(moves);
+        }
+        if (!checkpoints.isEmpty()) {
+            checkpointRepository.saveAll(checkpoints);
+        }
+    }
+
+    /**
+     * Stores the final result of a game and its compact move blob; also used directly by storage engines
+     * that keep moves outside the database. With go.archive.drop-move-rows the per-move rows and checkpoints
+     * are deleted once the blob is stored, leaving one row per finished game.
+     */
+    @Transactional
+    public void writeResult(long gameId, String result, byte[] moveBlob) {
+        GameEntity game = gameRepository.findById(gameId).orElse(null);
+        if (game != null) {
+            game.setResult(result);
+            game.setFinishTime(LocalDateTime.now());
+            if (moveBlob != null) {
+                gameBlobRepository.save(new GameBlobEntity(gameId, moveBlob));
+            }
+            if (moveBlob != null && dropMoveRows) {
+                moveRepository.deleteByGameId(gameId);
+                checkpointRepository.deleteByGameId(gameId);
+            }
+            EventLog.info("DB: Zakończono grę {} z wynikiem: {}", gameId, result);
+        }
+    }
+}
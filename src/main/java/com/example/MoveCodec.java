@@ -0,0 +1,109 @@
+package com.example;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact encoding of a whole game: an 8-byte header followed by 2 bytes per move.
+ *
+ * Header: magic 'G' 'M', format version, board size, move count (int).
+ * Move: bit 15 = colour (0 black, 1 white), bits 0-14 = y * size + x for a stone,
+ * {@link #PASS_CODE} or {@link #SURRENDER_CODE}. Move numbers are implicit (1, 2, 3, ...).
+ */
+public final class MoveCodec {
+    public static final int HEADER_SIZE = 8;
+    private static final byte MAGIC_0 = 'G';
+    private static final byte MAGIC_1 = 'M';
+    private static final byte VERSION = 1;
+
+    private static final int WHITE_BIT = 0x8000;
+    private static final int PASS_CODE = 0x7FFF;
+    private static final int SURRENDER_CODE = 0x7FFE;
+
+    private MoveCodec() {}
+
+    public static short encode(int boardSize, int x, int y, StoneColor color, String type) {
+        int code;
+        switch (type) {
+            case "MOVE": code = y * boardSize + x; break;
+            case "PASS": code = PASS_CODE; break;
+            case "SURRENDER": code = SURRENDER_CODE; break;
+            default: throw new IllegalArgumentException("Nieznany typ ruchu: " + type);
+        }
+        return (short) (color == StoneColor.WHITE ? code | WHITE_BIT : code);
+    }
+
+    public static byte[] toBlob(int boardSize, short[] codes, int count) {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + 2 * count);
+        buffer.put(MAGIC_0).put(MAGIC_1).put(VERSION).put((byte) boardSize).putInt(count);
+        for (int i = 0; i < count; i++) {
+            buffer.putShort(codes[i]);
+        }
+        return buffer.array();
+    }
+
+    public static byte[] toBlob(int boardSize, List<MoveRecord> moves) {
+        short[] codes = new short[moves.size()];
+        for (int i = 0; i < codes.length; i++) {
+            MoveRecord m = moves.get(i);
+            codes[i] = encode(boardSize, m.getX(), m.getY(), m.getColor(), m.getType());
+        }
+        return toBlob(boardSize, codes, codes.length);
+    }
+
+    public static int boardSize(byte[] blob) {
+        checkHeader(blob);
+        return blob[3] & 0xFF;
+    }
+
+    public static int moveCount(byte[] blob) {
+        checkHeader(blob);
+        return ByteBuffer.wrap(blob).getInt(4);
+    }
+
+    public static List<MoveRecord> decode(long gameId, byte[] blob) {
+        int size = boardSize(blob);
+        int count = moveCount(blob);
+        ByteBuffer buffer = ByteBuffer.wrap(blob);
+        List<MoveRecord> moves = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int value = buffer.getShort(HEADER_SIZE + 2 * i) & 0xFFFF;
+            StoneColor color = (value & WHITE_BIT) != 0 ? StoneColor.WHITE : StoneColor.BLACK;
+            int code = value & ~WHITE_BIT;
+            if (code == PASS_CODE) {
+                moves.add(new MoveRecord(gameId, i + 1, -1, -1, color, "PASS"));
+            } else if (code == SURRENDER_CODE) {
+                moves.add(new MoveRecord(gameId, i + 1, -1, -1, color, "SURRENDER"));
+            } else {
+                moves.add(new MoveRecord(gameId, i + 1, code % size, code / size, color, "MOVE"));
+            }
+        }
+        return moves;
+    }
+
+    /**
+     * Applies the first moveLimit moves of the blob straight to the board, without creating move objects.
+     */
+    public static void decodeInto(Position position, byte[] blob, int moveLimit) {
+        int size = boardSize(blob);
+        if (size != position.getSize()) {
+            throw new IllegalArgumentException("Rozmiar planszy " + position.getSize() + " nie pasuje do zapisu gry (" + size + ")");
+        }
+        int count = Math.min(moveCount(blob), moveLimit);
+        ByteBuffer buffer = ByteBuffer.wrap(blob);
+        for (int i = 0; i < count; i++) {
+            int value = buffer.getShort(HEADER_SIZE + 2 * i) & 0xFFFF;
+            int code = value & ~WHITE_BIT;
+            if (code < size * size) {
+                position.play(code % size, code / size, (value & WHITE_BIT) != 0 ? StoneColor.WHITE : StoneColor.BLACK);
+            }
+        }
+    }
+
+    private static void checkHeader(byte[] blob) {
+        if (blob.length < HEADER_SIZE || blob[0] != MAGIC_0 || blob[1] != MAGIC_1 || blob[2] != VERSION) {
+            throw new IllegalArgumentException("Nieprawidłowy zapis ruchów gry");
+        }
+    }
+}
@@ -3,17 +3,23 @@ package com.example;
 import jakarta.persistence.*;
 
 @Entity
-@Table(name = "moves")
+@Table(name = "moves", indexes = @Index(name = "idx_move_game_number", columnList = "game_id, move_number"))
 public class MoveEntity {
 
+    /**
+     * Pooled sequence IDs (allocationSize) let Hibernate assign IDs without a round trip per row,
+     * which is required for JDBC batch inserts; IDENTITY would force one insert per statement.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "move_seq")
+    @SequenceGenerator(name = "move_seq", sequenceName = "move_seq", allocationSize = 50)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "game_id")
     private GameEntity game;
 
+    @Column(name = "move_number")
     private int moveNumber;
     private int x;
     private int y;
@@ -0,0 +1,152 @@
+package com.example;
+
+/**
+ * Client-side mirror of a game the user plays in, used to show a move as soon as it is clicked.
+ * The move is checked with the same {@link RuleEngine} as on the server and applied (with captures)
+ * to a local {@link Board}; illegal clicks never reach the network. The server stays authoritative:
+ * every "SEQ &lt;n&gt; &lt;turn&gt;" line either confirms the pending prediction (n reached its number)
+ * or rejects it, in which case the board rolls back to the last BOARD received from the server.
+ * Only one move can be pending, since after it the opponent is to move. All methods are synchronized:
+ * predictions come from the UI thread, server lines from the connection thread.
+ *
+ * Boards are exchanged as the byte-per-intersection cells of a {@link BoardFrame} (row by row), so a server
+ * frame is parsed once, by the frame, and the board to show is written back into the same array.
+ */
+public class MovePrediction {
+    private StoneColor color = StoneColor.EMPTY;
+    private StoneColor turn = StoneColor.EMPTY;
+    private int sequence = -1;
+
+    private Board board;
+    private final RuleEngine ruleEngine = new RuleEngine();
+    private StoneColor[][] serverGrid;          // last board confirmed by the server
+    private StoneColor[][] serverPreviousGrid;  // the one before it, for the ko rule
+
+    private int pendingSequence = -1;
+    private int pendingX, pendingY;
+
+    public synchronized void setColor(StoneColor color) {
+        this.color = color;
+    }
+
+    /**
+     * True once the client knows its colour and the server's sequence, i.e. it plays in a live game.
+     */
+    public synchronized boolean isActive() {
+        return color != StoneColor.EMPTY && sequence >= 0;
+    }
+
+    /**
+     * Handles "SEQ n turn".
+     * @return true if a prediction was rejected and the board rolled back; show it with {@link #copyTo}
+     */
+    public synchronized boolean onSequence(int serverSequence, StoneColor serverTurn) {
+        sequence = serverSequence;
+        turn = serverTurn;
+        if (pendingSequence < 0) return false;
+
+        boolean confirmed = serverSequence >= pendingSequence;
+        pendingSequence = -1;
+        if (confirmed || board == null) return false;
+        resetToServer();
+        return true;
+    }
+
+    /**
+     * Handles a decoded BOARD frame and overwrites its cells with the board to show: the server's,
+     * with the pending prediction replayed on top if the server has not answered it yet.
+     */
+    public synchronized void onServerBoard(byte[] cells, int size) {
+        StoneColor[][] grid = new StoneColor[size][size];
+        for (int i = 0; i < size * size; i++) {
+            grid[i % size][i / size] = toColor(cells[i]);
+        }
+
+        if (board == null || board.getSize() != size) {
+            board = new Board(size);
+            serverGrid = null;
+            serverPreviousGrid = null;
+        }
+        if (serverGrid == null || !sameGrid(serverGrid, grid)) {
+            serverPreviousGrid = serverGrid;
+            serverGrid = grid;
+        }
+        resetToServer();
+        if (pendingSequence >= 0) {
+            replayPending();
+        }
+        copyTo(cells);
+    }
+
+    /**
+     * Plays the pending move again on the freshly reset board. RuleEngine.isMoveValid places the stone and
+     * removes captures when the move is legal, exactly as when it was predicted; if the new position makes it
+     * illegal, the prediction is dropped, since the server will reject it too.
+     */
+    private void replayPending() {
+        boolean played = ruleEngine.isMoveValid(board, pendingX, pendingY, color);
+        if (!played) {
+            pendingSequence = -1;
+        }
+    }
+
+    /**
+     * Plays the user's move on the local board.
+     * @return null if the move was accepted locally and should be sent, otherwise the reason to show
+     */
+    public synchronized String predict(int x, int y) {
+        if (board == null || turn != color || pendingSequence >= 0) {
+            return "To nie jest Twój ruch!";
+        }
+        // a legal move is played onto the local board (stone and captures) by isMoveValid itself
+        if (!ruleEngine.isMoveValid(board, x, y, color)) {
+            return "Błąd: Ruch niedozwolony (pole zajęte, samobójstwo lub KO).";
+        }
+        pendingSequence = sequence + 1;
+        pendingX = x;
+        pendingY = y;
+        turn = color == StoneColor.BLACK ? StoneColor.WHITE : StoneColor.BLACK;
+        return null;
+    }
+
+    public synchronized String getBoardString() {
+        return board.getBoardStateString();
+    }
+
+    /**
+     * Writes the local board into BoardFrame cells of the same size.
+     */
+    public synchronized void copyTo(byte[] cells) {
+        int size = board.getSize();
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                StoneColor stone = board.getStone(x, y);
+                cells[y * size + x] = stone == StoneColor.BLACK ? BoardFrame.BLACK
+                        : stone == StoneColor.WHITE ? BoardFrame.WHITE : BoardFrame.EMPTY;
+            }
+        }
+    }
+
+    private static StoneColor toColor(byte cell) {
+        return cell == BoardFrame.BLACK ? StoneColor.BLACK : cell == BoardFrame.WHITE ? StoneColor.WHITE : StoneColor.EMPTY;
+    }
+
+    private void resetToServer() {
+        int size = board.getSize();
+        for (int x = 0; x < size; x++) {
+            for (int y = 0; y < size; y++) {
+                board.setStone(x, y, serverGrid[x][y]);
+            }
+        }
+        ruleEngine.restoreHistory(serverPreviousGrid, serverGrid);
+    }
+
+    private static boolean sameGrid(StoneColor[][] a, StoneColor[][] b) {
+        for (int x = 0; x < a.length; x++) {
+            for (int y = 0; y < a.length; y++) {
+                if (a[x][y] != b[x][y]) return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,30 @@
+package com.example;
+
+/**
+ * Immutable, storage-independent description of one recorded action (move, pass or surrender).
+ * Used to hand moves from the game thread to the persistence layer and back for replays.
+ */
+public class MoveRecord {
+    private final long gameId;
+    private final int moveNumber;
+    private final int x;
+    private final int y;
+    private final StoneColor color;
+    private final String type;
+
+    public MoveRecord(long gameId, int moveNumber, int x, int y, StoneColor color, String type) {
+        this.gameId = gameId;
+        this.moveNumber = moveNumber;
+        this.x = x;
+        this.y = y;
+        this.color = color;
+        this.type = type;
+    }
+
+    public long getGameId() { return gameId; }
+    public int getMoveNumber() { return moveNumber; }
+    public int getX() { return x; }
+    public int getY() { return y; }
+    public StoneColor getColor() { return color; }
+    public String getType() { return type; }
+}
@@ -1,10 +1,22 @@
 package com.example;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.util.List;
 
 @Repository
 public interface MoveRepository extends JpaRepository<MoveEntity, Long> {
-    List<MoveEntity> findByGameIdOrderByMoveNumberAsc(Long gameId);
+    /**
+     * One keyset page of a game's moves: served by the (game_id, move_number) index
+     * without an OFFSET scan, however deep into the game the page starts.
+     */
+    List<MoveEntity> findByGameIdAndMoveNumberGreaterThanOrderByMoveNumberAsc(Long gameId, int afterMove, Pageable page);
+
+    @Modifying
+    @Query("delete from MoveEntity m where m.game.id = :gameId")
+    int deleteByGameId(@Param("gameId") Long gameId);
 }
\ No newline at end of file
@@ -0,0 +1,68 @@
+package com.example;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongConsumer;
+
+/**
+ * Storage backend for the move log of games.
+ * Game metadata (board size, start time, result) always lives in the games table;
+ * a MoveStore only decides where and how the individual moves are kept.
+ * Selected with the go.storage property (jpa or journal).
+ */
+public interface MoveStore {
+    int PAGE_SIZE = 256;
+
+    /**
+     * Records a move without waiting for it to become durable.
+     */
+    void appendMove(MoveRecord move);
+
+    /**
+     * Marks the game as finished. The result is published only after every move
+     * appended before this call has been written.
+     * @param moveBlob the whole game encoded with {@link MoveCodec}, stored in the game_blobs table; may be null
+     */
+    void finishGame(long gameId, String result, byte[] moveBlob);
+
+    /**
+     * Records a board checkpoint; written in order with the moves, without waiting.
+     */
+    void saveCheckpoint(Checkpoint checkpoint);
+
+    /**
+     * Blocks until everything appended before this call is durable.
+     */
+    void flush() throws InterruptedException;
+
+    /**
+     * Returns up to limit durable moves of the game with move numbers greater than afterMove, in move order.
+     * Callers page through a game with the last move number they received (keyset paging).
+     */
+    List<MoveRecord> loadMoves(long gameId, int afterMove, int limit);
+
+    /**
+     * Returns all durable moves of the game in move order, read page by page.
+     */
+    default List<MoveRecord> loadMoves(long gameId) {
+        List<MoveRecord> moves = new ArrayList<>();
+        while (true) {
+            int after = moves.isEmpty() ? 0 : moves.get(moves.size() - 1).getMoveNumber();
+            List<MoveRecord> page = loadMoves(gameId, after, PAGE_SIZE);
+            moves.addAll(page);
+            if (page.size() < PAGE_SIZE) return moves;
+        }
+    }
+
+    /**
+     * Returns the stored checkpoints of the game ordered by move number.
+     */
+    List<Checkpoint> loadCheckpoints(long gameId);
+
+    /**
+     * Registers a callback for games whose appended moves could not be stored and were lost.
+     * Stores that never lose acknowledged writes ignore it.
+     */
+    default void setFailureListener(LongConsumer listener) {
+    }
+}
@@ -0,0 +1,312 @@
+package com.example;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongConsumer;
+
+/**
+ * Write-behind pipeline for move persistence. The game thread only enqueues;
+ * a background writer groups queued operations into JDBC batches and commits them
+ * according to the configured {@link FlushPolicy}.
+ * A batch that fails is retried with exponential backoff (go.persistence.max-retries times). If it still
+ * fails, it is written game by game, so one broken game cannot take the moves of the others with it;
+ * every game whose writes are lost is reported to the failure listener and its later writes are skipped.
+ *
+ * Properties: go.persistence.flush-policy (PER_MOVE, EVERY_N_MOVES, INTERVAL),
+ * go.persistence.batch-size, go.persistence.flush-interval-ms, go.persistence.max-delay-ms,
+ * go.persistence.max-retries, go.persistence.queue-capacity.
+ */
+@Component
+public class MoveWriteBehind {
+
+    /**
+     * How long a move may wait in memory before it is committed.
+     */
+    public enum FlushPolicy {
+        /** Commit every move on its own as soon as the writer sees it. */
+        PER_MOVE,
+        /**
+         * Commit once batch-size moves are pending, or max-delay-ms after the oldest pending one was queued;
+         * finished games and shutdown flush immediately.
+         */
+        EVERY_N_MOVES,
+        /** Commit whatever is pending flush-interval-ms after the oldest pending operation was queued. */
+        INTERVAL
+    }
+
+    /**
+     * A queued operation: a move, a board checkpoint or the final result of a game.
+     */
+    static class PendingWrite {
+        final MoveRecord move;
+        final Checkpoint checkpoint;
+        final long gameId;
+        final String result;
+        final byte[] moveBlob;
+
+        private PendingWrite(MoveRecord move, Checkpoint checkpoint, long gameId, String result, byte[] moveBlob) {
+            this.move = move;
+            this.checkpoint = checkpoint;
+            this.gameId = gameId;
+            this.result = result;
+            this.moveBlob = moveBlob;
+        }
+    }
+
+    private static final LatencyHistogram FLUSH_TIME = ServerMetrics.get().histogram(
+            "go_persistence_flush_seconds", "Time to commit one write-behind batch");
+    private static final LongAdder MOVES_WRITTEN = ServerMetrics.get().counter(
+            "go_persistence_moves_written_total", "Moves committed by the write-behind writer");
+    private static final LongAdder FLUSH_ERRORS = ServerMetrics.get().counter(
+            "go_persistence_flush_errors_total", "Write-behind batch commits that failed (each attempt counts)");
+    private static final LongAdder FAILED_GAMES = ServerMetrics.get().counter(
+            "go_persistence_failed_games_total", "Games whose moves could not be written after all retries");
+
+    private static final long INITIAL_BACKOFF_MS = 100;
+    private static final long MAX_BACKOFF_MS = 5000;
+
+    @Autowired
+    private MoveBatchWriter batchWriter;
+
+    @Value("${go.persistence.flush-policy:EVERY_N_MOVES}")
+    private FlushPolicy flushPolicy;
+
+    @Value("${go.persistence.batch-size:100}")
+    private int batchSize;
+
+    @Value("${go.persistence.flush-interval-ms:200}")
+    private long flushIntervalMs;
+
+    @Value("${go.persistence.max-delay-ms:1000}")
+    private long maxDelayMs;
+
+    @Value("${go.persistence.max-retries:5}")
+    private int maxRetries;
+
+    @Value("${go.persistence.queue-capacity:100000}")
+    private int queueCapacity;
+
+    private BlockingQueue<PendingWrite> queue;
+    private Thread writer;
+    private volatile boolean running;
+    private volatile boolean flushRequested;
+    private final AtomicLong enqueued = new AtomicLong();
+    private final Object progress = new Object();
+    private long processed;
+    private final Set<Long> failedGames = ConcurrentHashMap.newKeySet();
+    private volatile LongConsumer failureListener = gameId -> { };
+
+    public MoveWriteBehind() {
+    }
+
+    MoveWriteBehind(MoveBatchWriter batchWriter, FlushPolicy flushPolicy, int batchSize, long flushIntervalMs,
+                    long maxDelayMs, int maxRetries, int queueCapacity) {
+        this.batchWriter = batchWriter;
+        this.flushPolicy = flushPolicy;
+        this.batchSize = batchSize;
+        this.flushIntervalMs = flushIntervalMs;
+        this.maxDelayMs = maxDelayMs;
+        this.maxRetries = maxRetries;
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * Called on the writer thread with the ID of a game whose writes were lost after all retries.
+     */
+    public void setFailureListener(LongConsumer listener) {
+        this.failureListener = listener;
+    }
+
+    @PostConstruct
+    public void start() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        ServerMetrics.get().gauge("go_persistence_queue_depth", "Operations waiting for the write-behind writer", () -> queue.size());
+        running = true;
+        writer = new Thread(this::writeLoop, "move-write-behind");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Stops the writer after committing everything still queued.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        writer.interrupt();
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    public void enqueueMove(MoveRecord move) {
+        put(new PendingWrite(move, null, move.getGameId(), null, null));
+    }
+
+    public void enqueueCheckpoint(Checkpoint checkpoint) {
+        put(new PendingWrite(null, checkpoint, checkpoint.getGameId(), null, null));
+    }
+
+    public void enqueueFinish(long gameId, String result, byte[] moveBlob) {
+        put(new PendingWrite(null, null, gameId, result, moveBlob));
+    }
+
+    /**
+     * Blocks only when the queue is full, i.e. when the database cannot keep up at all;
+     * in that case back-pressure is preferable to losing moves.
+     */
+    private void put(PendingWrite write) {
+        try {
+            queue.put(write);
+            enqueued.incrementAndGet();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Blocks until every operation enqueued before this call has been handed to the database
+     * (committed, or failed after all retries and reported to the failure listener).
+     */
+    public void flush() throws InterruptedException {
+        long target = enqueued.get();
+        synchronized (progress) {
+            while (processed < target) {
+                flushRequested = true;
+                progress.wait(flushIntervalMs);
+            }
+        }
+    }
+
+    private void writeLoop() {
+        int maxBatch = flushPolicy == FlushPolicy.PER_MOVE ? 1 : batchSize;
+        List<PendingWrite> batch = new ArrayList<>(maxBatch);
+        long pollNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        long lingerNanos = TimeUnit.MILLISECONDS.toNanos(flushPolicy == FlushPolicy.EVERY_N_MOVES ? maxDelayMs : flushIntervalMs);
+        long deadline = 0;
+
+        while (running || !queue.isEmpty() || !batch.isEmpty()) {
+            try {
+                // wake up at the batch deadline, and at least every flush-interval-ms to notice flush requests
+                long waitNanos = batch.isEmpty() ? pollNanos : Math.min(pollNanos, Math.max(0, deadline - System.nanoTime()));
+                PendingWrite next = running ? queue.poll(waitNanos, TimeUnit.NANOSECONDS) : queue.poll();
+                if (next != null) {
+                    if (batch.isEmpty()) deadline = System.nanoTime() + lingerNanos;
+                    batch.add(next);
+                    queue.drainTo(batch, maxBatch - batch.size());
+                }
+            } catch (InterruptedException e) {
+                // stop() interrupts to finish quickly; loop continues until everything is written
+            }
+
+            if (!batch.isEmpty() && shouldFlush(batch, maxBatch, deadline)) {
+                flush(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private boolean shouldFlush(List<PendingWrite> batch, int maxBatch, long deadline) {
+        if (!running || flushRequested || batch.size() >= maxBatch) return true;
+        if (batch.stream().anyMatch(w -> w.result != null)) return true;
+
+        switch (flushPolicy) {
+            case INTERVAL:
+            case EVERY_N_MOVES:
+                return System.nanoTime() >= deadline;
+            default:
+                return true;
+        }
+    }
+
+    private void flush(List<PendingWrite> batch) {
+        long started = System.nanoTime();
+        List<PendingWrite> writes = batch;
+        if (!failedGames.isEmpty()) {
+            writes = new ArrayList<>(batch.size());
+            for (PendingWrite write : batch) {
+                if (!failedGames.contains(write.gameId)) writes.add(write);
+            }
+        }
+        if (!writes.isEmpty() && !writeWithRetry(writes)) {
+            writeGameByGame(writes);
+        }
+        FLUSH_TIME.recordValue(System.nanoTime() - started);
+
+        synchronized (progress) {
+            processed += batch.size();
+            if (processed >= enqueued.get()) flushRequested = false;
+            progress.notifyAll();
+        }
+    }
+
+    /**
+     * @return true once the batch is committed, false if it still failed after max-retries retries
+     */
+    private boolean writeWithRetry(List<PendingWrite> batch) {
+        long backoff = INITIAL_BACKOFF_MS;
+        for (int attempt = 0; ; attempt++) {
+            try {
+                batchWriter.writeBatch(batch);
+                MOVES_WRITTEN.add(batch.stream().filter(w -> w.move != null).count());
+                EventLog.trace("DB: Zapisano partię {} operacji", batch.size());
+                return true;
+            } catch (RuntimeException e) {
+                FLUSH_ERRORS.increment();
+                if (attempt >= maxRetries) {
+                    EventLog.error("DB: Błąd zapisu partii {} operacji po {} próbach", batch.size(), attempt + 1, e);
+                    return false;
+                }
+                EventLog.warn("DB: Błąd zapisu partii {} operacji, ponowienie za {} ms: {}", batch.size(), backoff, e.getMessage());
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException interrupted) {
+                    // stop() interrupts; keep retrying without waiting
+                }
+                backoff = Math.min(backoff * 2, MAX_BACKOFF_MS);
+            }
+        }
+    }
+
+    /**
+     * Last resort for a batch that keeps failing: commits each game's operations on its own
+     * and gives up only on the games that still fail.
+     */
+    private void writeGameByGame(List<PendingWrite> batch) {
+        Map<Long, List<PendingWrite>> byGame = new LinkedHashMap<>();
+        for (PendingWrite write : batch) {
+            byGame.computeIfAbsent(write.gameId, id -> new ArrayList<>()).add(write);
+        }
+        for (Map.Entry<Long, List<PendingWrite>> entry : byGame.entrySet()) {
+            List<PendingWrite> writes = entry.getValue();
+            try {
+                batchWriter.writeBatch(writes);
+                MOVES_WRITTEN.add(writes.stream().filter(w -> w.move != null).count());
+            } catch (RuntimeException e) {
+                long gameId = entry.getKey();
+                FLUSH_ERRORS.increment();
+                FAILED_GAMES.increment();
+                failedGames.add(gameId);
+                EventLog.error("DB: Utracono {} operacji gry {}, dalsze zapisy tej gry są pomijane", writes.size(), gameId, e);
+                try {
+                    failureListener.accept(gameId);
+                } catch (RuntimeException listenerError) {
+                    EventLog.error("Błąd obsługi nieudanego zapisu gry {}", gameId, listenerError);
+                }
+            }
+        }
+    }
+}
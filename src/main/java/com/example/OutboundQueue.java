@@ -0,0 +1,147 @@
+package com.example;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded queue of outgoing protocol lines for a single connection.
+ * The game thread only enqueues; a dedicated writer drains the queue and sends
+ * everything that accumulated in one write, so a slow peer never blocks the game.
+ */
+public class OutboundQueue {
+
+    /**
+     * What to do when a connection cannot keep up and its queue is full.
+     */
+    public enum SlowConsumerPolicy {
+        /** Discard queued intermediate BOARD frames (a newer one supersedes them), disconnect if that is not enough. */
+        DROP_STALE_BOARDS,
+        /** Disconnect the client as soon as its queue overflows. */
+        DISCONNECT
+    }
+
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    private static final LongAdder QUEUED_MESSAGES = ServerMetrics.get().gauge(
+            "go_outbound_queue_depth", "Messages waiting in all outbound queues");
+    private static final LongAdder DROPPED_BOARDS = ServerMetrics.get().counter(
+            "go_outbound_dropped_boards_total", "Stale BOARD frames dropped for slow consumers");
+    private static final LongAdder OVERFLOWS = ServerMetrics.get().counter(
+            "go_outbound_overflows_total", "Connections closed because their outbound queue overflowed");
+
+    private final ArrayDeque<String> messages = new ArrayDeque<>();
+    private final int capacity;
+    private final SlowConsumerPolicy policy;
+    private boolean closed = false;
+    private long droppedBoards = 0;
+
+    public OutboundQueue(int capacity, SlowConsumerPolicy policy) {
+        this.capacity = capacity;
+        this.policy = policy;
+    }
+
+    /**
+     * Creates a queue configured by the go.outbound.capacity and go.outbound.policy system properties.
+     */
+    public static OutboundQueue fromSystemProperties() {
+        int capacity = Integer.getInteger("go.outbound.capacity", DEFAULT_CAPACITY);
+        String policyName = System.getProperty("go.outbound.policy", SlowConsumerPolicy.DROP_STALE_BOARDS.name());
+        return new OutboundQueue(capacity, SlowConsumerPolicy.valueOf(policyName));
+    }
+
+    /**
+     * Enqueues a message without blocking.
+     * @return false if the queue is closed or overflowed; the caller should then disconnect the client.
+     */
+    public synchronized boolean offer(String message) {
+        if (closed) return false;
+
+        if (messages.size() >= capacity) {
+            if (policy == SlowConsumerPolicy.DROP_STALE_BOARDS) {
+                dropStaleBoards(message.startsWith("BOARD"));
+            }
+            if (messages.size() >= capacity) {
+                OVERFLOWS.increment();
+                close();
+                return false;
+            }
+        }
+
+        messages.addLast(message);
+        QUEUED_MESSAGES.increment();
+        notifyAll();
+        return true;
+    }
+
+    /**
+     * Removes queued board frames that are already outdated.
+     * If the incoming message is itself a board, every queued board is stale; otherwise the newest one is kept.
+     */
+    private void dropStaleBoards(boolean incomingIsBoard) {
+        String newestBoard = null;
+        if (!incomingIsBoard) {
+            for (Iterator<String> it = messages.descendingIterator(); it.hasNext(); ) {
+                String queued = it.next();
+                if (queued.startsWith("BOARD")) {
+                    newestBoard = queued;
+                    break;
+                }
+            }
+        }
+
+        for (Iterator<String> it = messages.iterator(); it.hasNext(); ) {
+            String queued = it.next();
+            if (queued.startsWith("BOARD") && queued != newestBoard) {
+                it.remove();
+                droppedBoards++;
+                QUEUED_MESSAGES.decrement();
+                DROPPED_BOARDS.increment();
+            }
+        }
+    }
+
+    /**
+     * Blocks until at least one message is available and then takes everything queued (up to maxBatch).
+     * @return the drained messages, or an empty list once the queue is closed.
+     */
+    public synchronized List<String> drainBatch(int maxBatch) throws InterruptedException {
+        while (messages.isEmpty() && !closed) {
+            wait();
+        }
+        List<String> batch = new ArrayList<>(Math.min(messages.size(), maxBatch));
+        while (!messages.isEmpty() && batch.size() < maxBatch) {
+            batch.add(messages.pollFirst());
+        }
+        QUEUED_MESSAGES.add(-batch.size());
+        return batch;
+    }
+
+    /**
+     * Closes the queue and discards whatever was not sent yet.
+     */
+    public synchronized void close() {
+        closed = true;
+        QUEUED_MESSAGES.add(-messages.size());
+        messages.clear();
+        notifyAll();
+    }
+
+    public synchronized boolean isClosed() {
+        return closed;
+    }
+
+    public synchronized int size() {
+        return messages.size();
+    }
+
+    public synchronized long getDroppedBoards() {
+        return droppedBoards;
+    }
+
+    public SlowConsumerPolicy getPolicy() {
+        return policy;
+    }
+}
@@ -0,0 +1,196 @@
+package com.example;
+
+import java.util.Arrays;
+
+/**
+ * Compact, allocation-free board used to replay recorded games.
+ * Recorded moves were already validated when they were played, so applying one only
+ * places the stone and removes captured groups - no legality, suicide or ko checks.
+ * Cells are stored row by row (index = y * size + x), the same order as the BOARD protocol line.
+ */
+public class Position {
+    private static final byte EMPTY = 0;
+    private static final byte BLACK = 1;
+    private static final byte WHITE = 2;
+    private static final StoneColor[] COLORS = {StoneColor.EMPTY, StoneColor.BLACK, StoneColor.WHITE};
+
+    private final int size;
+    private final byte[] cells;
+
+    // scratch space for group search, reused between moves
+    private final int[] stack;
+    private final int[] group;
+    private final int[] visitMarks;
+    private int visitGeneration = 0;
+
+    public Position(int size) {
+        this.size = size;
+        this.cells = new byte[size * size];
+        this.stack = new int[size * size];
+        this.group = new int[size * size];
+        this.visitMarks = new int[size * size];
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public StoneColor getStone(int x, int y) {
+        return COLORS[cells[y * size + x]];
+    }
+
+    /**
+     * Applies a recorded action; PASS and SURRENDER leave the board unchanged.
+     * @return the number of stones captured by the move
+     */
+    public int apply(MoveRecord move) {
+        if (!"MOVE".equals(move.getType())) return 0;
+        return play(move.getX(), move.getY(), move.getColor());
+    }
+
+    /**
+     * Places a stone and removes the opponent groups left without liberties.
+     * @return the number of captured stones
+     */
+    public int play(int x, int y, StoneColor color) {
+        int cell = y * size + x;
+        byte own = code(color);
+        byte opponent = own == BLACK ? WHITE : BLACK;
+        cells[cell] = own;
+
+        int captured = 0;
+        if (x > 0) captured += captureIfDead(cell - 1, opponent);
+        if (x < size - 1) captured += captureIfDead(cell + 1, opponent);
+        if (y > 0) captured += captureIfDead(cell - size, opponent);
+        if (y < size - 1) captured += captureIfDead(cell + size, opponent);
+        return captured;
+    }
+
+    private int captureIfDead(int start, byte color) {
+        if (cells[start] != color) return 0;
+
+        int generation = ++visitGeneration;
+        int top = 0;
+        int count = 0;
+        stack[top++] = start;
+        visitMarks[start] = generation;
+        while (top > 0) {
+            int cell = stack[--top];
+            group[count++] = cell;
+            int x = cell % size;
+            int y = cell / size;
+            if ((x > 0 && (top = visit(cell - 1, color, generation, top)) < 0)
+                    || (x < size - 1 && (top = visit(cell + 1, color, generation, top)) < 0)
+                    || (y > 0 && (top = visit(cell - size, color, generation, top)) < 0)
+                    || (y < size - 1 && (top = visit(cell + size, color, generation, top)) < 0)) {
+                return 0;
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            cells[group[i]] = EMPTY;
+        }
+        return count;
+    }
+
+    /**
+     * Pushes an unvisited stone of the group onto the stack.
+     * @return the new stack size, or -1 if the neighbour is a liberty
+     */
+    private int visit(int cell, byte color, int generation, int top) {
+        if (cells[cell] == EMPTY) return -1;
+        if (cells[cell] == color && visitMarks[cell] != generation) {
+            visitMarks[cell] = generation;
+            stack[top++] = cell;
+        }
+        return top;
+    }
+
+    public Position copy() {
+        Position copy = new Position(size);
+        System.arraycopy(cells, 0, copy.cells, 0, cells.length);
+        return copy;
+    }
+
+    /**
+     * Packs the board into 2 bits per cell (91 bytes for 19x19).
+     */
+    public byte[] pack() {
+        byte[] packed = new byte[(cells.length + 3) / 4];
+        for (int i = 0; i < cells.length; i++) {
+            packed[i >> 2] |= (byte) (cells[i] << ((i & 3) * 2));
+        }
+        return packed;
+    }
+
+    public static Position unpack(int size, byte[] packed) {
+        Position position = new Position(size);
+        position.restore(packed);
+        return position;
+    }
+
+    /**
+     * Overwrites this board with a packed one of the same size.
+     */
+    public void restore(byte[] packed) {
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = (byte) ((packed[i >> 2] >> ((i & 3) * 2)) & 3);
+        }
+    }
+
+    /**
+     * Clears the board to the initial empty position.
+     */
+    public void clear() {
+        Arrays.fill(cells, EMPTY);
+    }
+
+    public static Position fromBoard(Board board) {
+        int size = board.getSize();
+        Position position = new Position(size);
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                position.cells[y * size + x] = code(board.getStone(x, y));
+            }
+        }
+        return position;
+    }
+
+    /**
+     * Returns the stones as a grid indexed [x][y], the layout of {@link Board#getGridCopy()}.
+     */
+    public StoneColor[][] toGrid() {
+        StoneColor[][] grid = new StoneColor[size][size];
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                grid[x][y] = COLORS[cells[y * size + x]];
+            }
+        }
+        return grid;
+    }
+
+    /**
+     * Returns the board in the BOARD protocol format, identical to {@link Board#getBoardStateString()}.
+     */
+    public String toBoardString() {
+        StringBuilder sb = new StringBuilder(cells.length * 6);
+        for (int i = 0; i < cells.length; i++) {
+            if (i > 0) sb.append(';');
+            sb.append(COLORS[cells[i]].name());
+        }
+        return sb.toString();
+    }
+
+    private static byte code(StoneColor color) {
+        return color == StoneColor.BLACK ? BLACK : color == StoneColor.WHITE ? WHITE : EMPTY;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Position && size == ((Position) o).size && Arrays.equals(cells, ((Position) o).cells);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(cells);
+    }
+}
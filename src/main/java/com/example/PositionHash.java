@@ -0,0 +1,144 @@
+package com.example;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Zobrist hashes of a board, kept for all 8 symmetries at once so the canonical (symmetry-independent)
+ * hash is the minimum of the eight. Also tracks the four corner regions of {@link #CORNER_SIZE} points,
+ * each hashed in the top-left corner's frame and canonicalised over its diagonal reflection, so the same
+ * joseki shape gives the same key in any corner.
+ *
+ * Placing a stone updates the hashes with a few XORs ({@link #toggle}); after a capture the caller
+ * recomputes them from the position. The keys come from a fixed seed because {@link PositionIndex}
+ * stores them on disk.
+ */
+public class PositionHash {
+    public static final int MAX_SIZE = SgfCodec.MAX_BOARD_SIZE;
+    public static final int CORNER_SIZE = 7;
+    public static final int SYMMETRIES = 8;
+
+    private static final long[] STONE_KEYS = new long[2 * MAX_SIZE * MAX_SIZE];
+    private static final long[] SIZE_KEYS = new long[MAX_SIZE + 1];
+    private static final long[] CORNER_KEYS = new long[2 * CORNER_SIZE * CORNER_SIZE];
+
+    static {
+        SplittableRandom random = new SplittableRandom(0x60_5EED_2024L);
+        for (int i = 0; i < STONE_KEYS.length; i++) STONE_KEYS[i] = random.nextLong();
+        for (int i = 0; i < SIZE_KEYS.length; i++) SIZE_KEYS[i] = random.nextLong();
+        for (int i = 0; i < CORNER_KEYS.length; i++) CORNER_KEYS[i] = random.nextLong();
+    }
+
+    private final int size;
+    private final long[] hashes = new long[SYMMETRIES];
+    /** Corner c in orientation o (0 = as seen from the corner, 1 = reflected) at index 2 * c + o. */
+    private final long[] cornerHashes = new long[8];
+
+    public PositionHash(int size) {
+        if (size < 1 || size > MAX_SIZE) {
+            throw new IllegalArgumentException("Nieobsługiwany rozmiar planszy: " + size);
+        }
+        this.size = size;
+        clear();
+    }
+
+    public void clear() {
+        Arrays.fill(hashes, SIZE_KEYS[size]);
+        Arrays.fill(cornerHashes, 0);
+    }
+
+    /**
+     * Adds or removes (XOR is its own inverse) a stone.
+     */
+    public void toggle(int x, int y, StoneColor color) {
+        int colorOffset = color == StoneColor.WHITE ? MAX_SIZE * MAX_SIZE : 0;
+        int last = size - 1;
+        hashes[0] ^= STONE_KEYS[colorOffset + y * MAX_SIZE + x];
+        hashes[1] ^= STONE_KEYS[colorOffset + y * MAX_SIZE + (last - x)];
+        hashes[2] ^= STONE_KEYS[colorOffset + (last - y) * MAX_SIZE + x];
+        hashes[3] ^= STONE_KEYS[colorOffset + (last - y) * MAX_SIZE + (last - x)];
+        hashes[4] ^= STONE_KEYS[colorOffset + x * MAX_SIZE + y];
+        hashes[5] ^= STONE_KEYS[colorOffset + x * MAX_SIZE + (last - y)];
+        hashes[6] ^= STONE_KEYS[colorOffset + (last - x) * MAX_SIZE + y];
+        hashes[7] ^= STONE_KEYS[colorOffset + (last - x) * MAX_SIZE + (last - y)];
+
+        int cornerColor = color == StoneColor.WHITE ? CORNER_SIZE * CORNER_SIZE : 0;
+        for (int corner = 0; corner < 4; corner++) {
+            int i = (corner & 1) == 0 ? x : last - x;
+            int j = (corner & 2) == 0 ? y : last - y;
+            if (i < CORNER_SIZE && j < CORNER_SIZE) {
+                cornerHashes[2 * corner] ^= CORNER_KEYS[cornerColor + j * CORNER_SIZE + i];
+                cornerHashes[2 * corner + 1] ^= CORNER_KEYS[cornerColor + i * CORNER_SIZE + j];
+            }
+        }
+    }
+
+    /**
+     * Rebuilds every hash from the position, e.g. after stones were captured.
+     */
+    public void recompute(Position position) {
+        clear();
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                StoneColor stone = position.getStone(x, y);
+                if (stone != StoneColor.EMPTY) toggle(x, y, stone);
+            }
+        }
+    }
+
+    /**
+     * The same value for a position and all its rotations and reflections.
+     */
+    public long canonical() {
+        long min = hashes[0];
+        for (int i = 1; i < SYMMETRIES; i++) min = Math.min(min, hashes[i]);
+        return min;
+    }
+
+    /**
+     * Canonical hash of corner 0-3 (bit 0: right side, bit 1: bottom side); 0 for an empty corner.
+     */
+    public long corner(int corner) {
+        return Math.min(cornerHashes[2 * corner], cornerHashes[2 * corner + 1]);
+    }
+
+    /**
+     * Bit mask of the corner regions containing the point.
+     */
+    public int cornersContaining(int x, int y) {
+        int mask = 0;
+        for (int corner = 0; corner < 4; corner++) {
+            int i = (corner & 1) == 0 ? x : size - 1 - x;
+            int j = (corner & 2) == 0 ? y : size - 1 - y;
+            if (i < CORNER_SIZE && j < CORNER_SIZE) mask |= 1 << corner;
+        }
+        return mask;
+    }
+
+    public static long of(Position position) {
+        PositionHash hash = new PositionHash(position.getSize());
+        hash.recompute(position);
+        return hash.canonical();
+    }
+
+    /**
+     * Key of a corner pattern given as CORNER_SIZE x CORNER_SIZE points, row by row, as seen in the top-left corner.
+     */
+    public static long cornerPattern(StoneColor[] pattern) {
+        if (pattern.length != CORNER_SIZE * CORNER_SIZE) {
+            throw new IllegalArgumentException("Wzór rogu musi mieć " + CORNER_SIZE + "x" + CORNER_SIZE + " pól");
+        }
+        long normal = 0;
+        long reflected = 0;
+        for (int j = 0; j < CORNER_SIZE; j++) {
+            for (int i = 0; i < CORNER_SIZE; i++) {
+                StoneColor stone = pattern[j * CORNER_SIZE + i];
+                if (stone == StoneColor.EMPTY) continue;
+                int colorOffset = stone == StoneColor.WHITE ? CORNER_SIZE * CORNER_SIZE : 0;
+                normal ^= CORNER_KEYS[colorOffset + j * CORNER_SIZE + i];
+                reflected ^= CORNER_KEYS[colorOffset + i * CORNER_SIZE + j];
+            }
+        }
+        return Math.min(normal, reflected);
+    }
+}
@@ -0,0 +1,470 @@
+package com.example;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongFunction;
+import java.util.stream.Stream;
+
+/**
+ * On-disk index from position keys ({@link PositionHash}) to the games and moves where they occurred.
+ *
+ * Finished games are replayed on a background thread; every whole-board position and every changed corner
+ * region gives one entry (key, game id, move number), keeping only the first occurrence of a key per game.
+ * Entries collect in memory and are written as an immutable segment file sorted by key
+ * (index-000000.seg, ...) every go.index.flush-entries entries and on close. Lookups binary-search every
+ * read-only mapped segment plus the in-memory entries. When more than go.index.max-segments segments exist
+ * they are merged into one, so a lookup never touches more than a handful of files. Segment writes and merges
+ * run outside the monitor that lookups take; only swapping the finished segment in holds it.
+ *
+ * The background queue is bounded and never runs work on the submitting thread (a game actor): a game that
+ * does not fit is remembered by ID and indexed again once the queue has drained, with the blob fetched
+ * through the loader set by {@link #setBlobLoader}.
+ *
+ * Segment layout (big endian): magic 'P' 'I' 'X' 1, entry count (4), then entries of 20 bytes:
+ * key (8), game id (8), move number (4). Entries not yet flushed are lost on a crash.
+ */
+public class PositionIndex implements Closeable {
+    public static final int ENTRY_SIZE = 20;
+    private static final int HEADER_SIZE = 8;
+    private static final int MAGIC = 'P' << 24 | 'I' << 16 | 'X' << 8 | 1;
+    private static final long MAX_SEGMENT_ENTRIES = (Integer.MAX_VALUE - HEADER_SIZE) / ENTRY_SIZE;
+
+    private static final LongAdder ENTRIES = ServerMetrics.get().counter(
+            "go_index_entries_total", "Entries added to the position index");
+    private static final LongAdder GAMES = ServerMetrics.get().counter(
+            "go_index_games_total", "Games added to the position index");
+    private static final LongAdder DEFERRED = ServerMetrics.get().counter(
+            "go_index_deferred_games_total", "Games not queued for indexing because the queue was full");
+    private static final LatencyHistogram LOOKUP_TIME = ServerMetrics.get().histogram(
+            "go_index_lookup_seconds", "Position index lookup time");
+
+    private static final Comparator<Entry> ORDER = Comparator.comparingLong((Entry e) -> e.key)
+            .thenComparingLong(e -> e.gameId).thenComparingInt(e -> e.moveNumber);
+
+    private final Path directory;
+    private final int flushEntries;
+    private final int maxSegments;
+    private final int maxMove;
+    private final ThreadPoolExecutor indexer;
+    private final Queue<Long> deferred = new ConcurrentLinkedQueue<>();
+    private volatile LongFunction<byte[]> blobLoader;
+
+    /** Serializes segment writers (flush, merge, close); never taken while holding the monitor. */
+    private final Object writeLock = new Object();
+    // guarded by writeLock
+    private int nextSegment = 0;
+
+    // guarded by this
+    private final List<Segment> segments = new ArrayList<>();
+    private List<Entry> buffer = new ArrayList<>();
+    private List<Entry> flushing = List.of();
+
+    /**
+     * One occurrence of a position.
+     */
+    public static class Hit {
+        private final long gameId;
+        private final int moveNumber;
+
+        public Hit(long gameId, int moveNumber) {
+            this.gameId = gameId;
+            this.moveNumber = moveNumber;
+        }
+
+        public long getGameId() { return gameId; }
+        public int getMoveNumber() { return moveNumber; }
+    }
+
+    private static class Entry {
+        final long key;
+        final long gameId;
+        final int moveNumber;
+
+        Entry(long key, long gameId, int moveNumber) {
+            this.key = key;
+            this.gameId = gameId;
+            this.moveNumber = moveNumber;
+        }
+    }
+
+    private static class Segment {
+        final Path path;
+        final MappedByteBuffer data;
+        final int count;
+
+        Segment(Path path, MappedByteBuffer data) {
+            this.path = path;
+            this.data = data;
+            if (data.getInt(0) != MAGIC) {
+                throw new IllegalStateException("Uszkodzony segment indeksu: " + path);
+            }
+            this.count = data.getInt(4);
+        }
+
+        long key(int i) {
+            return data.getLong(HEADER_SIZE + i * ENTRY_SIZE);
+        }
+
+        Entry entry(int i) {
+            int offset = HEADER_SIZE + i * ENTRY_SIZE;
+            return new Entry(data.getLong(offset), data.getLong(offset + 8), data.getInt(offset + 16));
+        }
+
+        /**
+         * Index of the first entry with a key &gt;= the given one.
+         */
+        int lowerBound(long key) {
+            int low = 0;
+            int high = count;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (key(mid) < key) low = mid + 1;
+                else high = mid;
+            }
+            return low;
+        }
+    }
+
+    /**
+     * Read position of one segment during a merge.
+     */
+    private static class Cursor {
+        final Segment segment;
+        int position = 0;
+        Entry current;
+
+        Cursor(Segment segment) {
+            this.segment = segment;
+            this.current = segment.entry(0);
+        }
+
+        boolean advance() {
+            if (++position >= segment.count) return false;
+            current = segment.entry(position);
+            return true;
+        }
+    }
+
+    /**
+     * Opens (or creates) the index in the given directory.
+     * @param flushEntries in-memory entries that trigger writing a segment
+     * @param maxSegments segment count above which all segments are merged
+     * @param maxMove index only the first maxMove moves of each game; 0 indexes whole games
+     */
+    public PositionIndex(Path directory, int flushEntries, int maxSegments, int maxMove) throws IOException {
+        this.directory = directory;
+        this.flushEntries = Math.max(1, flushEntries);
+        this.maxSegments = Math.max(1, maxSegments);
+        this.maxMove = maxMove;
+        Files.createDirectories(directory);
+
+        List<Path> files = new ArrayList<>();
+        try (Stream<Path> list = Files.list(directory)) {
+            list.forEach(files::add);
+        }
+        files.sort(null);
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            if (name.endsWith(".tmp")) {
+                Files.delete(file);   // interrupted flush or merge
+            } else if (name.startsWith("index-") && name.endsWith(".seg")) {
+                segments.add(map(file));
+                nextSegment = Math.max(nextSegment, Integer.parseInt(name.substring(6, name.length() - 4)) + 1);
+            }
+        }
+        EventLog.info("Indeks pozycji: {} segmentów w {}", segments.size(), directory);
+
+        // bounded: when the indexer falls behind, the game is deferred instead of indexed by the finishing thread
+        indexer = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(1024), runnable -> {
+            Thread thread = new Thread(runnable, "position-indexer");
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Sets how a deferred game's {@link MoveCodec} blob is fetched again; the loader may return null.
+     */
+    public void setBlobLoader(LongFunction<byte[]> blobLoader) {
+        this.blobLoader = blobLoader;
+    }
+
+    /**
+     * Indexes a finished game in the background. Never blocks and never indexes on the calling thread.
+     */
+    public void submit(long gameId, byte[] moveBlob) {
+        try {
+            indexer.execute(() -> {
+                try {
+                    indexGame(gameId, moveBlob);
+                } catch (IOException | RuntimeException e) {
+                    EventLog.error("Błąd indeksowania gry {}", gameId, e);
+                }
+                if (indexer.getQueue().isEmpty()) indexDeferred();
+            });
+        } catch (RejectedExecutionException e) {
+            if (indexer.isShutdown()) return;
+            if (deferred.isEmpty()) {
+                EventLog.warn("Indeks pozycji: kolejka pełna, gry od {} zostaną zaindeksowane później", gameId);
+            }
+            deferred.add(gameId);
+            DEFERRED.increment();
+        }
+    }
+
+    /**
+     * Indexes the deferred games while no new game is waiting; runs on the indexer thread.
+     */
+    private void indexDeferred() {
+        LongFunction<byte[]> loader = blobLoader;
+        if (loader == null) return;
+        Long gameId;
+        while (indexer.getQueue().isEmpty() && (gameId = deferred.poll()) != null) {
+            try {
+                byte[] moveBlob = loader.apply(gameId);
+                if (moveBlob != null) indexGame(gameId, moveBlob);
+            } catch (IOException | RuntimeException e) {
+                EventLog.error("Błąd indeksowania gry {}", gameId, e);
+            }
+        }
+    }
+
+    /**
+     * Replays the game (a {@link MoveCodec} blob) and adds its positions to the index.
+     */
+    public void indexGame(long gameId, byte[] moveBlob) throws IOException {
+        int size = MoveCodec.boardSize(moveBlob);
+        List<MoveRecord> moves = MoveCodec.decode(gameId, moveBlob);
+        Position position = new Position(size);
+        PositionHash hash = new PositionHash(size);
+        Set<Long> seen = new HashSet<>();
+        List<Entry> entries = new ArrayList<>();
+
+        for (MoveRecord move : moves) {
+            if (maxMove > 0 && move.getMoveNumber() > maxMove) break;
+            if (!"MOVE".equals(move.getType())) continue;
+
+            int corners;
+            if (position.play(move.getX(), move.getY(), move.getColor()) > 0) {
+                hash.recompute(position);
+                corners = 0xF;
+            } else {
+                hash.toggle(move.getX(), move.getY(), move.getColor());
+                corners = hash.cornersContaining(move.getX(), move.getY());
+            }
+            add(entries, seen, hash.canonical(), gameId, move.getMoveNumber());
+            for (int corner = 0; corner < 4; corner++) {
+                long key = hash.corner(corner);
+                if ((corners & 1 << corner) != 0 && key != 0) {
+                    add(entries, seen, key, gameId, move.getMoveNumber());
+                }
+            }
+        }
+
+        boolean full;
+        synchronized (this) {
+            buffer.addAll(entries);
+            full = buffer.size() >= flushEntries;
+        }
+        ENTRIES.add(entries.size());
+        GAMES.increment();
+        if (full) {
+            flush();
+        }
+    }
+
+    private static void add(List<Entry> entries, Set<Long> seen, long key, long gameId, int moveNumber) {
+        if (seen.add(key)) {
+            entries.add(new Entry(key, gameId, moveNumber));
+        }
+    }
+
+    /**
+     * Finds up to limit games in which the key occurred (with the first move reaching it), ordered by game id.
+     */
+    public List<Hit> find(long key, int limit) {
+        long t0 = System.nanoTime();
+        List<Entry> found = new ArrayList<>();
+        synchronized (this) {
+            for (Segment segment : segments) {
+                for (int i = segment.lowerBound(key); i < segment.count && segment.key(i) == key; i++) {
+                    found.add(segment.entry(i));
+                }
+            }
+            for (Entry entry : buffer) {
+                if (entry.key == key) found.add(entry);
+            }
+            for (Entry entry : flushing) {
+                if (entry.key == key) found.add(entry);
+            }
+        }
+        found.sort(ORDER);
+        List<Hit> hits = new ArrayList<>(Math.min(limit, found.size()));
+        long lastGame = -1;
+        for (int i = 0; i < found.size() && hits.size() < limit; i++) {
+            Entry entry = found.get(i);
+            // one hit per game; also hides duplicates left by a merge interrupted before deleting its inputs
+            if (entry.gameId == lastGame) continue;
+            lastGame = entry.gameId;
+            hits.add(new Hit(entry.gameId, entry.moveNumber));
+        }
+        LOOKUP_TIME.recordValue(System.nanoTime() - t0);
+        return hits;
+    }
+
+    /**
+     * Writes the in-memory entries as a new segment and merges the segments if there are too many.
+     */
+    public void flush() throws IOException {
+        synchronized (writeLock) {
+            writeBuffer();
+            boolean tooMany;
+            synchronized (this) {
+                tooMany = segments.size() > maxSegments;
+            }
+            if (tooMany) {
+                merge();
+            }
+        }
+    }
+
+    /**
+     * Writes the in-memory entries as a new segment; lookups see them in {@link #flushing} meanwhile.
+     * The caller holds writeLock.
+     */
+    private void writeBuffer() throws IOException {
+        List<Entry> entries;
+        synchronized (this) {
+            if (buffer.isEmpty()) return;
+            entries = buffer;
+            buffer = new ArrayList<>();
+            flushing = entries;
+        }
+        Segment segment;
+        try {
+            List<Entry> sorted = new ArrayList<>(entries);
+            sorted.sort(ORDER);
+            segment = writeSegment(sorted.size(), sorted.iterator());
+        } catch (IOException | RuntimeException e) {
+            synchronized (this) {
+                buffer.addAll(entries);   // keep them for the next flush
+                flushing = List.of();
+            }
+            throw e;
+        }
+        synchronized (this) {
+            segments.add(segment);
+            flushing = List.of();
+        }
+    }
+
+    /**
+     * K-way merge of all segments into one; the inputs are streamed, never loaded as a whole.
+     * Lookups keep using the input segments until the merged one replaces them. The caller holds writeLock.
+     */
+    private void merge() throws IOException {
+        List<Segment> inputs;
+        synchronized (this) {
+            inputs = new ArrayList<>(segments);
+        }
+        long total = 0;
+        for (Segment segment : inputs) total += segment.count;
+        if (total > MAX_SEGMENT_ENTRIES) return;
+
+        PriorityQueue<Cursor> heads = new PriorityQueue<>(Comparator.comparing((Cursor c) -> c.current, ORDER));
+        for (Segment segment : inputs) {
+            if (segment.count > 0) heads.add(new Cursor(segment));
+        }
+        Iterator<Entry> merged = new Iterator<Entry>() {
+            @Override
+            public boolean hasNext() {
+                return !heads.isEmpty();
+            }
+
+            @Override
+            public Entry next() {
+                Cursor cursor = heads.poll();
+                Entry entry = cursor.current;
+                if (cursor.advance()) heads.add(cursor);
+                return entry;
+            }
+        };
+        Segment result = writeSegment((int) total, merged);
+
+        synchronized (this) {
+            segments.removeAll(inputs);
+            segments.add(result);
+        }
+        for (Segment segment : inputs) Files.deleteIfExists(segment.path);
+        EventLog.info("Indeks pozycji: scalono segmenty ({} wpisów)", total);
+    }
+
+    private Segment writeSegment(int count, Iterator<Entry> entries) throws IOException {
+        Path target = directory.resolve(String.format("index-%06d.seg", nextSegment++));
+        Path temp = directory.resolve(target.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            ByteBuffer out = ByteBuffer.allocate(64 * 1024);
+            out.putInt(MAGIC).putInt(count);
+            while (entries.hasNext()) {
+                Entry entry = entries.next();
+                if (out.remaining() < ENTRY_SIZE) {
+                    out.flip();
+                    while (out.hasRemaining()) channel.write(out);
+                    out.clear();
+                }
+                out.putLong(entry.key).putLong(entry.gameId).putInt(entry.moveNumber);
+            }
+            out.flip();
+            while (out.hasRemaining()) channel.write(out);
+            channel.force(true);
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        return map(target);
+    }
+
+    private static Segment map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new Segment(file, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Finishes queued indexing and writes the remaining entries.
+     */
+    @Override
+    public void close() throws IOException {
+        indexer.shutdown();
+        try {
+            indexer.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (writeLock) {
+            writeBuffer();
+        }
+        if (!deferred.isEmpty()) {
+            EventLog.warn("Indeks pozycji: {} gier nie zostało zaindeksowanych", deferred.size());
+        }
+    }
+}
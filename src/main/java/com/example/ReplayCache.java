@@ -0,0 +1,148 @@
+package com.example;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongFunction;
+
+/**
+ * Bounded cache of finished games for replays: the decoded move list plus board checkpoints every
+ * {@link ReplaySession#CHECKPOINT_INTERVAL} moves, so a popular game is loaded and simulated once
+ * instead of once per viewer. Eviction is least-recently-used by estimated heap footprint
+ * (go.replay.cache-bytes). Concurrent misses for the same game share one load (single flight).
+ */
+@Component
+public class ReplayCache {
+    private static final long MOVE_BYTES = 48;          // MoveRecord plus the list slot
+    private static final long CHECKPOINT_BYTES = 48;    // Checkpoint, array header and list slot
+    private static final long ENTRY_BYTES = 128;
+
+    private static final LongAdder HITS = ServerMetrics.get().counter(
+            "go_replay_cache_hits_total", "Replays served from the finished-game cache");
+    private static final LongAdder MISSES = ServerMetrics.get().counter(
+            "go_replay_cache_misses_total", "Replays that had to load the game");
+    private static final LongAdder EVICTIONS = ServerMetrics.get().counter(
+            "go_replay_cache_evictions_total", "Games evicted from the replay cache");
+
+    private final long maxBytes;
+    private final Map<Long, CompletableFuture<CachedGame>> loading = new ConcurrentHashMap<>();
+
+    // guarded by this
+    private final LinkedHashMap<Long, CachedGame> games = new LinkedHashMap<>(64, 0.75f, true);
+    private long bytes = 0;
+
+    /**
+     * A finished game ready to replay; shared by every session, never modified.
+     */
+    public static class CachedGame {
+        private final int boardSize;
+        private final List<MoveRecord> moves;
+        private final List<Checkpoint> checkpoints;
+        private final long weight;
+
+        public CachedGame(long gameId, int boardSize, List<MoveRecord> moves) {
+            this.boardSize = boardSize;
+            this.moves = Collections.unmodifiableList(new ArrayList<>(moves));
+
+            List<Checkpoint> built = new ArrayList<>();
+            Position position = new Position(boardSize);
+            long checkpointBytes = 0;
+            for (int i = 0; i < moves.size(); i++) {
+                position.apply(moves.get(i));
+                if ((i + 1) % ReplaySession.CHECKPOINT_INTERVAL == 0) {
+                    byte[] packed = position.pack();
+                    built.add(new Checkpoint(gameId, i + 1, packed));
+                    checkpointBytes += CHECKPOINT_BYTES + packed.length;
+                }
+            }
+            this.checkpoints = Collections.unmodifiableList(built);
+            this.weight = ENTRY_BYTES + MOVE_BYTES * moves.size() + checkpointBytes;
+        }
+
+        public int getBoardSize() { return boardSize; }
+        public List<MoveRecord> getMoves() { return moves; }
+        public List<Checkpoint> getCheckpoints() { return checkpoints; }
+        public long getWeight() { return weight; }
+    }
+
+    public ReplayCache(@Value("${go.replay.cache-bytes:67108864}") long maxBytes) {
+        this.maxBytes = maxBytes;
+        ServerMetrics.get().gauge("go_replay_cache_bytes", "Estimated heap held by the replay cache", this::getBytes);
+        ServerMetrics.get().gauge("go_replay_cache_games", "Games held by the replay cache", this::size);
+    }
+
+    /**
+     * Returns the cached game, or loads it with the loader; a null from the loader (e.g. the game is not
+     * finished yet) is passed through and not cached. Callers asking for a game that is already being
+     * loaded wait for that load instead of starting their own.
+     */
+    public CachedGame get(long gameId, LongFunction<CachedGame> loader) {
+        synchronized (this) {
+            CachedGame cached = games.get(gameId);
+            if (cached != null) {
+                HITS.increment();
+                return cached;
+            }
+        }
+
+        CompletableFuture<CachedGame> mine = new CompletableFuture<>();
+        CompletableFuture<CachedGame> pending = loading.putIfAbsent(gameId, mine);
+        if (pending != null) {
+            HITS.increment();
+            return pending.join();
+        }
+
+        try {
+            CachedGame loaded;
+            synchronized (this) {
+                loaded = games.get(gameId);   // completed by another caller between the two checks
+            }
+            if (loaded != null) {
+                HITS.increment();
+                mine.complete(loaded);
+                return loaded;
+            }
+            MISSES.increment();
+            loaded = loader.apply(gameId);
+            if (loaded != null) put(gameId, loaded);
+            mine.complete(loaded);
+            return loaded;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(gameId, mine);
+        }
+    }
+
+    private synchronized void put(long gameId, CachedGame game) {
+        if (game.getWeight() > maxBytes) return;
+        CachedGame previous = games.put(gameId, game);
+        if (previous != null) bytes -= previous.getWeight();
+        bytes += game.getWeight();
+
+        Iterator<CachedGame> eldest = games.values().iterator();
+        while (bytes > maxBytes && eldest.hasNext()) {
+            bytes -= eldest.next().getWeight();
+            eldest.remove();
+            EVICTIONS.increment();
+        }
+    }
+
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    public synchronized int size() {
+        return games.size();
+    }
+}
@@ -0,0 +1,233 @@
+package com.example;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * Replay of one recorded game for one viewer, with random access to any move.
+ * The session keeps the move list and the board checkpoints; seeking restores the nearest
+ * checkpoint at or before the target and applies at most one checkpoint interval of moves,
+ * so it costs the same at move 5 as at move 300. Automatic playback is driven by the
+ * {@link GameExecutor} timer; no thread is held while waiting between moves.
+ *
+ * Moves arrive in pages ({@link #appendMoves}), so playback starts with the first page while
+ * the rest is still loading. A seek past the loaded moves completes when the page arrives.
+ *
+ * Viewer commands: SEEK &lt;n&gt;, STEP [k] (k may be negative), PAUSE, SPEED &lt;ms&gt;, STOP.
+ */
+public class ReplaySession {
+    public static final long DEFAULT_DELAY_MS = 800;
+    public static final int CHECKPOINT_INTERVAL = Math.max(1, Integer.getInteger("go.replay.checkpointInterval", 50));
+
+    private final long gameId;
+    private final Player viewer;
+    private final GameExecutor executor;
+    private final Position position;
+
+    // guarded by this
+    private final List<MoveRecord> moves = new ArrayList<>();
+    private final List<Checkpoint> checkpoints = new ArrayList<>();
+    private Position checkpointBuilder;
+    private boolean complete = false;
+    private int current = 0;
+    private int target = 0;
+    private long delayMillis = 0;
+    private ScheduledFuture<?> nextTick;
+    private long tickGeneration = 0;
+    private boolean stopped = false;
+
+    /**
+     * @param checkpoints stored checkpoints ordered by move number; when empty they are built from the moves as they arrive
+     */
+    public ReplaySession(long gameId, int boardSize, List<Checkpoint> checkpoints, Player viewer, GameExecutor executor) {
+        this.gameId = gameId;
+        this.viewer = viewer;
+        this.executor = executor;
+        this.position = new Position(boardSize);
+        this.checkpoints.addAll(checkpoints);
+        if (checkpoints.isEmpty()) {
+            checkpointBuilder = new Position(boardSize);
+        }
+    }
+
+    /**
+     * Convenience constructor for a fully loaded game.
+     */
+    public ReplaySession(long gameId, int boardSize, List<MoveRecord> moves, List<Checkpoint> checkpoints,
+                         Player viewer, GameExecutor executor) {
+        this(gameId, boardSize, checkpoints, viewer, executor);
+        appendMoves(moves, true);
+    }
+
+    /**
+     * Adds the next page of moves (in move order) and resumes a seek or playback that was waiting for it.
+     */
+    public synchronized void appendMoves(List<MoveRecord> page, boolean last) {
+        for (MoveRecord move : page) {
+            moves.add(move);
+            if (checkpointBuilder != null) {
+                checkpointBuilder.apply(move);
+                if (moves.size() % CHECKPOINT_INTERVAL == 0) {
+                    checkpoints.add(new Checkpoint(gameId, moves.size(), checkpointBuilder.pack()));
+                }
+            }
+        }
+        if (last) {
+            complete = true;
+            checkpointBuilder = null;
+            target = Math.min(target, moves.size());
+        }
+
+        if (current < target) {
+            advance();
+        } else if (delayMillis > 0 && nextTick == null && !stopped) {
+            scheduleTick();
+        }
+    }
+
+    public synchronized int getMoveCount() {
+        return moves.size();
+    }
+
+    public synchronized int getCurrentMove() {
+        return current;
+    }
+
+    /**
+     * Shows the position after the given move and starts playback if delayMillis &gt; 0.
+     */
+    public synchronized void start(int fromMove, long delayMillis) {
+        viewer.sendMessage("MESSAGE --- Rozpoczynam powtórkę gry ID: " + gameId + " ---");
+        seek(fromMove);
+        setSpeed(delayMillis);
+    }
+
+    /**
+     * Jumps to the position after move n (0 = empty board).
+     */
+    public synchronized void seek(int n) {
+        target = complete ? Math.max(0, Math.min(n, moves.size())) : Math.max(0, n);
+        advance();
+    }
+
+    public synchronized void step(int count) {
+        seek(current + count);
+    }
+
+    public synchronized void pause() {
+        setSpeed(0);
+    }
+
+    /**
+     * Plays on automatically with the given delay between moves; 0 pauses.
+     */
+    public synchronized void setSpeed(long delayMillis) {
+        this.delayMillis = Math.max(0, delayMillis);
+        cancelTick();
+        if (this.delayMillis > 0 && !stopped) {
+            scheduleTick();
+        }
+    }
+
+    public synchronized void stop() {
+        stopped = true;
+        cancelTick();
+    }
+
+    public synchronized boolean isStopped() {
+        return stopped;
+    }
+
+    /**
+     * Moves towards the seek target as far as the loaded moves allow and reports the position once reached.
+     */
+    private void advance() {
+        moveTo(Math.min(target, moves.size()));
+        if (current == target) {
+            sendFrame();
+            viewer.sendMessage("MESSAGE Powtórka: ruch " + current + (complete ? "/" + moves.size() : ""));
+        }
+    }
+
+    /**
+     * Positions the board after the first n moves: short forward steps apply moves directly,
+     * anything else restores the nearest checkpoint first.
+     */
+    private void moveTo(int n) {
+        if (n < current || n - current > CHECKPOINT_INTERVAL) {
+            Checkpoint base = nearestCheckpoint(n);
+            if (base == null) {
+                if (n < current) {
+                    position.clear();
+                    current = 0;
+                }
+            } else if (base.getMoveNumber() > current || n < current) {
+                position.restore(base.getBoard());
+                current = base.getMoveNumber();
+            }
+        }
+        while (current < n) {
+            position.apply(moves.get(current++));
+        }
+    }
+
+    private Checkpoint nearestCheckpoint(int n) {
+        int low = 0;
+        int high = checkpoints.size() - 1;
+        Checkpoint best = null;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            Checkpoint checkpoint = checkpoints.get(mid);
+            if (checkpoint.getMoveNumber() <= n) {
+                best = checkpoint;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return best;
+    }
+
+    private void sendFrame() {
+        viewer.sendMessage("BOARD " + position.toBoardString());
+    }
+
+    private void scheduleTick() {
+        long generation = ++tickGeneration;
+        nextTick = executor.schedule(() -> executor.execute(() -> tick(generation)), delayMillis);
+    }
+
+    /**
+     * Invalidates the pending tick, including one the timer has already handed to a worker.
+     */
+    private void cancelTick() {
+        tickGeneration++;
+        if (nextTick != null) {
+            nextTick.cancel(false);
+            nextTick = null;
+        }
+    }
+
+    private synchronized void tick(long generation) {
+        if (stopped || generation != tickGeneration) return;
+        nextTick = null;
+
+        if (current < moves.size()) {
+            MoveRecord move = moves.get(current);
+            target = current + 1;
+            moveTo(target);
+            if ("SURRENDER".equals(move.getType())) {
+                viewer.sendMessage("MESSAGE Gracz " + move.getColor() + " poddał się (w historii).");
+            }
+            sendFrame();
+        }
+        if (complete && current >= moves.size()) {
+            delayMillis = 0;
+            viewer.sendMessage("MESSAGE --- Koniec powtórki ---");
+        } else if (current < moves.size()) {
+            scheduleTick();
+        }
+        // otherwise the next page has not arrived yet; appendMoves schedules the next tick
+    }
+}
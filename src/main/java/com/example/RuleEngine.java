@@ -68,6 +68,15 @@ public class RuleEngine {
         return true;
     }
 
+    /**
+     * Odtwarza historię potrzebną do zasady KO (np. po wczytaniu przerwanej gry):
+     * stany planszy po dwóch ostatnich zaakceptowanych ruchach, w formacie Board.getGridCopy().
+     */
+    public void restoreHistory(StoneColor[][] twoTurnsAgo, StoneColor[][] oneTurnAgo) {
+        this.stateTwoTurnsAgo = twoTurnsAgo;
+        this.stateOneTurnAgo = oneTurnAgo;
+    }
+
     /**
      * Zwraca liczbę kamieni zbitych w ostatnim zaakceptowanym ruchu.
      * Wywoływane przez Game.java po isMoveValid() == true.
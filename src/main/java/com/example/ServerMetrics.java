@@ -0,0 +1,159 @@
+package com.example;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Process-wide registry of server metrics: counters, gauges and latency histograms.
+ * Call sites look a metric up once (typically into a static final field) and then only touch
+ * a {@link LongAdder} or {@link LatencyHistogram}, so recording costs a few nanoseconds.
+ * Everything is exposed through JMX and as plain text on a local HTTP port.
+ */
+public class ServerMetrics {
+    private static final ServerMetrics INSTANCE = new ServerMetrics();
+    private static final double[] QUANTILES = {50, 90, 99, 99.9};
+    private static final String[] QUANTILE_LABELS = {"0.5", "0.9", "0.99", "0.999"};
+
+    private final Map<String, Metric<LongAdder>> counters = new ConcurrentSkipListMap<>();
+    private final Map<String, Metric<LongAdder>> levels = new ConcurrentSkipListMap<>();
+    private final Map<String, Metric<LongSupplier>> gauges = new ConcurrentSkipListMap<>();
+    private final Map<String, Metric<LatencyHistogram>> histograms = new ConcurrentSkipListMap<>();
+
+    private boolean started = false;
+    private MetricsEndpoint endpoint;
+
+    private static class Metric<T> {
+        final String help;
+        final T value;
+
+        Metric(String help, T value) {
+            this.help = help;
+            this.value = value;
+        }
+    }
+
+    public static ServerMetrics get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the monotonically increasing counter with the given name, creating it on first use.
+     */
+    public LongAdder counter(String name, String help) {
+        return counters.computeIfAbsent(name, n -> new Metric<>(help, new LongAdder())).value;
+    }
+
+    /**
+     * Returns an up/down counter reported as a gauge (e.g. open connections).
+     */
+    public LongAdder gauge(String name, String help) {
+        return levels.computeIfAbsent(name, n -> new Metric<>(help, new LongAdder())).value;
+    }
+
+    /**
+     * Registers a gauge whose value is read from the supplier at scrape time.
+     */
+    public void gauge(String name, String help, LongSupplier supplier) {
+        gauges.put(name, new Metric<>(help, supplier));
+    }
+
+    /**
+     * Returns the latency histogram (values in nanoseconds) with the given name, creating it on first use.
+     */
+    public LatencyHistogram histogram(String name, String help) {
+        return histograms.computeIfAbsent(name, n -> new Metric<>(help, new LatencyHistogram())).value;
+    }
+
+    /**
+     * Registers the JMX bean and starts the text endpoint on 127.0.0.1:port (skipped if port &lt;= 0).
+     * Safe to call more than once.
+     */
+    public synchronized void start(int port) {
+        if (started) return;
+        started = true;
+
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            server.registerMBean(new MetricsMBean(this), new ObjectName("com.example:type=ServerMetrics"));
+        } catch (Exception e) {
+            EventLog.warn("Nie udało się zarejestrować metryk JMX: {}", e.getMessage());
+        }
+
+        if (port > 0) {
+            try {
+                endpoint = new MetricsEndpoint(this, port);
+                endpoint.start();
+            } catch (IOException e) {
+                EventLog.warn("Nie udało się uruchomić endpointu metryk na porcie {}: {}", port, e.getMessage());
+            }
+        }
+    }
+
+    Map<String, Long> counterValues() {
+        Map<String, Long> values = new ConcurrentSkipListMap<>();
+        counters.forEach((name, metric) -> values.put(name, metric.value.sum()));
+        return values;
+    }
+
+    Map<String, Long> gaugeValues() {
+        Map<String, Long> values = new ConcurrentSkipListMap<>();
+        levels.forEach((name, metric) -> values.put(name, metric.value.sum()));
+        gauges.forEach((name, metric) -> values.put(name, metric.value.getAsLong()));
+        return values;
+    }
+
+    Map<String, LatencyHistogram> histogramValues() {
+        Map<String, LatencyHistogram> values = new ConcurrentSkipListMap<>();
+        histograms.forEach((name, metric) -> values.put(name, metric.value));
+        return values;
+    }
+
+    /**
+     * Renders all metrics in the Prometheus text exposition format.
+     * Histograms are reported as summaries in seconds.
+     */
+    public String scrape() {
+        StringBuilder sb = new StringBuilder(4096);
+        counters.forEach((name, metric) -> {
+            header(sb, name, metric.help, "counter");
+            sb.append(name).append(' ').append(metric.value.sum()).append('\n');
+        });
+        levels.forEach((name, metric) -> {
+            header(sb, name, metric.help, "gauge");
+            sb.append(name).append(' ').append(metric.value.sum()).append('\n');
+        });
+        gauges.forEach((name, metric) -> {
+            header(sb, name, metric.help, "gauge");
+            sb.append(name).append(' ').append(metric.value.getAsLong()).append('\n');
+        });
+        histograms.forEach((name, metric) -> {
+            LatencyHistogram h = metric.value;
+            header(sb, name, metric.help, "summary");
+            for (int i = 0; i < QUANTILES.length; i++) {
+                sb.append(name).append("{quantile=\"").append(QUANTILE_LABELS[i]).append("\"} ")
+                        .append(seconds(h.getValueAtPercentile(QUANTILES[i]))).append('\n');
+            }
+            sb.append(name).append("_sum ").append(seconds(h.getSum())).append('\n');
+            sb.append(name).append("_count ").append(h.getCount()).append('\n');
+            header(sb, name + "_max", "Maximum of " + name, "gauge");
+            sb.append(name).append("_max ").append(seconds(h.getMax())).append('\n');
+        });
+        return sb.toString();
+    }
+
+    private static void header(StringBuilder sb, String name, String help, String type) {
+        sb.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        sb.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static String seconds(long nanos) {
+        return String.format(Locale.ROOT, "%.9f", nanos / 1e9);
+    }
+}
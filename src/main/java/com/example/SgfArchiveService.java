@@ -0,0 +1,322 @@
+package com.example;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * SGF import and export of the game archive.
+ *
+ * Export streams game by game: the catalogue is read in keyset pages of {@link #EXPORT_PAGE_SIZE} games,
+ * so the whole archive is never in memory. Import is a three-stage pipeline joined by bounded queues:
+ * one reader splits the files into game texts, N workers parse and validate them with {@link RuleEngine},
+ * and the calling thread writes the accepted games in batches (one games row and one game_blobs row with the
+ * MoveCodec blob per game)
+ * and hands them to the {@link PositionIndex}.
+ * A slow database therefore backs up the queues and stops the reader instead of filling the heap.
+ */
+@Service
+public class SgfArchiveService {
+    public static final int EXPORT_PAGE_SIZE = 100;
+
+    private static final LongAdder IMPORTED = ServerMetrics.get().counter(
+            "go_sgf_imported_total", "Games imported from SGF");
+    private static final LongAdder REJECTED = ServerMetrics.get().counter(
+            "go_sgf_rejected_total", "SGF games rejected as unparseable or illegal");
+    private static final LongAdder EXPORTED = ServerMetrics.get().counter(
+            "go_sgf_exported_total", "Games exported to SGF");
+
+    /** Queue end marker, compared by identity. */
+    private static final String END_OF_INPUT = new String("END");
+    private static final ImportedGame END_OF_GAMES = new ImportedGame(null, null);
+
+    private static final int LOGGED_REJECTS = 20;
+
+    @Autowired
+    private GameRepository gameRepository;
+
+    @Autowired
+    private GameBlobRepository gameBlobRepository;
+
+    @Autowired
+    private MoveStore moveStore;
+
+    @Autowired
+    private PositionIndex positionIndex;
+
+    @Value("${go.sgf.import-threads:0}")
+    private int importThreads;
+
+    @Value("${go.sgf.import-batch-size:500}")
+    private int batchSize;
+
+    @Value("${go.sgf.queue-capacity:1024}")
+    private int queueCapacity;
+
+    /**
+     * Outcome of one import run.
+     */
+    public static class ImportReport {
+        private final long imported;
+        private final long rejected;
+        private final long elapsedMillis;
+
+        public ImportReport(long imported, long rejected, long elapsedMillis) {
+            this.imported = imported;
+            this.rejected = rejected;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        public long getImported() { return imported; }
+        public long getRejected() { return rejected; }
+        public long getElapsedMillis() { return elapsedMillis; }
+    }
+
+    /**
+     * A validated game on its way from the validators to the writer.
+     */
+    private static class ImportedGame {
+        final GameEntity game;
+        final byte[] moveBlob;
+
+        ImportedGame(GameEntity game, byte[] moveBlob) {
+            this.game = game;
+            this.moveBlob = moveBlob;
+        }
+    }
+
+    // ---- export ----
+
+    /**
+     * Writes one game as SGF. Returns false if the game does not exist.
+     */
+    public boolean exportGame(long gameId, Writer out) throws IOException {
+        GameEntity game = gameRepository.findById(gameId).orElse(null);
+        if (game == null) return false;
+        GameBlobEntity blob = gameBlobRepository.findById(gameId).orElse(null);
+        writeGame(game, blob == null ? null : blob.getMoveBlob(), out);
+        return true;
+    }
+
+    /**
+     * Writes every game that has moves as one SGF collection, in game ID order. Returns the number of games written.
+     */
+    public long exportAll(Writer out) throws IOException {
+        long written = 0;
+        long afterId = 0;
+        while (true) {
+            List<GameEntity> page = gameRepository.findByIdGreaterThanOrderByIdAsc(afterId, PageRequest.of(0, EXPORT_PAGE_SIZE));
+            List<Long> ids = new ArrayList<>(page.size());
+            for (GameEntity game : page) ids.add(game.getId());
+            Map<Long, byte[]> blobs = new HashMap<>();
+            for (GameBlobEntity blob : gameBlobRepository.findAllById(ids)) {
+                blobs.put(blob.getGameId(), blob.getMoveBlob());
+            }
+            for (GameEntity game : page) {
+                if (writeGame(game, blobs.get(game.getId()), out)) written++;
+            }
+            if (page.size() < EXPORT_PAGE_SIZE) break;
+            afterId = page.get(page.size() - 1).getId();
+        }
+        out.flush();
+        return written;
+    }
+
+    private boolean writeGame(GameEntity game, byte[] moveBlob, Writer out) throws IOException {
+        List<MoveRecord> moves = moveBlob != null
+                ? MoveCodec.decode(game.getId(), moveBlob)
+                : moveStore.loadMoves(game.getId());
+        if (moves.isEmpty()) return false;
+        SgfCodec.write(out, game.getBoardSize(), game.getResult(), moves);
+        EXPORTED.increment();
+        return true;
+    }
+
+    // ---- import ----
+
+    /**
+     * Imports all games from the given SGF files; directories are searched recursively for *.sgf.
+     */
+    public ImportReport importFiles(List<Path> paths) throws IOException, InterruptedException {
+        List<Path> files = new ArrayList<>();
+        for (Path path : paths) {
+            if (Files.isDirectory(path)) {
+                try (Stream<Path> walk = Files.walk(path)) {
+                    files.addAll(walk.filter(p -> p.getFileName().toString().toLowerCase().endsWith(".sgf"))
+                            .sorted()
+                            .collect(Collectors.toList()));
+                }
+            } else {
+                files.add(path);
+            }
+        }
+        return importGames(files);
+    }
+
+    private ImportReport importGames(List<Path> files) throws IOException, InterruptedException {
+        long started = System.currentTimeMillis();
+        int workers = importThreads > 0 ? importThreads : Runtime.getRuntime().availableProcessors();
+        BlockingQueue<String> texts = new ArrayBlockingQueue<>(queueCapacity);
+        BlockingQueue<ImportedGame> accepted = new ArrayBlockingQueue<>(queueCapacity);
+        LongAdder rejected = new LongAdder();
+        IOException[] readError = new IOException[1];
+
+        Thread reader = new Thread(() -> {
+            try {
+                for (Path file : files) {
+                    // SGF structure is ASCII; ISO-8859-1 never fails on whatever encoding the comments use
+                    try (Reader in = Files.newBufferedReader(file, StandardCharsets.ISO_8859_1)) {
+                        SgfCodec.readGames(in, texts::put);
+                    }
+                }
+            } catch (IOException e) {
+                readError[0] = e;
+            } catch (InterruptedException e) {
+                return;
+            }
+            try {
+                for (int i = 0; i < workers; i++) texts.put(END_OF_INPUT);
+            } catch (InterruptedException ignored) {
+                // import aborted by the writer
+            }
+        }, "sgf-reader");
+
+        AtomicInteger running = new AtomicInteger(workers);
+        AtomicReference<Throwable> workerError = new AtomicReference<>();
+        ExecutorService validators = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "sgf-validator");
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < workers; i++) {
+            validators.execute(() -> {
+                try {
+                    String text;
+                    while ((text = texts.take()) != END_OF_INPUT) {
+                        ImportedGame game = toEntity(text, rejected);
+                        if (game != null) accepted.put(game);
+                    }
+                } catch (InterruptedException ignored) {
+                    // import aborted by the writer
+                } catch (Throwable e) {
+                    workerError.compareAndSet(null, e);
+                } finally {
+                    // the last validator out, or one that failed, ends the writer's loop so it never waits forever
+                    if (running.decrementAndGet() == 0 || workerError.get() != null) {
+                        try {
+                            accepted.put(END_OF_GAMES);
+                        } catch (InterruptedException ignored) {
+                            // import aborted by the writer
+                        }
+                    }
+                }
+            });
+        }
+        reader.start();
+
+        long imported = 0;
+        try {
+            List<ImportedGame> batch = new ArrayList<>(batchSize);
+            ImportedGame game;
+            while ((game = accepted.take()) != END_OF_GAMES) {
+                batch.add(game);
+                if (batch.size() >= batchSize) {
+                    imported += writeBatch(batch);
+                }
+            }
+            imported += writeBatch(batch);
+        } finally {
+            reader.interrupt();
+            validators.shutdownNow();
+            validators.awaitTermination(10, TimeUnit.SECONDS);
+        }
+        reader.join();
+        if (readError[0] != null) throw readError[0];
+        if (workerError.get() != null) {
+            throw new IllegalStateException("Import SGF przerwany po " + imported + " grach: błąd walidacji", workerError.get());
+        }
+
+        long elapsed = System.currentTimeMillis() - started;
+        EventLog.info("SGF: zaimportowano {} gier, odrzucono {} ({} ms)", imported, rejected.sum(), elapsed);
+        return new ImportReport(imported, rejected.sum(), elapsed);
+    }
+
+    private int writeBatch(List<ImportedGame> batch) {
+        if (batch.isEmpty()) return 0;
+        LocalDateTime finished = LocalDateTime.now();
+        List<GameEntity> games = new ArrayList<>(batch.size());
+        for (ImportedGame imported : batch) {
+            imported.game.setFinishTime(finished);
+            games.add(imported.game);
+        }
+        gameRepository.saveAll(games);
+        List<GameBlobEntity> blobs = new ArrayList<>(batch.size());
+        for (ImportedGame imported : batch) blobs.add(new GameBlobEntity(imported.game.getId(), imported.moveBlob));
+        gameBlobRepository.saveAll(blobs);
+        for (ImportedGame imported : batch) {
+            positionIndex.submit(imported.game.getId(), imported.moveBlob);
+        }
+        int size = batch.size();
+        IMPORTED.add(size);
+        batch.clear();
+        return size;
+    }
+
+    private ImportedGame toEntity(String text, LongAdder rejected) {
+        try {
+            SgfCodec.SgfRecord record = SgfCodec.parse(text);
+            byte[] blob = validate(record);
+            GameEntity game = new GameEntity(record.getBoardSize());
+            game.setResult(record.getResult());
+            return new ImportedGame(game, blob);
+        } catch (RuntimeException e) {
+            // IllegalArgumentException for bad input; anything else must not stall the pipeline either
+            rejected.increment();
+            REJECTED.increment();
+            if (rejected.sum() <= LOGGED_REJECTS) {
+                EventLog.warn("SGF: odrzucono grę: {}", e.getMessage());
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Replays the game through the server's rules and returns its MoveCodec blob.
+     * @throws IllegalArgumentException on the first illegal move
+     */
+    public static byte[] validate(SgfCodec.SgfRecord record) {
+        Board board = new Board(record.getBoardSize());
+        RuleEngine ruleEngine = new RuleEngine();
+        for (MoveRecord move : record.getMoves()) {
+            if ("MOVE".equals(move.getType())
+                    && !ruleEngine.isMoveValid(board, move.getX(), move.getY(), move.getColor())) {
+                throw new IllegalArgumentException("nielegalny ruch nr " + move.getMoveNumber()
+                        + " (" + move.getX() + "," + move.getY() + ")");
+            }
+        }
+        return MoveCodec.toBlob(record.getBoardSize(), record.getMoves());
+    }
+}
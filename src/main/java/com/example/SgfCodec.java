@@ -0,0 +1,288 @@
+package com.example;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Minimal SGF (FF[4]) reader and writer for the game archive.
+ * Only what the server can represent is kept: board size, result and the main line of B/W moves.
+ * Variations are skipped (the first one is followed) and comments or player names are ignored.
+ */
+public final class SgfCodec {
+    public static final int MAX_BOARD_SIZE = 25;
+
+    private SgfCodec() {}
+
+    /**
+     * One parsed game: moves carry game id 0 and sequential move numbers.
+     */
+    public static class SgfRecord {
+        private final int boardSize;
+        private final String result;
+        private final List<MoveRecord> moves;
+
+        public SgfRecord(int boardSize, String result, List<MoveRecord> moves) {
+            this.boardSize = boardSize;
+            this.result = result;
+            this.moves = moves;
+        }
+
+        public int getBoardSize() { return boardSize; }
+        public String getResult() { return result; }
+        public List<MoveRecord> getMoves() { return moves; }
+    }
+
+    /**
+     * Receives the raw text of one game tree; may block (e.g. on a full queue).
+     */
+    public interface GameTextConsumer {
+        void accept(String gameText) throws InterruptedException;
+    }
+
+    // ---- writing ----
+
+    /**
+     * Writes one game as an SGF game tree. A trailing SURRENDER becomes RE[x+R] instead of a node.
+     */
+    public static void write(Writer out, int boardSize, String result, List<MoveRecord> moves) throws IOException {
+        StringBuilder sb = new StringBuilder(32 + moves.size() * 6);
+        boolean resigned = !moves.isEmpty() && "SURRENDER".equals(moves.get(moves.size() - 1).getType());
+
+        sb.append("(;GM[1]FF[4]CA[UTF-8]SZ[").append(boardSize).append(']');
+        String re = toSgfResult(result, resigned);
+        if (re != null) sb.append("RE[").append(re).append(']');
+
+        for (MoveRecord move : moves) {
+            if ("SURRENDER".equals(move.getType())) continue;
+            sb.append(';').append(move.getColor() == StoneColor.WHITE ? 'W' : 'B').append('[');
+            if ("MOVE".equals(move.getType())) {
+                sb.append((char) ('a' + move.getX())).append((char) ('a' + move.getY()));
+            }
+            sb.append(']');
+        }
+        sb.append(")\n");
+        out.write(sb.toString());
+    }
+
+    private static String toSgfResult(String result, boolean resigned) {
+        if (result == null) return null;
+        switch (result) {
+            case "BLACK_WON": return resigned ? "B+R" : "B+";
+            case "WHITE_WON": return resigned ? "W+R" : "W+";
+            case "DRAW": return "0";
+            default: return null;
+        }
+    }
+
+    // ---- reading ----
+
+    /**
+     * Splits a stream holding one or more SGF game trees and hands each tree's text to the consumer,
+     * without ever holding more than one game in memory.
+     */
+    public static void readGames(Reader in, GameTextConsumer consumer) throws IOException, InterruptedException {
+        StringBuilder current = new StringBuilder();
+        int depth = 0;
+        boolean inValue = false;
+        boolean escaped = false;
+        int c;
+        while ((c = in.read()) != -1) {
+            if (depth == 0 && c != '(') continue;
+            current.append((char) c);
+            if (inValue) {
+                if (escaped) escaped = false;
+                else if (c == '\\') escaped = true;
+                else if (c == ']') inValue = false;
+            } else if (c == '[') {
+                inValue = true;
+            } else if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth--;
+                if (depth == 0) {
+                    consumer.accept(current.toString());
+                    current.setLength(0);
+                }
+            }
+        }
+    }
+
+    /**
+     * Parses one game tree (main line only).
+     * @throws IllegalArgumentException if the text is not a game this server can store
+     */
+    public static SgfRecord parse(String text) {
+        Parser parser = new Parser(text);
+        parser.parseTree(true);
+
+        if (parser.setupStones) {
+            throw new IllegalArgumentException("kamienie startowe (AB/AW) nie są obsługiwane");
+        }
+        int size = parser.size;
+        if (size < 2 || size > MAX_BOARD_SIZE) {
+            throw new IllegalArgumentException("nieobsługiwany rozmiar planszy " + size);
+        }
+
+        List<MoveRecord> moves = new ArrayList<>(parser.moves.size() + 1);
+        for (String[] m : parser.moves) {
+            StoneColor color = m[0].equals("W") ? StoneColor.WHITE : StoneColor.BLACK;
+            String value = m[1];
+            int number = moves.size() + 1;
+            if (value.isEmpty() || (value.equals("tt") && size <= 19)) {
+                moves.add(new MoveRecord(0, number, -1, -1, color, "PASS"));
+            } else {
+                if (value.length() != 2) throw new IllegalArgumentException("nieprawidłowy ruch " + value);
+                int x = value.charAt(0) - 'a';
+                int y = value.charAt(1) - 'a';
+                if (x < 0 || x >= size || y < 0 || y >= size) {
+                    throw new IllegalArgumentException("ruch poza planszą " + value);
+                }
+                moves.add(new MoveRecord(0, number, x, y, color, "MOVE"));
+            }
+        }
+
+        String result = fromSgfResult(parser.result);
+        if (parser.result != null && parser.result.length() > 2 && parser.result.charAt(2) == 'R') {
+            // resignation: the loser's surrender is part of our move record
+            StoneColor loser = result.equals("BLACK_WON") ? StoneColor.WHITE : StoneColor.BLACK;
+            moves.add(new MoveRecord(0, moves.size() + 1, -1, -1, loser, "SURRENDER"));
+        }
+        return new SgfRecord(size, result, moves);
+    }
+
+    private static String fromSgfResult(String re) {
+        if (re == null || re.isEmpty()) return "UNKNOWN";
+        if (re.startsWith("B+")) return "BLACK_WON";
+        if (re.startsWith("W+")) return "WHITE_WON";
+        if (re.equals("0") || re.equalsIgnoreCase("Draw") || re.equalsIgnoreCase("Jigo")) return "DRAW";
+        return "UNKNOWN";
+    }
+
+    private static class Parser {
+        private final String text;
+        private int pos = 0;
+
+        int size = 19;
+        String result;
+        boolean setupStones = false;
+        final List<String[]> moves = new ArrayList<>();
+
+        Parser(String text) {
+            this.text = text;
+        }
+
+        /**
+         * One open "(": whether it is on the main line and whether its child trees have started.
+         */
+        private static class OpenTree {
+            final boolean mainLine;
+            boolean inChildren = false;
+
+            OpenTree(boolean mainLine) {
+                this.mainLine = mainLine;
+            }
+        }
+
+        /**
+         * Parses "( sequence tree* )"; only the first child of each tree continues the main line.
+         * Nested variations are tracked on an explicit stack, so a deeply nested file cannot overflow the thread stack.
+         */
+        void parseTree(boolean mainLine) {
+            Deque<OpenTree> open = new ArrayDeque<>();
+            expect('(');
+            open.push(new OpenTree(mainLine));
+            while (!open.isEmpty()) {
+                OpenTree tree = open.peek();
+                skipWhitespace();
+                char c = peek();
+                if (c == ';' && !tree.inChildren) {
+                    pos++;
+                    parseNode(tree.mainLine);
+                } else if (c == '(') {
+                    pos++;
+                    open.push(new OpenTree(tree.mainLine && !tree.inChildren));
+                    tree.inChildren = true;
+                } else {
+                    expect(')');
+                    open.pop();
+                }
+            }
+        }
+
+        private void parseNode(boolean record) {
+            skipWhitespace();
+            while (pos < text.length() && Character.isUpperCase(text.charAt(pos))) {
+                int start = pos;
+                while (pos < text.length() && Character.isLetter(text.charAt(pos))) pos++;
+                String identifier = text.substring(start, pos);
+                skipWhitespace();
+                boolean firstValue = true;
+                while (peek() == '[') {
+                    String value = readValue();
+                    if (record && firstValue) property(identifier, value);
+                    firstValue = false;
+                    skipWhitespace();
+                }
+            }
+        }
+
+        private void property(String identifier, String value) {
+            switch (identifier) {
+                case "SZ":
+                    int colon = value.indexOf(':');
+                    size = Integer.parseInt((colon < 0 ? value : value.substring(0, colon)).trim());
+                    break;
+                case "RE":
+                    result = value.trim();
+                    break;
+                case "B":
+                case "W":
+                    moves.add(new String[]{identifier, value.trim()});
+                    break;
+                case "AB":
+                case "AW":
+                    setupStones = true;
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        private String readValue() {
+            expect('[');
+            StringBuilder sb = new StringBuilder();
+            while (pos < text.length()) {
+                char c = text.charAt(pos++);
+                if (c == '\\' && pos < text.length()) {
+                    sb.append(text.charAt(pos++));
+                } else if (c == ']') {
+                    return sb.toString();
+                } else {
+                    sb.append(c);
+                }
+            }
+            throw new IllegalArgumentException("niezamknięta wartość właściwości");
+        }
+
+        private char peek() {
+            return pos < text.length() ? text.charAt(pos) : 0;
+        }
+
+        private void expect(char c) {
+            skipWhitespace();
+            if (peek() != c) {
+                throw new IllegalArgumentException("oczekiwano '" + c + "' na pozycji " + pos);
+            }
+            pos++;
+        }
+
+        private void skipWhitespace() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) pos++;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.example;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Command line front end of {@link SgfArchiveService}, run against the configured database
+ * (spring.datasource.url, the server's database file by default).
+ *
+ * Usage: java com.example.SgfTool import &lt;file or directory&gt;...
+ *        java com.example.SgfTool export [--game=ID] [--out=archive.sgf]   (stdout without --out)
+ */
+public class SgfTool {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0 || !(args[0].equals("import") || args[0].equals("export"))) {
+            System.out.println("Użycie: SgfTool import <pliki/katalogi>... | SgfTool export [--game=ID] [--out=plik]");
+            System.exit(1);
+        }
+        String gameId = null;
+        String out = null;
+        List<Path> paths = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].startsWith("--game=")) gameId = args[i].substring(7);
+            else if (args[i].startsWith("--out=")) out = args[i].substring(6);
+            else paths.add(Paths.get(args[i]));
+        }
+
+        ConfigurableApplicationContext context = SpringApplication.run(GoServer.class);
+        SgfArchiveService archive = context.getBean(SgfArchiveService.class);
+
+        if (args[0].equals("import")) {
+            SgfArchiveService.ImportReport report = archive.importFiles(paths);
+            System.out.printf(Locale.ROOT, "Zaimportowano %,d gier, odrzucono %,d w %.1fs (%,.0f gier/s)%n",
+                    report.getImported(), report.getRejected(), report.getElapsedMillis() / 1e3,
+                    report.getImported() / Math.max(0.001, report.getElapsedMillis() / 1e3));
+        } else {
+            Writer writer = out == null
+                    ? new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8))
+                    : Files.newBufferedWriter(Paths.get(out), StandardCharsets.UTF_8);
+            try (writer) {
+                if (gameId != null) {
+                    if (!archive.exportGame(Long.parseLong(gameId), writer)) {
+                        System.err.println("Gra o ID " + gameId + " nie istnieje");
+                    }
+                } else {
+                    System.err.println("Wyeksportowano " + archive.exportAll(writer) + " gier");
+                }
+            }
+        }
+        context.close();
+        System.exit(0);
+    }
+}
@@ -0,0 +1,133 @@
+package com.example;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Write/read throughput comparison of the move storage engines.
+ * Several threads append complete games (one thread per game at a time, as the game actors do),
+ * then every game is read back as a replay would. The JPA run boots the Spring context
+ * against the configured database; the journal run needs nothing but a directory.
+ *
+ * Usage: java com.example.StorageBenchmark --store=both|jpa|journal --games=1000 --moves=200
+ *        --threads=8 [--dir=/tmp/journal-bench] [--size=19]
+ */
+public class StorageBenchmark {
+    private final int games;
+    private final int movesPerGame;
+    private final int threads;
+    private final int boardSize;
+
+    public StorageBenchmark(int games, int movesPerGame, int threads, int boardSize) {
+        this.games = games;
+        this.movesPerGame = movesPerGame;
+        this.threads = threads;
+        this.boardSize = boardSize;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        String store = options.getOrDefault("store", "both");
+        StorageBenchmark benchmark = new StorageBenchmark(
+                Integer.parseInt(options.getOrDefault("games", "1000")),
+                Integer.parseInt(options.getOrDefault("moves", "200")),
+                Integer.parseInt(options.getOrDefault("threads", "8")),
+                Integer.parseInt(options.getOrDefault("size", "19")));
+
+        if (store.equals("journal") || store.equals("both")) {
+            Path dir = options.containsKey("dir")
+                    ? Paths.get(options.get("dir"))
+                    : Files.createTempDirectory("journal-bench");
+            try (JournalMoveStore journal = new JournalMoveStore(dir)) {
+                long[] ids = new long[benchmark.games];
+                for (int i = 0; i < ids.length; i++) ids[i] = i + 1;
+                benchmark.run("journal", journal, ids);
+            }
+        }
+
+        if (store.equals("jpa") || store.equals("both")) {
+            System.setProperty("go.storage", "jpa");
+            // benchmark games must not end up in the server's database file
+            System.setProperty("spring.datasource.url", "jdbc:h2:mem:benchmark");
+            System.setProperty("spring.jpa.hibernate.ddl-auto", "create-drop");
+            ConfigurableApplicationContext context = SpringApplication.run(GoServer.class);
+            MoveStore jpa = context.getBean(MoveStore.class);
+            GameService gameService = context.getBean(GameService.class);
+            long[] ids = new long[benchmark.games];
+            for (int i = 0; i < ids.length; i++) ids[i] = gameService.createNewGame(benchmark.boardSize, null, null);
+            benchmark.run("jpa", jpa, ids);
+            context.close();
+        }
+        System.exit(0);
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            String option = arg.startsWith("--") ? arg.substring(2) : arg;
+            int eq = option.indexOf('=');
+            if (eq < 0) options.put(option, "true");
+            else options.put(option.substring(0, eq), option.substring(eq + 1));
+        }
+        return options;
+    }
+
+    public void run(String name, MoveStore store, long[] gameIds) throws InterruptedException {
+        LatencyHistogram appendLatency = new LatencyHistogram();
+
+        long started = System.nanoTime();
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            int first = t;
+            workers[t] = new Thread(() -> {
+                for (int g = first; g < gameIds.length; g += threads) {
+                    writeGame(store, gameIds[g], appendLatency);
+                }
+            }, "bench-writer-" + t);
+            workers[t].start();
+        }
+        for (Thread worker : workers) worker.join();
+        long appended = System.nanoTime();
+        store.flush();
+        long durable = System.nanoTime();
+
+        long readMoves = 0;
+        for (long id : gameIds) {
+            readMoves += store.loadMoves(id).size();
+        }
+        long read = System.nanoTime();
+
+        long total = (long) gameIds.length * movesPerGame;
+        System.out.printf(Locale.ROOT,
+                "%-8s write: %,d moves in %.2fs (%,.0f moves/s durable), append p50=%.1fus p99=%.1fus max=%.1fus%n",
+                name, total, (durable - started) / 1e9, total / ((durable - started) / 1e9),
+                appendLatency.getValueAtPercentile(50) / 1e3, appendLatency.getValueAtPercentile(99) / 1e3,
+                appendLatency.getMax() / 1e3);
+        System.out.printf(Locale.ROOT,
+                "%-8s flush after last append %.1fms; read: %,d games / %,d moves in %.2fs (%,.0f moves/s)%n",
+                name, (durable - appended) / 1e6, gameIds.length, readMoves, (read - durable) / 1e9,
+                readMoves / ((read - durable) / 1e9));
+    }
+
+    private void writeGame(MoveStore store, long gameId, LatencyHistogram appendLatency) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int move = 1; move <= movesPerGame; move++) {
+            StoneColor color = move % 2 == 1 ? StoneColor.BLACK : StoneColor.WHITE;
+            MoveRecord record = random.nextInt(50) == 0
+                    ? new MoveRecord(gameId, move, -1, -1, color, "PASS")
+                    : new MoveRecord(gameId, move, random.nextInt(boardSize), random.nextInt(boardSize), color, "MOVE");
+            long t0 = System.nanoTime();
+            store.appendMove(record);
+            appendLatency.recordValue(System.nanoTime() - t0);
+        }
+        store.finishGame(gameId, "BLACK_WON", null);
+    }
+}
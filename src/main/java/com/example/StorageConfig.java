@@ -0,0 +1,69 @@
+package com.example;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.stream.Stream;
+
+/**
+ * Chooses the move storage engine.
+ * go.storage=jpa (default) keeps moves in the moves table; go.storage=journal writes them to
+ * the binary journal in go.journal.dir, while game metadata and results stay in the database.
+ * The position search index lives next to it, in go.index.dir.
+ *
+ * Both are keyed by game ID, so they are only valid together with the database that handed those IDs out.
+ * A journal or index found next to an empty database (a new or wiped database file) is moved aside on startup,
+ * otherwise the IDs of new games would collide with the records of old ones.
+ */
+@Configuration
+public class StorageConfig {
+
+    @Bean
+    public MoveStore moveStore(@Value("${go.storage:jpa}") String storage,
+                               @Value("${go.journal.dir:data/journal}") String journalDir,
+                               @Value("${go.journal.segment-size:67108864}") long segmentSize,
+                               @Value("${go.journal.linger-ms:2}") long lingerMillis,
+                               MoveWriteBehind writeBehind,
+                               MoveBatchWriter batchWriter,
+                               MoveRepository moveRepository,
+                               CheckpointRepository checkpointRepository,
+                               GameRepository gameRepository) throws IOException {
+        if ("journal".equalsIgnoreCase(storage)) {
+            EventLog.info("Magazyn ruchów: dziennik binarny w {}", journalDir);
+            Path directory = Paths.get(journalDir);
+            setAsideIfStale(directory, gameRepository);
+            return new JournalMoveStore(directory, segmentSize, lingerMillis, batchWriter::writeResult);
+        }
+        EventLog.info("Magazyn ruchów: JPA");
+        return new JpaMoveStore(writeBehind, moveRepository, checkpointRepository);
+    }
+
+    @Bean(destroyMethod = "close")
+    public PositionIndex positionIndex(@Value("${go.index.dir:data/index}") String indexDir,
+                                       @Value("${go.index.flush-entries:100000}") int flushEntries,
+                                       @Value("${go.index.max-segments:8}") int maxSegments,
+                                       @Value("${go.index.max-move:0}") int maxMove,
+                                       GameRepository gameRepository) throws IOException {
+        Path directory = Paths.get(indexDir);
+        setAsideIfStale(directory, gameRepository);
+        return new PositionIndex(directory, flushEntries, maxSegments, maxMove);
+    }
+
+    /**
+     * Renames a non-empty data directory to name.stale-timestamp when the database holds no games.
+     */
+    static void setAsideIfStale(Path directory, GameRepository gameRepository) throws IOException {
+        if (!Files.isDirectory(directory) || gameRepository.count() > 0) return;
+        try (Stream<Path> files = Files.list(directory)) {
+            if (!files.findAny().isPresent()) return;
+        }
+        Path stale = directory.resolveSibling(directory.getFileName() + ".stale-" + System.currentTimeMillis());
+        Files.move(directory, stale);
+        EventLog.warn("Baza gier jest pusta, a {} zawiera dane: przeniesiono je do {}", directory, stale);
+    }
+}
@@ -0,0 +1,88 @@
+package com.example;
+
+import java.io.IOException;
+import java.util.Scanner;
+
+/**
+ * Terminal client for watching or playing a game without a display, e.g. over SSH.
+ * Built on the headless {@link GoProtocolClient}; the board is drawn by {@link ConsoleView}, which after
+ * the first frame only rewrites the intersections that changed.
+ *
+ * Usage: java com.example.TerminalClient [--host=localhost] [--port=8080] [--watch=ID | --replay=ID | --play]
+ *
+ * Input: a point such as D4 plays a move; pass, surrender and quit do what they say;
+ * anything else is sent to the server as a raw command (e.g. WATCH 12, STATS).
+ */
+public class TerminalClient implements GoClientListener {
+    private final ConsoleView view;
+    private final GoProtocolClient client;
+    private volatile boolean connected = true;
+
+    public TerminalClient(ConsoleView view) {
+        this.view = view;
+        this.client = new GoProtocolClient(this);
+        this.client.setPredictionEnabled(true);
+    }
+
+    public static void main(String[] args) throws IOException {
+        String host = "localhost";
+        int port = 8080;
+        String start = null;
+        for (String arg : args) {
+            String option = arg.startsWith("--") ? arg.substring(2) : arg;
+            if (option.startsWith("host=")) host = option.substring(5);
+            else if (option.startsWith("port=")) port = Integer.parseInt(option.substring(5));
+            else if (option.startsWith("watch=")) start = "WATCH " + option.substring(6);
+            else if (option.startsWith("replay=")) start = "REPLAY " + option.substring(7);
+            else if (option.equals("play")) start = "PLAY";
+        }
+
+        TerminalClient terminal = new TerminalClient(new ConsoleView(new Scanner(System.in)));
+        terminal.client.connect(host, port);
+        if (start != null) terminal.client.send(start);
+        terminal.readCommands();
+        System.exit(0);
+    }
+
+    /**
+     * Forwards the user's input until quit, end of input or disconnection.
+     */
+    void readCommands() {
+        String line;
+        while (connected && (line = view.getUserInput()) != null) {
+            String command = line.trim();
+            view.prompt();
+            if (command.isEmpty()) continue;
+
+            int[] point = view.parsePoint(command);
+            if (point != null) {
+                client.sendMove(point[0], point[1]);
+            } else if (command.equalsIgnoreCase("pass")) {
+                client.sendPass();
+            } else if (command.equalsIgnoreCase("surrender")) {
+                client.sendSurrender();
+            } else if (command.equalsIgnoreCase("quit")) {
+                break;
+            } else {
+                client.send(command);
+            }
+        }
+        client.close();
+    }
+
+    @Override
+    public void onBoard(BoardFrame.Diff diff) {
+        if (!diff.isEmpty()) view.displayBoard(diff);
+    }
+
+    @Override
+    public void onMessage(String text) {
+        view.displayMessage(text);
+    }
+
+    @Override
+    public void onDisconnected(Exception cause) {
+        connected = false;
+        view.displayMessage("Rozłączono z serwerem.");
+    }
+}
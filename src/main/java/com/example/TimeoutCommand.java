@@ -0,0 +1,31 @@
+package com.example;
+
+/**
+ * Implementation of the Command pattern representing a player's clock running out.
+ * Posted by the {@link GameClock} from the timing wheel; the game decides whether the turn it refers to is still current.
+ */
+public class TimeoutCommand implements Command {
+    private Game game;
+    private StoneColor playerColor;
+    private int turn;
+
+    /**
+     * Initializes a new TimeoutCommand.
+     * @param game The Game instance whose clock ran out.
+     * @param playerColor The color of the player whose time is up.
+     * @param turn The clock turn the timeout was scheduled for.
+     */
+    public TimeoutCommand(Game game, StoneColor playerColor, int turn) {
+        this.game = game;
+        this.playerColor = playerColor;
+        this.turn = turn;
+    }
+
+    /**
+     * Executes the timeout by calling the game's processTimeout method.
+     */
+    @Override
+    public void execute() {
+        game.processTimeout(playerColor, turn);
+    }
+}
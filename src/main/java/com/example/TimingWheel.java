@@ -0,0 +1,144 @@
+package com.example;
+
+import java.util.ArrayList;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hashed timing wheel for large numbers of coarse timeouts, such as one clock per game.
+ * A single thread advances one slot every tick; a timeout sits in slot (deadline / tick) % wheelSize
+ * with the number of full turns still to wait. Scheduling and cancelling are O(1) from any thread
+ * (new timeouts are handed over through a queue, cancelled ones are dropped when their slot comes up),
+ * and a tick only looks at one slot, so the cost does not grow with the number of idle clocks.
+ * Tasks run on the wheel thread and must only hand work elsewhere, e.g. post into a game's mailbox.
+ * Timeouts fire up to one tick late, never early.
+ */
+public class TimingWheel {
+    private static final LongAdder FIRED = ServerMetrics.get().counter(
+            "go_timing_wheel_fired_total", "Timeouts fired by the timing wheel");
+
+    private static final TimingWheel SHARED = createShared();
+
+    /**
+     * A scheduled task; cancel() is safe from any thread and a no-op once it has fired.
+     */
+    public static class Timeout {
+        private final Runnable task;
+        private final long deadlineTick;
+        private long rounds;
+        private volatile boolean cancelled = false;
+
+        Timeout(Runnable task, long deadlineTick) {
+            this.task = task;
+            this.deadlineTick = deadlineTick;
+        }
+
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    private final long tickNanos;
+    private final long startNanos;
+    private final ArrayList<Timeout>[] slots;
+    private final Queue<Timeout> incoming = new ConcurrentLinkedQueue<>();
+    private long currentTick = 0;   // wheel thread only
+    private volatile int pending = 0;   // written by the wheel thread only
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public TimingWheel(long tickMillis, int wheelSize) {
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMillis);
+        this.startNanos = System.nanoTime();
+        this.slots = new ArrayList[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            slots[i] = new ArrayList<>();
+        }
+        Thread thread = new Thread(this::run, "timing-wheel");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private static TimingWheel createShared() {
+        TimingWheel wheel = new TimingWheel(
+                Math.max(1, Long.getLong("go.clock.tickMillis", 100)),
+                Math.max(16, Integer.getInteger("go.clock.wheelSize", 512)));
+        ServerMetrics.get().gauge("go_timing_wheel_pending", "Timeouts waiting in the timing wheel", wheel::getPending);
+        return wheel;
+    }
+
+    public static TimingWheel shared() {
+        return SHARED;
+    }
+
+    /**
+     * Timeouts scheduled and not yet fired or dropped (cancelled ones count until their slot comes up).
+     */
+    public long getPending() {
+        return pending + incoming.size();
+    }
+
+    /**
+     * Runs the task once the delay has passed (rounded up to whole ticks).
+     */
+    public Timeout schedule(Runnable task, long delayMillis) {
+        long deadlineNanos = System.nanoTime() - startNanos + TimeUnit.MILLISECONDS.toNanos(Math.max(0, delayMillis));
+        Timeout timeout = new Timeout(task, (deadlineNanos + tickNanos - 1) / tickNanos);
+        incoming.add(timeout);
+        return timeout;
+    }
+
+    private void run() {
+        while (true) {
+            long nextTickNanos = startNanos + (currentTick + 1) * tickNanos;
+            long sleepNanos = nextTickNanos - System.nanoTime();
+            if (sleepNanos > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(sleepNanos);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+            currentTick++;
+            transferIncoming();
+            expire(slots[(int) (currentTick % slots.length)]);
+        }
+    }
+
+    private void transferIncoming() {
+        Timeout timeout;
+        while ((timeout = incoming.poll()) != null) {
+            if (timeout.cancelled) continue;
+            long tick = Math.max(timeout.deadlineTick, currentTick);   // already due: fire in this tick
+            timeout.rounds = (tick - currentTick) / slots.length;
+            slots[(int) (tick % slots.length)].add(timeout);
+            pending++;
+        }
+    }
+
+    private void expire(ArrayList<Timeout> slot) {
+        for (int i = slot.size() - 1; i >= 0; i--) {
+            Timeout timeout = slot.get(i);
+            if (!timeout.cancelled && timeout.rounds > 0) {
+                timeout.rounds--;
+                continue;
+            }
+            // swap-remove: order within a slot does not matter
+            slot.set(i, slot.get(slot.size() - 1));
+            slot.remove(slot.size() - 1);
+            pending--;
+            if (timeout.cancelled) continue;
+            try {
+                FIRED.increment();
+                timeout.task.run();
+            } catch (RuntimeException e) {
+                EventLog.error("Błąd zadania zegara", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.example;
+
+import javafx.application.Platform;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * Hands updates from the connection thread to the JavaFX thread with at most one runLater in flight.
+ * Board diffs that arrive before the UI gets to them are merged (the newest value of each cell wins)
+ * and log lines are batched, so a burst of frames costs one UI pass instead of one per line.
+ * If the UI falls far behind, the oldest pending log lines are dropped rather than queued without bound.
+ */
+public class UiDispatcher {
+    static final int MAX_PENDING_LINES = 1000;
+
+    /**
+     * Receives the merged updates; always called on the UI thread.
+     */
+    public interface Sink {
+        void updateBoard(BoardFrame.Diff diff);
+        void appendLog(List<String> lines);
+    }
+
+    private final Sink sink;
+    private final Executor uiExecutor;
+
+    // guarded by this
+    private boolean scheduled = false;
+    private int size = 0;
+    private boolean resized = false;
+    private byte[] values = new byte[0];
+    private boolean[] dirty = new boolean[0];
+    private int[] dirtyCells = new int[0];
+    private int dirtyCount = 0;
+    private final ArrayDeque<String> lines = new ArrayDeque<>();
+    private int droppedLines = 0;
+
+    public UiDispatcher(Sink sink) {
+        this(sink, Platform::runLater);
+    }
+
+    UiDispatcher(Sink sink, Executor uiExecutor) {
+        this.sink = sink;
+        this.uiExecutor = uiExecutor;
+    }
+
+    public void postBoard(BoardFrame.Diff diff) {
+        synchronized (this) {
+            if (diff.isResized() || diff.getSize() != size) {
+                size = diff.getSize();
+                resized = true;
+                values = new byte[size * size];
+                dirty = new boolean[size * size];
+                dirtyCells = new int[size * size];
+                dirtyCount = 0;
+            }
+            for (int i = 0; i < diff.getChangedCount(); i++) {
+                int cell = diff.getCell(i);
+                values[cell] = diff.getValue(i);
+                if (!dirty[cell]) {
+                    dirty[cell] = true;
+                    dirtyCells[dirtyCount++] = cell;
+                }
+            }
+        }
+        schedule();
+    }
+
+    public void postLog(String line) {
+        synchronized (this) {
+            if (lines.size() == MAX_PENDING_LINES) {
+                lines.removeFirst();
+                droppedLines++;
+            }
+            lines.add(line);
+        }
+        schedule();
+    }
+
+    private void schedule() {
+        synchronized (this) {
+            if (scheduled) return;
+            scheduled = true;
+        }
+        uiExecutor.execute(this::flush);
+    }
+
+    private void flush() {
+        BoardFrame.Diff diff = null;
+        List<String> batch = null;
+        synchronized (this) {
+            scheduled = false;
+            if (resized || dirtyCount > 0) {
+                int[] cells = new int[dirtyCount];
+                byte[] cellValues = new byte[dirtyCount];
+                for (int i = 0; i < dirtyCount; i++) {
+                    cells[i] = dirtyCells[i];
+                    cellValues[i] = values[dirtyCells[i]];
+                    dirty[dirtyCells[i]] = false;
+                }
+                diff = new BoardFrame.Diff(size, resized, cells, cellValues);
+                resized = false;
+                dirtyCount = 0;
+            }
+            if (!lines.isEmpty()) {
+                batch = new ArrayList<>(lines.size() + 1);
+                if (droppedLines > 0) {
+                    batch.add("... pominięto " + droppedLines + " wiadomości");
+                    droppedLines = 0;
+                }
+                batch.addAll(lines);
+                lines.clear();
+            }
+        }
+        if (diff != null) sink.updateBoard(diff);
+        if (batch != null) sink.appendLog(batch);
+    }
+}
@@ -0,0 +1,47 @@
+package com.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ArchiveStatsTest {
+
+    @Test
+    public void testGamesAreCountedAndMerged() {
+        // black captures the white stone at (1,0) with its third stone
+        ArchiveStats left = new ArchiveStats();
+        left.addGame(9, "BLACK_WON", List.of(
+                new MoveRecord(1, 1, 0, 0, StoneColor.BLACK, "MOVE"),
+                new MoveRecord(1, 2, 1, 0, StoneColor.WHITE, "MOVE"),
+                new MoveRecord(1, 3, 2, 0, StoneColor.BLACK, "MOVE"),
+                new MoveRecord(1, 4, 5, 5, StoneColor.WHITE, "MOVE"),
+                new MoveRecord(1, 5, 1, 1, StoneColor.BLACK, "MOVE"),
+                new MoveRecord(1, 6, -1, -1, StoneColor.WHITE, "SURRENDER")));
+
+        ArchiveStats right = new ArchiveStats();
+        right.addGame(9, "WHITE_WON", List.of(
+                new MoveRecord(2, 1, -1, -1, StoneColor.BLACK, "PASS"),
+                new MoveRecord(2, 2, 0, 0, StoneColor.WHITE, "MOVE")));
+        right.addGame(19, "DRAW", List.of());
+
+        ArchiveStats total = new ArchiveStats().merge(left).merge(right);
+        assertEquals(3, total.getGames());
+        assertEquals(8, total.getMoves());
+        assertEquals(1, total.getPasses());
+        assertEquals(1, total.getSurrenders());
+        assertEquals(1, total.getCapturedByBlack());
+        assertEquals(0, total.getCapturedByWhite());
+        assertArrayEquals(new long[]{1, 1, 0, 0}, total.getResults(9));
+        assertArrayEquals(new long[]{0, 0, 1, 0}, total.getResults(19));
+        assertEquals(3, total.getLengthBuckets()[0]);
+
+        long[] firstMoves = total.getFirstMoves(9);
+        assertEquals(2, firstMoves[0], "Pierwszy kamień obu partii stanął w rogu");
+        assertNull(total.getFirstMoves(19));
+        assertEquals(9, total.heatmapLines(9).size());
+        assertEquals('@', total.heatmapLines(9).get(0).charAt(0));
+        assertEquals(1, left.getGames(), "Scalanie nie zmienia źródła");
+    }
+}
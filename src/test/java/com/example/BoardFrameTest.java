@@ -0,0 +1,42 @@
+package com.example;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BoardFrameTest {
+
+    @Test
+    public void testOnlyChangedCellsAreReported() {
+        Board board = new Board(9);
+        BoardFrame frame = new BoardFrame();
+
+        BoardFrame.Diff first = frame.update("BOARD " + board.getBoardStateString(), 6);
+        assertTrue(first.isResized());
+        assertEquals(9, first.getSize());
+        assertEquals(0, first.getChangedCount());
+
+        board.setStone(2, 3, StoneColor.BLACK);
+        board.setStone(8, 8, StoneColor.WHITE);
+        BoardFrame.Diff second = frame.update("BOARD " + board.getBoardStateString(), 6);
+        assertFalse(second.isResized());
+        assertEquals(2, second.getChangedCount());
+        assertEquals(3 * 9 + 2, second.getCell(0));
+        assertEquals(BoardFrame.BLACK, second.getValue(0));
+        assertEquals(80, second.getCell(1));
+        assertEquals(BoardFrame.WHITE, second.getValue(1));
+
+        assertTrue(frame.update("BOARD " + board.getBoardStateString(), 6).isEmpty());
+
+        board.setStone(2, 3, StoneColor.EMPTY);
+        BoardFrame.Diff third = frame.update("BOARD " + board.getBoardStateString(), 6);
+        assertEquals(1, third.getChangedCount());
+        assertEquals(BoardFrame.EMPTY, third.getValue(0));
+    }
+
+    @Test
+    public void testMalformedFrameIsRejected() {
+        BoardFrame frame = new BoardFrame();
+        assertThrows(IllegalArgumentException.class, () -> frame.update("BOARD EMPTY;EMPTY;BLACK", 6));
+    }
+}
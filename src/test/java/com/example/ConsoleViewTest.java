@@ -0,0 +1,32 @@
+package com.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.Scanner;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConsoleViewTest {
+
+    @Test
+    public void testOnlyChangedIntersectionsAreRewritten() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ConsoleView view = new ConsoleView(new Scanner(""), new PrintStream(bytes, true));
+        Board board = new Board(19);
+        BoardFrame frame = new BoardFrame();
+
+        view.displayBoard(frame.update("BOARD " + board.getBoardStateString(), 6));
+        assertTrue(bytes.toString().startsWith("\033[H\033[2J"), "Pierwsza ramka rysuje całą planszę");
+
+        bytes.reset();
+        board.setStone(3, 15, StoneColor.BLACK);
+        view.displayBoard(frame.update("BOARD " + board.getBoardStateString(), 6));
+        assertEquals("\033[s\033[17;10HX\033[u", bytes.toString());
+
+        assertArrayEquals(new int[]{3, 15}, view.parsePoint("D4"));
+        assertNull(view.parsePoint("I4"));
+        assertNull(view.parsePoint("A20"));
+    }
+}
@@ -0,0 +1,94 @@
+package com.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EventLogTest {
+
+    private static String[] lines(StringBuilder buffer) {
+        return buffer.toString().split("\n");
+    }
+
+    @Test
+    public void testCapacityIsRoundedUpToPowerOfTwo() {
+        assertEquals(8, new EventLog.Ring(5).capacity());
+        assertEquals(8, new EventLog.Ring(8).capacity());
+        assertEquals(4, new EventLog.Ring(0).capacity());
+    }
+
+    @Test
+    public void testPublishedEventsAreFormattedInOrder() {
+        EventLog.Ring ring = new EventLog.Ring(8);
+        assertTrue(ring.publish(EventLog.Level.INFO, "Gra {}: ruch {} na ({},{})", 4, 7L, StoneColor.BLACK, 3, 4));
+        assertTrue(ring.publish(EventLog.Level.WARN, "bez argumentów", 0, null, null, null, null));
+        assertTrue(ring.publish(EventLog.Level.DEBUG, "{} i {}", 1, "jeden", null, null, null));
+
+        StringBuilder buffer = new StringBuilder();
+        assertEquals(3, ring.drainInto(buffer, 100));
+        String[] lines = lines(buffer);
+        assertTrue(lines[0].endsWith(" INFO  [" + Thread.currentThread().getName() + "] Gra 7: ruch BLACK na (3,4)"), lines[0]);
+        assertTrue(lines[1].endsWith("] bez argumentów"), lines[1]);
+        assertTrue(lines[2].endsWith("] jeden i {}"), "Brakujący argument zostawia znacznik: " + lines[2]);
+
+        assertEquals(0, ring.drainInto(buffer, 100));
+        assertEquals(0, buffer.length());
+    }
+
+    @Test
+    public void testFullRingDropsNewEventsUntilDrained() {
+        EventLog.Ring ring = new EventLog.Ring(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(ring.publish(EventLog.Level.INFO, "e{}", 1, i, null, null, null));
+        }
+        assertFalse(ring.publish(EventLog.Level.INFO, "e{}", 1, 4, null, null, null), "Pełny bufor odrzuca zdarzenie");
+
+        StringBuilder buffer = new StringBuilder();
+        assertEquals(2, ring.drainInto(buffer, 2), "Drenowanie jest ograniczone rozmiarem partii");
+        assertTrue(buffer.toString().contains("e0") && buffer.toString().contains("e1"));
+
+        // the two freed slots are reused (the ring wraps around)
+        assertTrue(ring.publish(EventLog.Level.INFO, "e{}", 1, 5, null, null, null));
+        assertTrue(ring.publish(EventLog.Level.INFO, "e{}", 1, 6, null, null, null));
+        assertFalse(ring.publish(EventLog.Level.INFO, "e{}", 1, 7, null, null, null));
+
+        assertEquals(4, ring.drainInto(buffer, 100));
+        String[] lines = lines(buffer);
+        assertTrue(lines[0].endsWith("e2") && lines[1].endsWith("e3") && lines[2].endsWith("e5") && lines[3].endsWith("e6"));
+    }
+
+    @Test
+    public void testThrowableLastArgumentPrintsStackTrace() {
+        EventLog.Ring ring = new EventLog.Ring(2);
+        ring.publish(EventLog.Level.ERROR, "Błąd gry {}", 2, 9L, new IllegalStateException("zepsute"), null, null);
+        StringBuilder buffer = new StringBuilder();
+        ring.drainInto(buffer, 10);
+        assertTrue(buffer.toString().contains("Błąd gry 9\njava.lang.IllegalStateException: zepsute"));
+    }
+
+    @Test
+    public void testConcurrentProducersLoseNothingWhileThereIsRoom() throws Exception {
+        EventLog.Ring ring = new EventLog.Ring(1 << 14);
+        int threads = 4;
+        int perThread = 2000;
+        List<Thread> producers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            producers.add(new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    assertTrue(ring.publish(EventLog.Level.TRACE, "x", 0, null, null, null, null));
+                }
+            }));
+        }
+        producers.forEach(Thread::start);
+        for (Thread producer : producers) producer.join();
+
+        StringBuilder buffer = new StringBuilder();
+        int total = 0;
+        int drained;
+        while ((drained = ring.drainInto(buffer, 512)) > 0) total += drained;
+        assertEquals(threads * perThread, total);
+    }
+}
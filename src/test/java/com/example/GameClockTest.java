@@ -0,0 +1,99 @@
+package com.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameClockTest {
+    private static final TimingWheel WHEEL = new TimingWheel(1, 16);
+    private static final GameClock.TimeoutListener NO_TIMEOUT = (color, turn) -> { };
+
+    private final AtomicLong now = new AtomicLong();
+
+    private void advance(long millis) {
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+
+    @Test
+    public void testByoyomiPeriodsAreUsedUpOnlyWhenOverrun() {
+        GameClock clock = new GameClock(GameClock.Mode.BYOYOMI, 60_000, 0, 3, 30_000, WHEEL, now::get);
+
+        clock.start(StoneColor.BLACK, NO_TIMEOUT);
+        advance(70_000);   // main time gone, 10 s into the first period
+        clock.stop();
+        assertEquals(90_000, clock.remainingMillis(StoneColor.BLACK), "Ruch w okresie nie zużywa go");
+        assertEquals(150_000, clock.remainingMillis(StoneColor.WHITE));
+
+        clock.start(StoneColor.BLACK, NO_TIMEOUT);
+        advance(45_000);   // overran one period
+        assertEquals("B 0:15 (2x30s), W 1:00", clock.describe());
+        clock.stop();
+        assertEquals(60_000, clock.remainingMillis(StoneColor.BLACK));
+
+        clock.start(StoneColor.BLACK, NO_TIMEOUT);
+        advance(60_000);
+        assertTrue(clock.hasExpired(StoneColor.BLACK));
+        assertFalse(clock.hasExpired(StoneColor.WHITE));
+    }
+
+    @Test
+    public void testFischerAddsIncrementWhileTimeRemains() {
+        GameClock clock = new GameClock(GameClock.Mode.FISCHER, 10_000, 5_000, 0, 0, WHEEL, now::get);
+
+        clock.start(StoneColor.WHITE, NO_TIMEOUT);
+        advance(8_000);
+        clock.stop();
+        assertEquals(7_000, clock.remainingMillis(StoneColor.WHITE));
+
+        clock.start(StoneColor.WHITE, NO_TIMEOUT);
+        advance(7_500);
+        clock.stop();
+        assertTrue(clock.hasExpired(StoneColor.WHITE), "Po upływie czasu nie ma dodatku");
+    }
+
+    @Test
+    public void testStaleTurnIsNotATimeout() {
+        GameClock clock = new GameClock(GameClock.Mode.FISCHER, 1_000, 0, 0, 0, WHEEL, now::get);
+        clock.start(StoneColor.BLACK, NO_TIMEOUT);
+        advance(2_000);
+        clock.start(StoneColor.WHITE, NO_TIMEOUT);   // black moved before the timeout was processed
+
+        assertFalse(clock.isTimeout(StoneColor.BLACK, 1));
+        advance(1_000);
+        assertTrue(clock.isTimeout(StoneColor.WHITE, 2));
+    }
+
+    @Test
+    public void testFlagFallEndsTheGame() throws Exception {
+        List<String> messages = new CopyOnWriteArrayList<>();
+        CountDownLatch over = new CountDownLatch(1);
+        Player black = message -> {
+            messages.add(message);
+            if (message.contains("KONIEC GRY")) over.countDown();
+        };
+        Player white = message -> { };
+
+        Game game = new Game(9);
+        game.setClock(new GameClock(GameClock.Mode.BYOYOMI, 20, 0, 1, 20, WHEEL, System::nanoTime));
+        game.addPlayer(black);
+        game.addPlayer(white);
+
+        assertTrue(over.await(5, TimeUnit.SECONDS), "Czas czarnego powinien minąć");
+        assertTrue(messages.contains("MESSAGE === KONIEC GRY === Czas gracza BLACK minął. Wygrywa WHITE!"));
+
+        CountDownLatch done = new CountDownLatch(1);
+        game.submit(() -> {
+            game.processMove(4, 4, StoneColor.BLACK);
+            done.countDown();
+        });
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertTrue(game.isGameOver());
+        assertTrue(messages.contains("MESSAGE Gra zakończona. Nie można wykonywać ruchów."));
+    }
+}
@@ -0,0 +1,149 @@
+package com.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameEvictionTest {
+
+    private static boolean releaseOnGame(Game game) throws InterruptedException {
+        boolean[] released = new boolean[1];
+        CountDownLatch done = new CountDownLatch(1);
+        game.submit(() -> {
+            released[0] = game.release();
+            done.countDown();
+        });
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        return released[0];
+    }
+
+    @Test
+    public void testRunningGameIsReleasedOnlyWhenNobodyIsConnected() throws Exception {
+        Game game = new Game(9);
+        game.setClock(new GameClock(GameClock.Mode.NONE, 0, 0, 0, 0, TimingWheel.shared(), System::nanoTime));
+        Player black = message -> { };
+        game.addPlayer(black);
+        assertFalse(releaseOnGame(game), "Gra z graczem przy stole zostaje w pamięci");
+
+        game.leave(black);
+        assertTrue(releaseOnGame(game));
+
+        List<String> messages = new CopyOnWriteArrayList<>();
+        CountDownLatch answered = new CountDownLatch(1);
+        game.reconnect(message -> {
+            messages.add(message);
+            answered.countDown();
+        }, StoneColor.BLACK, game.getSeatSecret(StoneColor.BLACK), () -> fail("Zwolniona gra nie przyjmuje graczy"));
+        assertTrue(answered.await(5, TimeUnit.SECONDS));
+        assertTrue(messages.get(0).startsWith("MESSAGE Błąd: Gra została zwolniona"));
+    }
+
+    @Test
+    public void testFinishedGameIsReleasedWithPlayersConnected() throws Exception {
+        Game game = new Game(9);
+        game.addPlayer(message -> { });
+        game.addPlayer(message -> { });
+        game.submit(new SurrenderCommand(game, StoneColor.WHITE));
+        assertTrue(releaseOnGame(game));
+    }
+
+    @Test
+    public void testFootprintGrowsWithBoardAndSpectators() throws Exception {
+        Game small = new Game(9);
+        Game large = new Game(19);
+        assertTrue(large.estimateFootprint() > small.estimateFootprint());
+
+        long before = large.estimateFootprint();
+        CountDownLatch watching = new CountDownLatch(1);
+        large.watch(message -> { }, watching::countDown);
+        assertTrue(watching.await(5, TimeUnit.SECONDS));
+        assertTrue(large.estimateFootprint() > before);
+
+        GameRegistry registry = new GameRegistry();
+        registry.register(small);
+        registry.register(large);
+        assertEquals(small.estimateFootprint() + large.estimateFootprint(), registry.estimateFootprint());
+    }
+
+    @Test
+    public void testEvictedGameIsLoadedOnceOnDemand() {
+        GameRegistry registry = new GameRegistry();
+        AtomicInteger loads = new AtomicInteger();
+        registry.setLoader(id -> {
+            loads.incrementAndGet();
+            return id == 7 ? new Game(9) : null;
+        });
+
+        Game loaded = registry.getOrLoad(7);
+        assertNotNull(loaded);
+        assertSame(loaded, registry.getOrLoad(7));
+        assertNull(registry.getOrLoad(8), "Zakończona lub nieistniejąca gra nie jest wczytywana");
+        assertEquals(2, loads.get());
+
+        assertFalse(registry.remove(7, new Game(9)));
+        assertTrue(registry.remove(7, loaded));
+        assertEquals(0, registry.size());
+    }
+
+    @Test
+    public void testReleasedGameRefusesSpectators() throws Exception {
+        Game game = new Game(9);
+        game.setClock(new GameClock(GameClock.Mode.NONE, 0, 0, 0, 0, TimingWheel.shared(), System::nanoTime));
+        assertTrue(releaseOnGame(game));
+
+        List<String> messages = new CopyOnWriteArrayList<>();
+        CountDownLatch answered = new CountDownLatch(1);
+        game.watch(message -> {
+            messages.add(message);
+            answered.countDown();
+        }, () -> fail("Zwolniona gra nie przyjmuje widzów"));
+        assertTrue(answered.await(5, TimeUnit.SECONDS));
+        assertTrue(messages.get(0).startsWith("MESSAGE Błąd: Gra została zwolniona"));
+        assertTrue(releaseOnGame(game), "Widz nie został dodany");
+    }
+
+    @Test
+    public void testSlowLoadIsSharedAndDoesNotBlockOtherGames() throws Exception {
+        GameRegistry registry = new GameRegistry();
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch finishLoad = new CountDownLatch(1);
+        registry.setLoader(id -> {
+            loads.incrementAndGet();
+            loading.countDown();
+            try {
+                finishLoad.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return new Game(9);
+        });
+
+        List<Game> results = new CopyOnWriteArrayList<>();
+        List<Thread> callers = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Thread caller = new Thread(() -> results.add(registry.getOrLoad(7)));
+            callers.add(caller);
+            caller.start();
+        }
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+        Game other = new Game(9);
+        long otherId = registry.register(other);   // not blocked by the load in progress
+        assertSame(other, registry.get(otherId));
+
+        finishLoad.countDown();
+        for (Thread caller : callers) caller.join(5000);
+        assertEquals(1, loads.get(), "Jedno wczytanie na grę");
+        assertEquals(4, results.size());
+        for (Game game : results) assertSame(results.get(0), game);
+        assertSame(results.get(0), registry.get(7));
+    }
+}
@@ -0,0 +1,109 @@
+package com.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameRecoveryTest {
+
+    /** Builds a ko: black's ninth move captures the white stone at (1,1). */
+    private static final int[][] KO_GAME = {
+            {1, 0}, {2, 0}, {0, 1}, {1, 1}, {1, 2}, {3, 1}, {10, 10}, {2, 2}, {2, 1}
+    };
+
+    private static List<MoveRecord> record(int[][] stones) {
+        List<MoveRecord> moves = new ArrayList<>();
+        for (int i = 0; i < stones.length; i++) {
+            moves.add(new MoveRecord(42, i + 1, stones[i][0], stones[i][1],
+                    i % 2 == 0 ? StoneColor.BLACK : StoneColor.WHITE, "MOVE"));
+        }
+        return moves;
+    }
+
+    @Test
+    public void testRestoredGameMatchesLiveGameIncludingKoAndTurn() {
+        Game live = new Game(19);
+        for (int i = 0; i < KO_GAME.length; i++) {
+            live.processMove(KO_GAME[i][0], KO_GAME[i][1], i % 2 == 0 ? StoneColor.BLACK : StoneColor.WHITE);
+        }
+
+        Game restored = new Game(19);
+        restored.restore(null, 42, record(KO_GAME));
+        assertEquals(live.getBoard().getBoardStateString(), restored.getBoard().getBoardStateString());
+        assertEquals(StoneColor.EMPTY, restored.getBoard().getStone(1, 1), "Biały kamień powinien być zbity");
+
+        restored.processMove(1, 1, StoneColor.WHITE);
+        assertEquals(StoneColor.EMPTY, restored.getBoard().getStone(1, 1), "Natychmiastowe odbicie KO jest zabronione");
+
+        restored.processMove(5, 5, StoneColor.BLACK);
+        assertEquals(StoneColor.EMPTY, restored.getBoard().getStone(5, 5), "Teraz ruch białego");
+        restored.processMove(5, 5, StoneColor.WHITE);
+        assertEquals(StoneColor.WHITE, restored.getBoard().getStone(5, 5));
+        assertFalse(restored.isGameOver());
+    }
+
+    @Test
+    public void testHistoryEndingTheGameFinishesIt() {
+        List<MoveRecord> surrendered = record(new int[][]{{3, 3}});
+        surrendered.add(new MoveRecord(42, 2, -1, -1, StoneColor.WHITE, "SURRENDER"));
+        Game first = new Game(9);
+        first.restore(null, 42, surrendered);
+        assertTrue(first.isGameOver());
+
+        List<MoveRecord> passed = record(new int[][]{{3, 3}});
+        passed.add(new MoveRecord(43, 2, -1, -1, StoneColor.WHITE, "PASS"));
+        Game second = new Game(9);
+        second.restore(null, 43, passed);
+        assertFalse(second.isGameOver());
+        second.processPass(StoneColor.BLACK);
+        assertTrue(second.isGameOver(), "Pas po pasie przeciwnika kończy odtworzoną grę");
+    }
+
+    @Test
+    public void testRestoredClockWaitsForBothPlayers() throws Exception {
+        GameClock clock = new GameClock(GameClock.Mode.FISCHER, 60_000, 0, 0, 0, TimingWheel.shared(), System::nanoTime);
+        Game game = new Game(9);
+        game.setClock(clock);
+        game.restore(null, 42, record(new int[][]{{3, 3}}));
+        assertFalse(clock.isRunning(), "Nikt nie siedzi przy stole, czas nie płynie");
+
+        CountDownLatch seated = new CountDownLatch(2);
+        game.reconnect(message -> { }, StoneColor.BLACK, game.getSeatSecret(StoneColor.BLACK), seated::countDown);
+        game.reconnect(message -> { }, StoneColor.WHITE, game.getSeatSecret(StoneColor.WHITE), () -> {
+            assertTrue(clock.isRunning(), "Zegar rusza, gdy wrócił drugi gracz");
+            seated.countDown();
+        });
+        assertTrue(seated.await(5, TimeUnit.SECONDS));
+        assertTrue(clock.isRunning());
+        clock.stop();
+    }
+
+    @Test
+    public void testReconnectNeedsTheSeatSecret() throws Exception {
+        Game game = new Game(9);
+        game.setSeatSecrets("czarny", "bialy");
+        game.restore(null, 42, record(new int[][]{{3, 3}}));
+
+        List<String> messages = new CopyOnWriteArrayList<>();
+        CountDownLatch answered = new CountDownLatch(2);
+        Player stranger = message -> {
+            messages.add(message);
+            answered.countDown();
+        };
+        game.reconnect(stranger, StoneColor.BLACK, "bialy", () -> fail("Cudzy kod nie otwiera miejsca"));
+        game.reconnect(stranger, StoneColor.WHITE, null, () -> fail("Bez kodu nie można wrócić"));
+        assertTrue(answered.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("MESSAGE Błąd: Niepoprawny kod powrotu do gry.",
+                "MESSAGE Błąd: Niepoprawny kod powrotu do gry."), messages);
+
+        CountDownLatch seated = new CountDownLatch(1);
+        game.reconnect(message -> { }, StoneColor.BLACK, "czarny", seated::countDown);
+        assertTrue(seated.await(5, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,64 @@
+package com.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.Socket;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameRegistryTest {
+
+    @Test
+    public void testUnpersistedGamesGetDistinctLocalIds() {
+        GameRegistry registry = new GameRegistry();
+        Game first = new Game(9);
+        Game second = new Game(9);
+
+        long firstId = registry.register(first);
+        long secondId = registry.register(second);
+
+        assertNotEquals(firstId, secondId);
+        assertSame(first, registry.get(firstId));
+        assertSame(second, registry.get(secondId));
+        assertEquals(2, registry.size());
+
+        registry.remove(firstId);
+        assertNull(registry.get(firstId));
+        assertEquals(1, registry.size());
+        assertTrue(registry.all().contains(second));
+
+        registry.clear();
+        assertEquals(0, registry.size());
+    }
+
+    @Test
+    public void testMatchmakePairsTwoWaitingClients() {
+        GoServer server = new GoServer();
+        ClientHandler black = new ClientHandler(new Socket());
+        ClientHandler white = new ClientHandler(new Socket());
+
+        server.matchmake(black);
+        server.matchmake(black);   // a second PLAY keeps the client waiting instead of pairing it with itself
+        assertEquals(0, server.getRegistry().size());
+        assertEquals(StoneColor.EMPTY, black.getColor());
+
+        server.matchmake(white);
+        assertEquals(1, server.getRegistry().size());
+        assertEquals(StoneColor.BLACK, black.getColor());
+        assertEquals(StoneColor.WHITE, white.getColor());
+    }
+
+    @Test
+    public void testClientLeavingTheLobbyIsNotPaired() {
+        GoServer server = new GoServer();
+        ClientHandler gone = new ClientHandler(new Socket());
+        ClientHandler next = new ClientHandler(new Socket());
+
+        server.matchmake(gone);
+        server.leaveLobby(gone);
+        server.matchmake(next);
+
+        assertEquals(0, server.getRegistry().size(), "Rozłączony gracz nie może dostać przeciwnika");
+        assertEquals(StoneColor.EMPTY, gone.getColor());
+    }
+}
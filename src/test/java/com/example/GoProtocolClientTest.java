@@ -0,0 +1,144 @@
+package com.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GoProtocolClientTest {
+
+    @Test
+    public void testServerLinesAreDecodedWithoutADisplay() throws Exception {
+        List<String> events = new CopyOnWriteArrayList<>();
+        CountDownLatch disconnected = new CountDownLatch(1);
+        GoClientListener listener = new GoClientListener() {
+            @Override
+            public void onBoard(BoardFrame.Diff diff) { events.add("board " + diff.getChangedCount()); }
+
+            @Override
+            public void onGameId(long gameId) { events.add("id " + gameId); }
+
+            @Override
+            public void onColor(StoneColor color) { events.add("color " + color); }
+
+            @Override
+            public void onSequence(int sequence, StoneColor turn) { events.add("seq " + sequence + " " + turn); }
+
+            @Override
+            public void onTurn(boolean opponentPassed) { events.add("turn " + opponentPassed); }
+
+            @Override
+            public void onRejected(String reason) { events.add("rejected"); }
+
+            @Override
+            public void onDisconnected(Exception cause) {
+                events.add("closed " + (cause == null));
+                disconnected.countDown();
+            }
+        };
+
+        Board board = new Board(9);
+        try (ServerSocket server = new ServerSocket(0)) {
+            GoProtocolClient client = new GoProtocolClient(listener);
+            client.connect("localhost", server.getLocalPort());
+            try (Socket socket = server.accept()) {
+                PrintWriter out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.UTF_8);
+                BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+                out.println("MESSAGE ID gry: 7");
+                out.println("Twój kolor to: BLACK");
+                out.println("SEQ 0 BLACK");
+                out.println("BOARD " + board.getBoardStateString());
+                out.println("MESSAGE Twój ruch");
+
+                client.sendMove(4, 4);
+                assertEquals("MOVE 4 4", in.readLine());
+
+                board.setStone(4, 4, StoneColor.BLACK);
+                out.println("MESSAGE Błąd: Pole jest już zajęte!");
+                out.println("SEQ 1 WHITE");
+                out.println("BOARD " + board.getBoardStateString());
+            }
+            assertTrue(disconnected.await(5, TimeUnit.SECONDS));
+        }
+
+        assertEquals(List.of("id 7", "color BLACK", "seq 0 BLACK", "board 0", "turn false",
+                "rejected", "seq 1 WHITE", "board 1", "closed true"), events);
+    }
+
+    private static void awaitEvents(List<String> events, int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (events.size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertTrue(events.size() >= count, "Za mało zdarzeń: " + events);
+    }
+
+    @Test
+    public void testPredictedMoveIsShownAtOnceAndRolledBackWhenRejected() throws Exception {
+        List<String> events = new CopyOnWriteArrayList<>();
+        GoClientListener listener = new GoClientListener() {
+            @Override
+            public void onBoard(BoardFrame.Diff diff) {
+                StringBuilder sb = new StringBuilder("board");
+                for (int i = 0; i < diff.getChangedCount(); i++) {
+                    sb.append(' ').append(diff.getCell(i)).append('=').append(diff.getValue(i));
+                }
+                events.add(sb.toString());
+            }
+
+            @Override
+            public void onSequence(int sequence, StoneColor turn) { events.add("seq " + sequence + " " + turn); }
+
+            @Override
+            public void onRejected(String reason) { events.add("rejected " + reason); }
+        };
+
+        Board board = new Board(9);
+        try (ServerSocket server = new ServerSocket(0)) {
+            GoProtocolClient client = new GoProtocolClient(listener);
+            client.setPredictionEnabled(true);
+            client.connect("localhost", server.getLocalPort());
+            try (Socket socket = server.accept()) {
+                PrintWriter out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.UTF_8);
+                BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+                out.println("Twój kolor to: BLACK");
+                out.println("SEQ 0 BLACK");
+                out.println("BOARD " + board.getBoardStateString());
+                awaitEvents(events, 2);
+
+                client.sendMove(4, 4);
+                assertEquals("board " + (4 * 9 + 4) + "=1", events.get(events.size() - 1), "Ruch widać przed odpowiedzią");
+                assertEquals("MOVE 4 4", in.readLine());
+
+                out.println("MESSAGE Błąd: Pole jest już zajęte!");
+                out.println("SEQ 0 BLACK");
+                awaitEvents(events, 6);
+
+                client.sendMove(2, 2);
+                assertEquals("MOVE 2 2", in.readLine());
+                board.setStone(2, 2, StoneColor.BLACK);
+                out.println("SEQ 1 WHITE");
+                out.println("BOARD " + board.getBoardStateString());
+                awaitEvents(events, 9);
+
+                client.sendMove(3, 3);
+                client.sendPass();
+                assertEquals("PASS", in.readLine(), "Ruch poza kolejką nie trafia do serwera");
+            }
+        }
+
+        assertEquals(List.of("seq 0 BLACK", "board", "board 40=1", "rejected Błąd: Pole jest już zajęte!",
+                "board 40=0", "seq 0 BLACK", "board 20=1", "seq 1 WHITE", "board",
+                "rejected To nie jest Twój ruch!"), events);
+    }
+}
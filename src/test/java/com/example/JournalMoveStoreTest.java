@@ -0,0 +1,136 @@
+package com.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JournalMoveStoreTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void testMovesAreReadBackInOrderPerGame() throws Exception {
+        try (JournalMoveStore store = new JournalMoveStore(dir)) {
+            store.appendMove(new MoveRecord(1, 1, 3, 4, StoneColor.BLACK, "MOVE"));
+            store.appendMove(new MoveRecord(2, 1, 18, 18, StoneColor.BLACK, "MOVE"));
+            store.appendMove(new MoveRecord(1, 2, -1, -1, StoneColor.WHITE, "PASS"));
+            store.flush();
+
+            List<MoveRecord> moves = store.loadMoves(1);
+            assertEquals(2, moves.size());
+            assertEquals(3, moves.get(0).getX());
+            assertEquals(4, moves.get(0).getY());
+            assertEquals(StoneColor.BLACK, moves.get(0).getColor());
+            assertEquals("PASS", moves.get(1).getType());
+            assertEquals(-1, moves.get(1).getX());
+            assertEquals(2, moves.get(1).getMoveNumber());
+            assertEquals(18, store.loadMoves(2).get(0).getX());
+            assertTrue(store.loadMoves(3).isEmpty(), "Nieznana gra nie powinna mieć ruchów");
+        }
+    }
+
+    @Test
+    public void testReopenRecoversMovesAndContinuesAppending() throws Exception {
+        try (JournalMoveStore store = new JournalMoveStore(dir)) {
+            store.appendMove(new MoveRecord(7, 1, 0, 0, StoneColor.BLACK, "MOVE"));
+            store.finishGame(7, "BLACK_WON", null);
+        }
+        try (JournalMoveStore store = new JournalMoveStore(dir)) {
+            assertEquals(1, store.loadMoves(7).size(), "Ruch powinien przetrwać ponowne otwarcie");
+            store.appendMove(new MoveRecord(8, 1, 1, 1, StoneColor.BLACK, "MOVE"));
+            store.flush();
+            assertEquals(1, store.loadMoves(8).size());
+            assertEquals(1, store.loadMoves(7).size());
+        }
+    }
+
+    @Test
+    public void testRecordsSpanSeveralSegments() throws Exception {
+        long segmentSize = 4 * JournalMoveStore.RECORD_SIZE;
+        try (JournalMoveStore store = new JournalMoveStore(dir, segmentSize, 0, null)) {
+            for (int i = 1; i <= 10; i++) {
+                store.appendMove(new MoveRecord(5, i, i, i, StoneColor.WHITE, "MOVE"));
+            }
+            store.flush();
+            assertEquals(10, store.loadMoves(5).size());
+            assertEquals(10, store.loadMoves(5).get(9).getX());
+        }
+        assertTrue(Files.exists(dir.resolve("journal-000002.seg")));
+
+        try (JournalMoveStore store = new JournalMoveStore(dir, segmentSize, 0, null)) {
+            assertEquals(10, store.loadMoves(5).size());
+        }
+    }
+
+    @Test
+    public void testResultIsPublishedAfterMovesAreDurable() throws Exception {
+        Map<Long, String> results = new ConcurrentHashMap<>();
+        try (JournalMoveStore store = new JournalMoveStore(dir, JournalMoveStore.DEFAULT_SEGMENT_SIZE, 0,
+                (id, result, blob) -> results.put(id, result))) {
+            store.appendMove(new MoveRecord(9, 1, -1, -1, StoneColor.BLACK, "SURRENDER"));
+            store.finishGame(9, "WHITE_WON", null);
+            store.flush();
+
+            assertEquals("WHITE_WON", results.get(9L));
+            assertEquals(1, store.loadMoves(9).size(), "Znacznik końca gry nie jest ruchem");
+        }
+    }
+
+    @Test
+    public void testResultMissedByTheDatabaseIsAppliedOnReopen() throws Exception {
+        try (JournalMoveStore store = new JournalMoveStore(dir, JournalMoveStore.DEFAULT_SEGMENT_SIZE, 0,
+                (id, result, blob) -> {
+                    throw new IllegalStateException("baza niedostępna");
+                })) {
+            store.appendMove(new MoveRecord(3, 1, 2, 2, StoneColor.BLACK, "MOVE"));
+            store.finishGame(3, "BLACK_WON", new byte[]{7, 8});
+            store.flush();
+        }
+
+        Map<Long, String> results = new ConcurrentHashMap<>();
+        Map<Long, byte[]> blobs = new ConcurrentHashMap<>();
+        try (JournalMoveStore store = new JournalMoveStore(dir, JournalMoveStore.DEFAULT_SEGMENT_SIZE, 0,
+                (id, result, blob) -> {
+                    results.put(id, result);
+                    blobs.put(id, blob);
+                })) {
+            assertEquals("BLACK_WON", results.get(3L), "Wynik z dziennika musi trafić do bazy po restarcie");
+            assertArrayEquals(new byte[]{7, 8}, blobs.get(3L));
+            assertEquals(1, store.loadMoves(3).size());
+        }
+
+        results.clear();
+        try (JournalMoveStore store = new JournalMoveStore(dir, JournalMoveStore.DEFAULT_SEGMENT_SIZE, 0,
+                (id, result, blob) -> results.put(id, result))) {
+            assertTrue(results.isEmpty(), "Zapisany wynik nie jest zapisywany ponownie");
+        }
+    }
+
+    @Test
+    public void testKeysetPagesCoverTheGameOnce() throws Exception {
+        try (JournalMoveStore store = new JournalMoveStore(dir)) {
+            for (int i = 1; i <= 600; i++) {
+                store.appendMove(new MoveRecord(4, i, i % 19, i % 17, StoneColor.BLACK, "MOVE"));
+            }
+            store.flush();
+
+            List<MoveRecord> first = store.loadMoves(4, 0, 256);
+            List<MoveRecord> second = store.loadMoves(4, 256, 256);
+            List<MoveRecord> third = store.loadMoves(4, 512, 256);
+
+            assertEquals(256, first.size());
+            assertEquals(257, second.get(0).getMoveNumber());
+            assertEquals(88, third.size());
+            assertEquals(600, third.get(87).getMoveNumber());
+            assertEquals(600, store.loadMoves(4).size());
+        }
+    }
+}
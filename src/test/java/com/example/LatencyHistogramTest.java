@@ -0,0 +1,73 @@
+package com.example;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void testSmallValuesHaveExactBuckets() {
+        for (long value = 0; value < 32; value++) {
+            assertEquals(value, LatencyHistogram.bucketIndex(value));
+            assertEquals(value, LatencyHistogram.bucketUpperBound((int) value));
+        }
+    }
+
+    @Test
+    public void testBucketBoundariesAroundPowersOfTwo() {
+        assertEquals(32, LatencyHistogram.bucketIndex(32));
+        assertEquals(63, LatencyHistogram.bucketIndex(63));
+        assertEquals(64, LatencyHistogram.bucketIndex(64));
+        assertEquals(64, LatencyHistogram.bucketIndex(65), "64 i 65 dzielą kubełek o szerokości 2");
+        assertEquals(65, LatencyHistogram.bucketIndex(66));
+        assertEquals(65, LatencyHistogram.bucketUpperBound(64));
+
+        for (long value : new long[]{1_000, 123_456, 1_000_000_007L, 1L << 40, (1L << 40) - 1}) {
+            int index = LatencyHistogram.bucketIndex(value);
+            long upper = LatencyHistogram.bucketUpperBound(index);
+            assertTrue(upper >= value, "Górna granica kubełka nie może być mniejsza od wartości " + value);
+            assertTrue(LatencyHistogram.bucketUpperBound(index - 1) < value, "Wartość " + value + " w zbyt wysokim kubełku");
+            assertTrue(upper - value <= value / 32, "Błąd względny ponad 1/32 dla " + value);
+        }
+    }
+
+    @Test
+    public void testLargestValueDoesNotOverflow() {
+        int index = LatencyHistogram.bucketIndex(Long.MAX_VALUE);
+        assertEquals(Long.MAX_VALUE, LatencyHistogram.bucketUpperBound(index));
+
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.recordValue(Long.MAX_VALUE);
+        histogram.recordValue(-5);   // clamped to 0
+        assertEquals(2, histogram.getCount());
+        assertEquals(0, histogram.getValueAtPercentile(50));
+        assertEquals(Long.MAX_VALUE, histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    public void testPercentilesAndSummary() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getValueAtPercentile(99), "Pusty histogram");
+        for (long value = 1; value <= 100; value++) {
+            histogram.recordValue(value * 1000);
+        }
+
+        assertEquals(100, histogram.getCount());
+        assertEquals(5_050_000, histogram.getSum());
+        assertEquals(50_500.0, histogram.getMean(), 0.001);
+        assertEquals(100_000, histogram.getMax());
+
+        long p50 = histogram.getValueAtPercentile(50);
+        assertTrue(p50 >= 50_000 && p50 <= 50_000 * 33 / 32, "p50 = " + p50);
+        long p99 = histogram.getValueAtPercentile(99);
+        assertTrue(p99 >= 99_000 && p99 <= 100_000, "p99 = " + p99);
+        assertEquals(100_000, histogram.getValueAtPercentile(100), "p100 jest ograniczony przez maksimum");
+        assertEquals(histogram.getValueAtPercentile(0.001), histogram.getValueAtPercentile(0), "Co najmniej jedna próbka");
+
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMax());
+        assertEquals(0, histogram.getValueAtPercentile(50));
+    }
+}
@@ -0,0 +1,32 @@
+package com.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LocalReplayTest {
+
+    @Test
+    public void testScrubbingMatchesPlayingFromTheStart() {
+        List<MoveRecord> moves = new ArrayList<>();
+        for (int i = 0; i < 70; i++) {
+            moves.add(new MoveRecord(5, i + 1, (i * 7) % 19, (i * 11) % 19,
+                    i % 2 == 0 ? StoneColor.BLACK : StoneColor.WHITE, i == 40 ? "PASS" : "MOVE"));
+        }
+        LocalReplay replay = new LocalReplay(5, MoveCodec.toBlob(19, moves));
+        assertEquals(70, replay.getMoveCount());
+
+        for (int target : new int[]{33, 34, 70, 3, 0, 17, 16, 69, 100, -4}) {
+            Position expected = new Position(19);
+            for (int i = 0; i < Math.max(0, Math.min(target, 70)); i++) {
+                expected.apply(moves.get(i));
+            }
+            assertEquals(expected.toBoardString(), replay.seek(target).toBoardString(), "Ruch " + target);
+        }
+        assertEquals(0, replay.getCurrentMove());
+        assertNull(replay.getLastMove());
+    }
+}
@@ -0,0 +1,25 @@
+package com.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LogBufferTest {
+
+    @Test
+    public void testOldestLinesAreEvictedAtCapacity() {
+        LogBuffer log = new LogBuffer(3);
+        log.append(List.of("a", "b"));
+        assertEquals(List.of("a", "b"), log);
+
+        log.append(List.of("c", "d"));
+        assertEquals(List.of("b", "c", "d"), log);
+
+        log.append(List.of("e", "f", "g", "h"));
+        assertEquals(List.of("f", "g", "h"), log);
+        assertEquals(3, log.size());
+        assertThrows(IndexOutOfBoundsException.class, () -> log.get(3));
+    }
+}
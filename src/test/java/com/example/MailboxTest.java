@@ -0,0 +1,125 @@
+package com.example;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MailboxTest {
+    private final GameExecutor executor = new GameExecutor(4);
+
+    @AfterEach
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    @Test
+    public void testCommandsFromManyThreadsRunInOrderPerSender() throws Exception {
+        Mailbox mailbox = new Mailbox(executor);
+        int senders = 4;
+        int perSender = 2000;
+        List<List<Integer>> seen = new ArrayList<>();
+        for (int s = 0; s < senders; s++) seen.add(new ArrayList<>());   // only touched by the mailbox
+        CountDownLatch done = new CountDownLatch(senders * perSender);
+
+        List<Thread> threads = new ArrayList<>();
+        for (int s = 0; s < senders; s++) {
+            int sender = s;
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < perSender; i++) {
+                    int value = i;
+                    mailbox.post(() -> {
+                        seen.get(sender).add(value);
+                        done.countDown();
+                    });
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+
+        for (List<Integer> values : seen) {
+            assertEquals(perSender, values.size());
+            for (int i = 0; i < perSender; i++) {
+                assertEquals(i, (int) values.get(i), "Komendy jednego nadawcy muszą zachować kolejność");
+            }
+        }
+    }
+
+    @Test
+    public void testOnlyOneCommandOfAGameRunsAtATime() throws Exception {
+        Mailbox mailbox = new Mailbox(executor);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        int commands = 500;
+        CountDownLatch done = new CountDownLatch(commands);
+
+        for (int i = 0; i < commands; i++) {
+            new Thread(() -> mailbox.post(() -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                Thread.yield();
+                running.decrementAndGet();
+                done.countDown();
+            })).start();
+        }
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertEquals(1, maxRunning.get(), "Gra może zajmować najwyżej jeden wątek roboczy");
+        assertEquals(0, mailbox.size());
+    }
+
+    @Test
+    public void testFailingCommandDoesNotStopTheMailbox() throws Exception {
+        Mailbox mailbox = new Mailbox(executor);
+        CountDownLatch done = new CountDownLatch(1);
+        mailbox.post(() -> {
+            throw new IllegalStateException("test");
+        });
+        mailbox.post(done::countDown);
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testGamesRunInParallel() throws Exception {
+        Mailbox first = new Mailbox(executor);
+        Mailbox second = new Mailbox(executor);
+        CountDownLatch bothRunning = new CountDownLatch(2);
+        CountDownLatch done = new CountDownLatch(2);
+        for (Mailbox mailbox : new Mailbox[]{first, second}) {
+            mailbox.post(() -> {
+                bothRunning.countDown();
+                try {
+                    if (bothRunning.await(5, TimeUnit.SECONDS)) done.countDown();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        assertTrue(done.await(10, TimeUnit.SECONDS), "Dwie gry powinny działać równolegle");
+    }
+
+    @Test
+    public void testDelayedCommandRunsAfterDelayInOrderWithOthers() throws Exception {
+        Mailbox mailbox = new Mailbox(executor);
+        List<String> order = new ArrayList<>();
+        CountDownLatch done = new CountDownLatch(1);
+        long started = System.nanoTime();
+        long[] ranAfter = new long[1];
+
+        mailbox.postDelayed(() -> {
+            ranAfter[0] = System.nanoTime() - started;
+            order.add("delayed");
+            done.countDown();
+        }, 100);
+        mailbox.post(() -> order.add("now"));
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertTrue(ranAfter[0] >= TimeUnit.MILLISECONDS.toNanos(100), "Komenda opóźniona nie może ruszyć wcześniej");
+        assertEquals(List.of("now", "delayed"), order);
+    }
+}
@@ -0,0 +1,52 @@
+package com.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MoveCodecTest {
+
+    @Test
+    public void testRoundTripKeepsEveryMoveType() {
+        List<MoveRecord> moves = List.of(
+                new MoveRecord(3, 1, 0, 0, StoneColor.BLACK, "MOVE"),
+                new MoveRecord(3, 2, 18, 18, StoneColor.WHITE, "MOVE"),
+                new MoveRecord(3, 3, -1, -1, StoneColor.BLACK, "PASS"),
+                new MoveRecord(3, 4, -1, -1, StoneColor.WHITE, "SURRENDER"));
+
+        byte[] blob = MoveCodec.toBlob(19, moves);
+        List<MoveRecord> decoded = MoveCodec.decode(3, blob);
+
+        assertEquals(MoveCodec.HEADER_SIZE + 2 * moves.size(), blob.length, "Każdy ruch powinien zająć 2 bajty");
+        assertEquals(19, MoveCodec.boardSize(blob));
+        for (int i = 0; i < moves.size(); i++) {
+            assertEquals(moves.get(i).getX(), decoded.get(i).getX());
+            assertEquals(moves.get(i).getY(), decoded.get(i).getY());
+            assertEquals(moves.get(i).getColor(), decoded.get(i).getColor());
+            assertEquals(moves.get(i).getType(), decoded.get(i).getType());
+            assertEquals(i + 1, decoded.get(i).getMoveNumber());
+        }
+    }
+
+    @Test
+    public void testDecodeIntoAppliesCaptures() {
+        List<MoveRecord> moves = List.of(
+                new MoveRecord(1, 1, 0, 0, StoneColor.BLACK, "MOVE"),
+                new MoveRecord(1, 2, 1, 0, StoneColor.WHITE, "MOVE"),
+                new MoveRecord(1, 3, -1, -1, StoneColor.BLACK, "PASS"),
+                new MoveRecord(1, 4, 0, 1, StoneColor.WHITE, "MOVE"));
+        Position position = new Position(9);
+
+        MoveCodec.decodeInto(position, MoveCodec.toBlob(9, moves), Integer.MAX_VALUE);
+
+        assertEquals(StoneColor.EMPTY, position.getStone(0, 0), "Czarny kamień powinien zostać zbity");
+        assertEquals(StoneColor.WHITE, position.getStone(0, 1));
+    }
+
+    @Test
+    public void testRejectsForeignData() {
+        assertThrows(IllegalArgumentException.class, () -> MoveCodec.decode(1, new byte[]{1, 2, 3, 4, 5, 6, 7, 8}));
+    }
+}
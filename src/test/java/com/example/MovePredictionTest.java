@@ -0,0 +1,96 @@
+package com.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MovePredictionTest {
+
+    /** Forwards the server's lines for one seat into a client-side prediction, like GoClient does. */
+    private static class Seat implements Player {
+        final MovePrediction prediction = new MovePrediction();
+        final BoardFrame frame = new BoardFrame();
+        String shown;
+
+        Seat(StoneColor color) {
+            prediction.setColor(color);
+        }
+
+        @Override
+        public void sendMessage(String message) {
+            if (message.startsWith("SEQ ")) {
+                String[] parts = message.split(" ");
+                if (prediction.onSequence(Integer.parseInt(parts[1]), StoneColor.valueOf(parts[2]))) {
+                    shown = prediction.getBoardString();
+                }
+            } else if (message.startsWith("BOARD ")) {
+                prediction.onServerBoard(frame.decode(message, 6), frame.getSize());
+                frame.publish();
+                shown = prediction.getBoardString();
+            }
+        }
+    }
+
+    /** Runs an action on the game's actor and waits for it, like a command from a ClientHandler. */
+    private static void onGame(Game game, Runnable action) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        game.submit(() -> {
+            action.run();
+            done.countDown();
+        });
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testPredictedMoveMatchesServerAndIllegalMovesStayLocal() throws Exception {
+        Game game = new Game(9);
+        Seat black = new Seat(StoneColor.BLACK);
+        Seat white = new Seat(StoneColor.WHITE);
+        game.addPlayer(black);
+        game.addPlayer(white);
+        onGame(game, () -> {
+            for (Seat seat : new Seat[]{black, white}) {
+                seat.sendMessage(game.sequenceLine());
+                seat.sendMessage("BOARD " + game.getBoard().getBoardStateString());
+            }
+        });
+
+        assertTrue(black.prediction.isActive());
+        assertNotNull(white.prediction.predict(4, 4), "Biały nie może grać przed czarnym");
+
+        assertNull(black.prediction.predict(4, 4));
+        String predicted = black.prediction.getBoardString();
+        assertNotNull(black.prediction.predict(3, 3), "Drugi ruch przed odpowiedzią serwera");
+
+        onGame(game, () -> game.processMove(4, 4, StoneColor.BLACK));
+        assertEquals(predicted, black.shown);
+        assertEquals(predicted, white.shown);
+
+        assertNotNull(white.prediction.predict(4, 4), "Pole zajęte - odrzucone lokalnie");
+        assertNull(white.prediction.predict(5, 5));
+    }
+
+    @Test
+    public void testRejectedPredictionIsRolledBack() {
+        MovePrediction prediction = new MovePrediction();
+        prediction.setColor(StoneColor.BLACK);
+        Board board = new Board(9);
+        prediction.onSequence(0, StoneColor.BLACK);
+        BoardFrame frame = new BoardFrame();
+        byte[] cells = frame.decode("BOARD " + board.getBoardStateString(), 6);
+        prediction.onServerBoard(cells, frame.getSize());
+        String empty = prediction.getBoardString();
+
+        assertNull(prediction.predict(2, 2));
+        assertNotEquals(empty, prediction.getBoardString());
+        prediction.copyTo(cells);
+        assertEquals(BoardFrame.BLACK, cells[2 * 9 + 2], "Komórka y * size + x");
+
+        assertTrue(prediction.onSequence(0, StoneColor.BLACK), "Serwer nie przyjął ruchu");
+        assertEquals(empty, prediction.getBoardString());
+        assertNull(prediction.predict(2, 2), "Po wycofaniu znów ruch czarnego");
+    }
+}
@@ -0,0 +1,154 @@
+package com.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MoveWriteBehindTest {
+
+    /** Records every committed batch; can be told to fail a number of times or for one game. */
+    private static class RecordingWriter extends MoveBatchWriter {
+        final List<List<MoveWriteBehind.PendingWrite>> batches = new CopyOnWriteArrayList<>();
+        volatile int failuresLeft = 0;
+        volatile long brokenGame = -1;
+
+        @Override
+        public void writeBatch(List<MoveWriteBehind.PendingWrite> batch) {
+            if (failuresLeft > 0) {
+                failuresLeft--;
+                throw new IllegalStateException("baza niedostępna");
+            }
+            for (MoveWriteBehind.PendingWrite write : batch) {
+                if (write.gameId == brokenGame) throw new IllegalStateException("zepsuta gra");
+            }
+            batches.add(new ArrayList<>(batch));
+        }
+
+        int writtenMoves() {
+            int count = 0;
+            for (List<MoveWriteBehind.PendingWrite> batch : batches) {
+                for (MoveWriteBehind.PendingWrite write : batch) {
+                    if (write.move != null) count++;
+                }
+            }
+            return count;
+        }
+    }
+
+    private static MoveWriteBehind start(RecordingWriter writer, MoveWriteBehind.FlushPolicy policy, int batchSize,
+                                         long intervalMs, long maxDelayMs) {
+        MoveWriteBehind writeBehind = new MoveWriteBehind(writer, policy, batchSize, intervalMs, maxDelayMs, 3, 1000);
+        writeBehind.start();
+        return writeBehind;
+    }
+
+    private static void enqueueMoves(MoveWriteBehind writeBehind, long gameId, int count) {
+        for (int i = 1; i <= count; i++) {
+            writeBehind.enqueueMove(new MoveRecord(gameId, i, i % 9, i / 9, StoneColor.BLACK, "MOVE"));
+        }
+    }
+
+    private static void awaitMoves(RecordingWriter writer, int count, long timeoutMs) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        while (writer.writtenMoves() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    @Test
+    public void testPerMoveCommitsEachMoveAlone() throws Exception {
+        RecordingWriter writer = new RecordingWriter();
+        MoveWriteBehind writeBehind = start(writer, MoveWriteBehind.FlushPolicy.PER_MOVE, 100, 50, 1000);
+        enqueueMoves(writeBehind, 1, 5);
+        writeBehind.flush();
+        writeBehind.stop();
+
+        assertEquals(5, writer.writtenMoves());
+        for (List<MoveWriteBehind.PendingWrite> batch : writer.batches) {
+            assertEquals(1, batch.size());
+        }
+    }
+
+    @Test
+    public void testEveryNMovesCommitsFullBatchesAndFallsBackToMaxDelay() throws Exception {
+        RecordingWriter writer = new RecordingWriter();
+        MoveWriteBehind writeBehind = start(writer, MoveWriteBehind.FlushPolicy.EVERY_N_MOVES, 10, 20, 150);
+
+        enqueueMoves(writeBehind, 1, 10);
+        awaitMoves(writer, 10, 2000);
+        assertEquals(1, writer.batches.size(), "Pełna partia jest zapisywana od razu");
+
+        long started = System.nanoTime();
+        enqueueMoves(writeBehind, 2, 3);   // a quiet server: the batch never fills up
+        awaitMoves(writer, 13, 3000);
+        long waitedMs = (System.nanoTime() - started) / 1_000_000;
+        writeBehind.stop();
+
+        assertEquals(13, writer.writtenMoves(), "Niepełna partia musi zostać zapisana po max-delay-ms");
+        assertTrue(waitedMs >= 100, "Zapis nie powinien nastąpić przed upływem max-delay-ms, było " + waitedMs);
+    }
+
+    @Test
+    public void testFinishMarkerCommitsImmediately() throws Exception {
+        RecordingWriter writer = new RecordingWriter();
+        MoveWriteBehind writeBehind = start(writer, MoveWriteBehind.FlushPolicy.EVERY_N_MOVES, 100, 20, 60_000);
+        enqueueMoves(writeBehind, 1, 3);
+        writeBehind.enqueueFinish(1, "BLACK_WON", null);
+        awaitMoves(writer, 3, 2000);
+        writeBehind.stop();
+
+        assertEquals(3, writer.writtenMoves());
+        List<MoveWriteBehind.PendingWrite> last = writer.batches.get(writer.batches.size() - 1);
+        assertEquals("BLACK_WON", last.get(last.size() - 1).result);
+    }
+
+    @Test
+    public void testIntervalCommitsPendingWrites() throws Exception {
+        RecordingWriter writer = new RecordingWriter();
+        MoveWriteBehind writeBehind = start(writer, MoveWriteBehind.FlushPolicy.INTERVAL, 100, 50, 60_000);
+        enqueueMoves(writeBehind, 1, 4);
+        awaitMoves(writer, 4, 2000);
+        writeBehind.stop();
+        assertEquals(4, writer.writtenMoves());
+    }
+
+    @Test
+    public void testFailedBatchIsRetriedWithoutLosingMoves() throws Exception {
+        RecordingWriter writer = new RecordingWriter();
+        writer.failuresLeft = 2;
+        MoveWriteBehind writeBehind = start(writer, MoveWriteBehind.FlushPolicy.EVERY_N_MOVES, 5, 20, 1000);
+        enqueueMoves(writeBehind, 1, 5);
+        writeBehind.flush();
+        writeBehind.stop();
+
+        assertEquals(5, writer.writtenMoves(), "Ruchy muszą przetrwać przejściowy błąd bazy");
+    }
+
+    @Test
+    public void testPersistentFailureOnlyFailsTheBrokenGame() throws Exception {
+        RecordingWriter writer = new RecordingWriter();
+        writer.brokenGame = 2;
+        Set<Long> failed = ConcurrentHashMap.newKeySet();
+        MoveWriteBehind writeBehind = start(writer, MoveWriteBehind.FlushPolicy.EVERY_N_MOVES, 6, 20, 1000);
+        writeBehind.setFailureListener(failed::add);
+
+        enqueueMoves(writeBehind, 1, 3);
+        enqueueMoves(writeBehind, 2, 3);
+        writeBehind.flush();
+        assertEquals(Set.of(2L), failed);
+        assertEquals(3, writer.writtenMoves(), "Ruchy innych gier z tej samej partii są zapisane");
+
+        enqueueMoves(writeBehind, 2, 2);   // later writes of a failed game are skipped, not retried
+        enqueueMoves(writeBehind, 3, 2);
+        writeBehind.flush();
+        writeBehind.stop();
+        assertEquals(5, writer.writtenMoves());
+        assertEquals(Set.of(2L), failed);
+    }
+}
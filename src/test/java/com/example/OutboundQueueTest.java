@@ -0,0 +1,55 @@
+package com.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OutboundQueueTest {
+
+    @Test
+    public void testDrainReturnsQueuedMessagesInOrder() throws InterruptedException {
+        OutboundQueue queue = new OutboundQueue(10, OutboundQueue.SlowConsumerPolicy.DISCONNECT);
+        queue.offer("MESSAGE a");
+        queue.offer("BOARD x");
+        queue.offer("MESSAGE b");
+
+        List<String> batch = queue.drainBatch(100);
+
+        assertEquals(List.of("MESSAGE a", "BOARD x", "MESSAGE b"), batch, "Wiadomości powinny zostać wysłane w kolejności");
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    public void testDropStaleBoardsKeepsMessagesAndNewestBoard() throws InterruptedException {
+        OutboundQueue queue = new OutboundQueue(3, OutboundQueue.SlowConsumerPolicy.DROP_STALE_BOARDS);
+        queue.offer("BOARD 1");
+        queue.offer("MESSAGE a");
+        queue.offer("BOARD 2");
+
+        assertTrue(queue.offer("BOARD 3"), "Nowa plansza powinna wyprzeć stare plansze");
+        assertEquals(List.of("MESSAGE a", "BOARD 3"), queue.drainBatch(100));
+        assertEquals(2, queue.getDroppedBoards());
+    }
+
+    @Test
+    public void testOverflowWithDisconnectPolicyClosesQueue() {
+        OutboundQueue queue = new OutboundQueue(2, OutboundQueue.SlowConsumerPolicy.DISCONNECT);
+        queue.offer("BOARD 1");
+        queue.offer("BOARD 2");
+
+        assertFalse(queue.offer("BOARD 3"), "Przepełniona kolejka powinna odrzucić wiadomość");
+        assertTrue(queue.isClosed(), "Wolny klient powinien zostać rozłączony");
+    }
+
+    @Test
+    public void testOverflowWithoutStaleBoardsClosesQueue() {
+        OutboundQueue queue = new OutboundQueue(2, OutboundQueue.SlowConsumerPolicy.DROP_STALE_BOARDS);
+        queue.offer("MESSAGE a");
+        queue.offer("MESSAGE b");
+
+        assertFalse(queue.offer("MESSAGE c"));
+        assertTrue(queue.isClosed());
+    }
+}
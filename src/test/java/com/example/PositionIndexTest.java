@@ -0,0 +1,107 @@
+package com.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PositionIndexTest {
+
+    @TempDir
+    Path dir;
+
+    private static byte[] game(int... xyPairs) {
+        short[] codes = new short[xyPairs.length / 2];
+        for (int i = 0; i < codes.length; i++) {
+            codes[i] = MoveCodec.encode(19, xyPairs[2 * i], xyPairs[2 * i + 1],
+                    i % 2 == 0 ? StoneColor.BLACK : StoneColor.WHITE, "MOVE");
+        }
+        return MoveCodec.toBlob(19, codes, codes.length);
+    }
+
+    @Test
+    public void testMirroredPositionsAndCornersAreFound() throws Exception {
+        try (PositionIndex index = new PositionIndex(dir, 1000, 8, 0)) {
+            index.indexGame(1, game(2, 2, 15, 15, 9, 9));
+            index.indexGame(2, game(16, 2, 3, 15));          // game 1 mirrored left-right
+            index.indexGame(3, game(3, 3, 15, 15));
+
+            Position position = new Position(19);
+            position.play(2, 2, StoneColor.BLACK);
+            position.play(15, 15, StoneColor.WHITE);
+            List<PositionIndex.Hit> hits = index.find(PositionHash.of(position), 10);
+            assertEquals(2, hits.size());
+            assertEquals(1, hits.get(0).getGameId());
+            assertEquals(2, hits.get(0).getMoveNumber());
+            assertEquals(2, hits.get(1).getGameId());
+
+            StoneColor[] corner = new StoneColor[PositionHash.CORNER_SIZE * PositionHash.CORNER_SIZE];
+            Arrays.fill(corner, StoneColor.EMPTY);
+            corner[2 * PositionHash.CORNER_SIZE + 2] = StoneColor.BLACK;
+            hits = index.find(PositionHash.cornerPattern(corner), 10);
+            assertEquals(2, hits.size(), "Czarny kamień na 3-3 w rogu grach 1 i 2");
+            assertEquals(1, hits.get(1).getMoveNumber());
+        }
+    }
+
+    @Test
+    public void testSegmentsSurviveReopenAndMerge() throws Exception {
+        Position position = new Position(19);
+        position.play(3, 3, StoneColor.BLACK);
+        long key = PositionHash.of(position);
+
+        try (PositionIndex index = new PositionIndex(dir, 1, 2, 0)) {
+            for (int id = 1; id <= 5; id++) {
+                index.indexGame(id, game(3, 3, id, 10));
+            }
+        }
+        try (PositionIndex index = new PositionIndex(dir, 1, 2, 0)) {
+            List<PositionIndex.Hit> hits = index.find(key, 10);
+            assertEquals(5, hits.size());
+            assertEquals(5, hits.get(4).getGameId());
+            assertEquals(3, index.find(key, 3).size());
+        }
+    }
+
+    @Test
+    public void testFullQueueDefersGamesInsteadOfIndexingOnTheCaller() throws Exception {
+        int games = 5000;
+        Map<Long, byte[]> archive = new ConcurrentHashMap<>();
+        AtomicInteger reloaded = new AtomicInteger();
+        Set<String> indexingThreads = ConcurrentHashMap.newKeySet();
+        Position position = new Position(19);
+        position.play(3, 3, StoneColor.BLACK);
+        long key = PositionHash.of(position);
+
+        try (PositionIndex index = new PositionIndex(dir, 1_000_000, 8, 0)) {
+            index.setBlobLoader(id -> {
+                reloaded.incrementAndGet();
+                indexingThreads.add(Thread.currentThread().getName());
+                return archive.get(id);
+            });
+            for (int id = 1; id <= games; id++) {
+                int[] moves = new int[60];
+                moves[0] = 3;
+                moves[1] = 3;
+                for (int i = 2; i < moves.length; i++) moves[i] = (id + i * 7) % 19;
+                byte[] blob = game(moves);
+                archive.put((long) id, blob);
+                index.submit(id, blob);
+            }
+        }
+        assertTrue(reloaded.get() > 0, "Przy pełnej kolejce gry są odkładane na później");
+        assertEquals(Set.of("position-indexer"), indexingThreads);
+
+        try (PositionIndex index = new PositionIndex(dir, 1_000_000, 8, 0)) {
+            assertEquals(games, index.find(key, games + 1).size(), "Odłożone gry też trafiają do indeksu");
+        }
+    }
+}
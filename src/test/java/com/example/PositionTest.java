@@ -0,0 +1,108 @@
+package com.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PositionTest {
+
+    @Test
+    public void testCaptureRemovesGroupWithoutLiberties() {
+        Position position = new Position(9);
+        position.play(1, 0, StoneColor.WHITE);
+        position.play(0, 0, StoneColor.BLACK);
+        int captured = position.play(0, 1, StoneColor.WHITE);
+
+        assertEquals(1, captured, "Czarny kamień w rogu powinien zostać zbity");
+        assertEquals(StoneColor.EMPTY, position.getStone(0, 0));
+    }
+
+    @Test
+    public void testPackAndUnpackRoundTrip() {
+        Position position = new Position(19);
+        position.play(3, 3, StoneColor.BLACK);
+        position.play(15, 16, StoneColor.WHITE);
+        position.play(18, 18, StoneColor.BLACK);
+
+        byte[] packed = position.pack();
+
+        assertEquals(91, packed.length, "Plansza 19x19 powinna zająć 91 bajtów");
+        assertEquals(position, Position.unpack(19, packed));
+    }
+
+    @Test
+    public void testMatchesRuleEngineOnRandomGame() {
+        RuleEngine ruleEngine = new RuleEngine();
+        Board board = new Board(9);
+        Position position = new Position(9);
+        Random random = new Random(42);
+        StoneColor color = StoneColor.BLACK;
+
+        for (int i = 0; i < 2000; i++) {
+            int x = random.nextInt(9);
+            int y = random.nextInt(9);
+            if (ruleEngine.isMoveValid(board, x, y, color)) {
+                position.play(x, y, color);
+                assertEquals(board.getBoardStateString(), position.toBoardString(), "Pozycja rozbieżna po ruchu " + i);
+                color = color == StoneColor.BLACK ? StoneColor.WHITE : StoneColor.BLACK;
+            }
+        }
+    }
+
+    @Test
+    public void testReplaySeekMatchesSequentialPlayback() {
+        List<MoveRecord> moves = new ArrayList<>();
+        RuleEngine ruleEngine = new RuleEngine();
+        Board board = new Board(19);
+        Random random = new Random(7);
+        StoneColor color = StoneColor.BLACK;
+        for (int attempt = 0; attempt < 100_000 && moves.size() < 300; attempt++) {
+            int x = random.nextInt(19);
+            int y = random.nextInt(19);
+            if (ruleEngine.isMoveValid(board, x, y, color)) {
+                moves.add(new MoveRecord(1, moves.size() + 1, x, y, color, "MOVE"));
+                color = color == StoneColor.BLACK ? StoneColor.WHITE : StoneColor.BLACK;
+            }
+        }
+
+        List<String> frames = new ArrayList<>();
+        ReplaySession session = new ReplaySession(1, 19, moves, new ArrayList<>(), message -> {
+            if (message.startsWith("BOARD ")) frames.add(message.substring(6));
+        }, GameExecutor.shared());
+
+        Position expected = new Position(19);
+        for (int i = 0; i < 250; i++) {
+            expected.apply(moves.get(i));
+        }
+        session.seek(250);
+        session.seek(17);
+        session.seek(250);
+
+        assertEquals(250, session.getCurrentMove());
+        assertEquals(expected.toBoardString(), frames.get(frames.size() - 1), "Skok do ruchu 250 powinien dać tę samą pozycję");
+    }
+
+    @Test
+    public void testSeekPastLoadedMovesCompletesWhenPageArrives() {
+        List<MoveRecord> moves = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            moves.add(new MoveRecord(1, i + 1, i % 19, i / 19, i % 2 == 0 ? StoneColor.BLACK : StoneColor.WHITE, "MOVE"));
+        }
+        List<String> frames = new ArrayList<>();
+        ReplaySession session = new ReplaySession(1, 19, new ArrayList<>(), message -> {
+            if (message.startsWith("BOARD ")) frames.add(message);
+        }, GameExecutor.shared());
+
+        session.appendMoves(moves.subList(0, 20), false);
+        session.seek(30);
+        assertTrue(frames.isEmpty(), "Pozycja po ruchu 30 nie jest jeszcze znana");
+
+        session.appendMoves(moves.subList(20, 40), true);
+        assertEquals(30, session.getCurrentMove());
+        assertEquals(1, frames.size());
+    }
+}
@@ -0,0 +1,74 @@
+package com.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReplayCacheTest {
+
+    private static List<MoveRecord> moves(long gameId, int count) {
+        List<MoveRecord> moves = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            moves.add(new MoveRecord(gameId, i, i % 19, i / 19, i % 2 == 1 ? StoneColor.BLACK : StoneColor.WHITE, "MOVE"));
+        }
+        return moves;
+    }
+
+    @Test
+    public void testConcurrentMissesShareOneLoad() throws Exception {
+        ReplayCache cache = new ReplayCache(1 << 20);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ReplayCache.CachedGame[] results = new ReplayCache.CachedGame[4];
+
+        Thread[] threads = new Thread[results.length];
+        for (int t = 0; t < threads.length; t++) {
+            int slot = t;
+            threads[t] = new Thread(() -> results[slot] = cache.get(7, id -> {
+                loads.incrementAndGet();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return new ReplayCache.CachedGame(id, 19, moves(id, 120));
+            }));
+            threads[t].start();
+        }
+        Thread.sleep(100);
+        release.countDown();
+        for (Thread thread : threads) thread.join(5000);
+
+        assertEquals(1, loads.get(), "Gra powinna zostać wczytana tylko raz");
+        for (ReplayCache.CachedGame result : results) assertSame(results[0], result);
+        assertEquals(120 / ReplaySession.CHECKPOINT_INTERVAL, results[0].getCheckpoints().size());
+        assertSame(results[0], cache.get(7, id -> fail("Trafienie nie powinno wczytywać gry")));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedGameIsEvictedBySize() {
+        long weight = new ReplayCache.CachedGame(1, 19, moves(1, 100)).getWeight();
+        ReplayCache cache = new ReplayCache(weight * 2 + weight / 2);
+
+        cache.get(1, id -> new ReplayCache.CachedGame(id, 19, moves(id, 100)));
+        cache.get(2, id -> new ReplayCache.CachedGame(id, 19, moves(id, 100)));
+        cache.get(1, id -> fail("Gra 1 jest w pamięci"));
+        cache.get(3, id -> new ReplayCache.CachedGame(id, 19, moves(id, 100)));
+
+        assertEquals(2, cache.size());
+        assertEquals(2 * weight, cache.getBytes());
+        AtomicInteger reloads = new AtomicInteger();
+        cache.get(2, id -> {
+            reloads.incrementAndGet();
+            return null;
+        });
+        assertEquals(1, reloads.get(), "Najdawniej używana gra 2 powinna zostać usunięta");
+        assertNull(cache.get(4, id -> null));
+        assertEquals(2, cache.size(), "Brak gry nie trafia do pamięci");
+    }
+}
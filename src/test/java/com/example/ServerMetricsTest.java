@@ -0,0 +1,84 @@
+package com.example;
+
+import org.junit.jupiter.api.Test;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.MBeanAttributeInfo;
+import javax.management.ReflectionException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ServerMetricsTest {
+
+    private static ServerMetrics sample() {
+        ServerMetrics metrics = new ServerMetrics();
+        metrics.counter("test_moves_total", "Moves").add(3);
+        metrics.gauge("test_connections", "Connections").increment();
+        metrics.gauge("test_games", "Games", () -> 7);
+        LatencyHistogram histogram = metrics.histogram("test_move_seconds", "Move time");
+        histogram.recordValue(TimeUnit.MILLISECONDS.toNanos(2));
+        return metrics;
+    }
+
+    @Test
+    public void testScrapeUsesPrometheusTextFormat() {
+        String text = sample().scrape();
+
+        assertTrue(text.contains("# TYPE test_moves_total counter\ntest_moves_total 3\n"));
+        assertTrue(text.contains("# TYPE test_connections gauge\ntest_connections 1\n"));
+        assertTrue(text.contains("# HELP test_games Games\n# TYPE test_games gauge\ntest_games 7\n"));
+        assertTrue(text.contains("# TYPE test_move_seconds summary\n"));
+        assertTrue(text.contains("test_move_seconds{quantile=\"0.99\"} 0.002"));
+        assertTrue(text.contains("test_move_seconds_count 1\n"));
+        assertTrue(text.contains("test_move_seconds_max 0.002000000\n"));
+    }
+
+    @Test
+    public void testMBeanExposesMetricsAsReadOnlyAttributes() throws Exception {
+        MetricsMBean bean = new MetricsMBean(sample());
+
+        assertEquals(3L, bean.getAttribute("test_moves_total"));
+        assertEquals(7L, bean.getAttribute("test_games"));
+        assertEquals(1L, bean.getAttribute("test_move_seconds_count"));
+        assertEquals(2000.0, (Double) bean.getAttribute("test_move_seconds_max_us"), 0.001);
+        assertThrows(AttributeNotFoundException.class, () -> bean.getAttribute("missing"));
+
+        AttributeList list = bean.getAttributes(new String[]{"test_moves_total", "missing"});
+        assertEquals(1, list.size(), "Nieznane atrybuty są pomijane");
+
+        assertThrows(AttributeNotFoundException.class, () -> bean.setAttribute(new Attribute("test_moves_total", 0L)));
+        assertEquals(0, bean.setAttributes(list).size());
+        assertThrows(ReflectionException.class, () -> bean.invoke("reset", new Object[0], new String[0]));
+
+        MBeanAttributeInfo[] attributes = bean.getMBeanInfo().getAttributes();
+        assertTrue(Arrays.stream(attributes).anyMatch(a -> a.getName().equals("test_move_seconds_p99_us")));
+        assertTrue(Arrays.stream(attributes).noneMatch(MBeanAttributeInfo::isWritable));
+    }
+
+    @Test
+    public void testEndpointServesScrapeOnLoopback() throws Exception {
+        ServerMetrics metrics = sample();
+        MetricsEndpoint endpoint = new MetricsEndpoint(metrics, 0);
+        endpoint.start();
+        try {
+            HttpURLConnection connection = (HttpURLConnection)
+                    new URL("http://127.0.0.1:" + endpoint.getPort() + "/metrics").openConnection();
+            assertEquals(200, connection.getResponseCode());
+            assertTrue(connection.getContentType().startsWith("text/plain"));
+            try (InputStream in = connection.getInputStream()) {
+                String body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+                assertTrue(body.contains("test_moves_total 3"));
+            }
+        } finally {
+            endpoint.stop();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SgfCodecTest {
+
+    @Test
+    public void testWriteAndParseRoundTrip() throws Exception {
+        List<MoveRecord> moves = List.of(
+                new MoveRecord(1, 1, 3, 15, StoneColor.BLACK, "MOVE"),
+                new MoveRecord(1, 2, -1, -1, StoneColor.WHITE, "PASS"),
+                new MoveRecord(1, 3, 18, 0, StoneColor.BLACK, "MOVE"),
+                new MoveRecord(1, 4, -1, -1, StoneColor.WHITE, "SURRENDER"));
+        StringWriter out = new StringWriter();
+        SgfCodec.write(out, 19, "BLACK_WON", moves);
+        assertTrue(out.toString().contains("RE[B+R]"), out.toString());
+
+        SgfCodec.SgfRecord record = SgfCodec.parse(out.toString());
+        assertEquals(19, record.getBoardSize());
+        assertEquals("BLACK_WON", record.getResult());
+        assertEquals(4, record.getMoves().size());
+        assertEquals(3, record.getMoves().get(0).getX());
+        assertEquals(15, record.getMoves().get(0).getY());
+        assertEquals("PASS", record.getMoves().get(1).getType());
+        assertEquals("SURRENDER", record.getMoves().get(3).getType());
+        assertEquals(StoneColor.WHITE, record.getMoves().get(3).getColor());
+    }
+
+    @Test
+    public void testCollectionIsSplitAndVariationsSkipped() throws Exception {
+        String collection = "(;SZ[9]C[komentarz z ( i \\] w środku];B[aa](;W[bb];B[cc])(;W[dd]))\n"
+                + "(;GM[1]SZ[13]RE[W+3.5];B[];W[mm])";
+        List<String> games = new ArrayList<>();
+        SgfCodec.readGames(new StringReader(collection), games::add);
+        assertEquals(2, games.size());
+
+        SgfCodec.SgfRecord first = SgfCodec.parse(games.get(0));
+        assertEquals(9, first.getBoardSize());
+        assertEquals(3, first.getMoves().size(), "Tylko pierwsza wariacja należy do partii");
+        assertEquals(2, first.getMoves().get(2).getX());
+        assertEquals("UNKNOWN", first.getResult());
+
+        SgfCodec.SgfRecord second = SgfCodec.parse(games.get(1));
+        assertEquals("WHITE_WON", second.getResult());
+        assertEquals("PASS", second.getMoves().get(0).getType());
+        assertEquals(12, second.getMoves().get(1).getY());
+    }
+
+    @Test
+    public void testDeeplyNestedVariationsDoNotOverflowTheStack() {
+        int depth = 200_000;
+        StringBuilder sgf = new StringBuilder("(;SZ[9];B[aa]");
+        for (int i = 0; i < depth; i++) sgf.append("(;C[wariacja]");
+        sgf.append(";W[bb]");
+        for (int i = 0; i < depth; i++) sgf.append(')');
+        sgf.append("(;W[cc]))");
+
+        SgfCodec.SgfRecord record = SgfCodec.parse(sgf.toString());
+        assertEquals(2, record.getMoves().size());
+        assertEquals(1, record.getMoves().get(1).getX(), "Partia idzie pierwszą wariacją na każdym poziomie");
+
+        sgf.setLength(sgf.length() - 1);   // one ')' short
+        assertThrows(IllegalArgumentException.class, () -> SgfCodec.parse(sgf.toString()));
+    }
+
+    @Test
+    public void testIllegalGamesAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> SgfCodec.parse("(;SZ[9]AB[aa];W[bb])"));
+        assertThrows(IllegalArgumentException.class, () -> SgfCodec.parse("(;SZ[9];B[zz])"));
+
+        SgfCodec.SgfRecord occupied = SgfCodec.parse("(;SZ[9];B[cc];W[cc])");
+        assertThrows(IllegalArgumentException.class, () -> SgfArchiveService.validate(occupied));
+
+        byte[] blob = SgfArchiveService.validate(SgfCodec.parse("(;SZ[9];B[cc];W[dd])"));
+        assertEquals(2, MoveCodec.moveCount(blob));
+        assertEquals(9, MoveCodec.boardSize(blob));
+    }
+}
@@ -0,0 +1,74 @@
+package com.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UiDispatcherTest {
+
+    private static class RecordingSink implements UiDispatcher.Sink {
+        final List<BoardFrame.Diff> boards = new ArrayList<>();
+        final List<List<String>> logs = new ArrayList<>();
+
+        @Override
+        public void updateBoard(BoardFrame.Diff diff) { boards.add(diff); }
+
+        @Override
+        public void appendLog(List<String> lines) { logs.add(lines); }
+    }
+
+    @Test
+    public void testBurstIsMergedIntoOnePulse() {
+        List<Runnable> pulses = new ArrayList<>();
+        RecordingSink sink = new RecordingSink();
+        UiDispatcher dispatcher = new UiDispatcher(sink, pulses::add);
+
+        Board board = new Board(9);
+        BoardFrame frame = new BoardFrame();
+        dispatcher.postBoard(frame.update("BOARD " + board.getBoardStateString(), 6));
+        board.setStone(0, 0, StoneColor.BLACK);
+        dispatcher.postBoard(frame.update("BOARD " + board.getBoardStateString(), 6));
+        dispatcher.postLog("pierwsza");
+        board.setStone(0, 0, StoneColor.EMPTY);
+        board.setStone(4, 4, StoneColor.WHITE);
+        dispatcher.postBoard(frame.update("BOARD " + board.getBoardStateString(), 6));
+        dispatcher.postLog("druga");
+
+        assertEquals(1, pulses.size(), "Tylko jedno runLater w kolejce");
+        pulses.get(0).run();
+
+        assertEquals(1, sink.boards.size());
+        BoardFrame.Diff merged = sink.boards.get(0);
+        assertTrue(merged.isResized());
+        assertEquals(2, merged.getChangedCount());
+        assertEquals(0, merged.getCell(0));
+        assertEquals(BoardFrame.EMPTY, merged.getValue(0));
+        assertEquals(4 * 9 + 4, merged.getCell(1));
+        assertEquals(BoardFrame.WHITE, merged.getValue(1));
+        assertEquals(List.of("pierwsza", "druga"), sink.logs.get(0));
+
+        dispatcher.postLog("trzecia");
+        assertEquals(2, pulses.size());
+        pulses.get(1).run();
+        assertEquals(1, sink.boards.size(), "Bez zmian planszy nie ma aktualizacji");
+        assertEquals(List.of("trzecia"), sink.logs.get(1));
+    }
+
+    @Test
+    public void testPendingLogIsBounded() {
+        List<Runnable> pulses = new ArrayList<>();
+        RecordingSink sink = new RecordingSink();
+        UiDispatcher dispatcher = new UiDispatcher(sink, pulses::add);
+        for (int i = 0; i < UiDispatcher.MAX_PENDING_LINES + 5; i++) {
+            dispatcher.postLog("linia " + i);
+        }
+        pulses.get(0).run();
+        List<String> lines = sink.logs.get(0);
+        assertEquals(UiDispatcher.MAX_PENDING_LINES + 1, lines.size());
+        assertEquals("... pominięto 5 wiadomości", lines.get(0));
+        assertEquals("linia 5", lines.get(1));
+    }
+}